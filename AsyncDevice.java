@@ -0,0 +1,220 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 느린 장치(console, pipe, 느린 주변장치 흉내 등)를 감싸서 실제 입출력을 virtual thread에서 처리하는 장치.
+ * <p>
+ * 입력 장치는 background에서 미리 읽어 PipeDevice(ring buffer)에 채워 두고, TD는 읽은 데이터가 도착했을 때만
+ * SW = 1을 돌려준다. 출력 장치는 WD한 바이트를 ring buffer에 넣기만 하고 background에서 실제 장치로 내보내며, TD는
+ * buffer에 빈 자리가 있을 때 SW = 1이다. 따라서 SIC의 TD/RD 반복 확인 방식 그대로 simulator thread(GUI에서는
+ * SwingWorker)가 장치 때문에 멈추지 않는다.
+ * <p>
+ * 모든 AsyncDevice는 하나의 virtual-thread executor를 공유하므로, 입출력을 기다리는 장치가 수천 개여도 platform
+ * thread는 carrier pool 크기만큼만 사용한다.
+ */
+public class AsyncDevice implements Device {
+	private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	private final Device delegate;
+	private final boolean input;
+	private final PipeDevice queue;
+	private volatile Thread worker;
+	// TD 없이 RD/WD하거나 flush()하여 worker를 기다리는 simulator thread. worker가 상태를 바꾼 뒤 unpark한다.
+	private volatile Thread waiter;
+	private volatile boolean started;
+	private volatile boolean finished;
+	private volatile IOException failure;
+	// 출력: WD로 넣은 바이트 수(simulator thread만 증가)와 실제 장치에 쓰고 flush까지 끝낸 바이트 수(worker만 갱신)
+	private volatile long queued;
+	private volatile long flushed;
+
+	/**
+	 * @param delegate 실제 장치
+	 * @param input    true이면 입력 장치(RD), false이면 출력 장치(WD)
+	 */
+	public AsyncDevice(Device delegate, boolean input) {
+		this(delegate, input, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param delegate 실제 장치
+	 * @param input    true이면 입력 장치(RD), false이면 출력 장치(WD)
+	 * @param capacity 미리 읽거나 쌓아 둘 수 있는 바이트 수
+	 */
+	public AsyncDevice(Device delegate, boolean input, int capacity) {
+		this.delegate = delegate;
+		this.input = input;
+		this.queue = new PipeDevice(capacity);
+	}
+
+	@Override
+	public boolean test() {
+		start();
+		return input ? queue.reader().test() : queue.writer().test();
+	}
+
+	/**
+	 * 미리 읽은 바이트를 돌려준다. TD 없이 호출하여 아직 도착한 데이터가 없으면 도착할 때까지 기다린다.
+	 */
+	@Override
+	public int read() throws IOException {
+		if (!input)
+			throw new IOException("Async device " + delegate + " is write-only");
+		start();
+		Device reader = queue.reader();
+		await(reader::test);
+		int b = reader.read();
+		LockSupport.unpark(worker); // 빈 자리가 생겼으므로 다음 바이트를 읽게 한다
+		if (b < 0 && failure != null)
+			throw failure;
+		return b;
+	}
+
+	/**
+	 * 바이트를 buffer에 넣는다. TD 없이 호출하여 buffer가 가득 차 있으면 빈 자리가 생길 때까지 기다린다.
+	 */
+	@Override
+	public void write(int b) throws IOException {
+		if (input)
+			throw new IOException("Async device " + delegate + " is read-only");
+		if (failure != null)
+			throw failure;
+		start();
+		Device writer = queue.writer();
+		await(() -> writer.test() || failure != null);
+		if (failure != null)
+			throw failure;
+		writer.write(b);
+		queued++;
+		LockSupport.unpark(worker);
+	}
+
+	/**
+	 * 출력 장치이면 지금까지 쓴 내용이 모두 실제 장치로 나가고 flush될 때까지 기다린다. 실제 장치는 worker thread만
+	 * 사용한다.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (input || !started)
+			return;
+		LockSupport.unpark(worker);
+		await(() -> flushed == queued || finished);
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * 남은 출력을 내보내고 background 작업을 끝낸 뒤 실제 장치를 닫는다.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			finished = true;
+			LockSupport.unpark(worker);
+			delegate.close();
+		}
+	}
+
+	/**
+	 * ready가 참이 될 때까지 simulator thread를 park한다. waiter를 먼저 등록한 뒤 조건을 확인하므로 그 사이에 worker가
+	 * 상태를 바꾸어도 unpark를 놓치지 않는다.
+	 */
+	private void await(BooleanSupplier ready) {
+		waiter = Thread.currentThread();
+		try {
+			while (!ready.getAsBoolean()) {
+				LockSupport.park(this);
+			}
+		} finally {
+			waiter = null;
+		}
+	}
+
+	// worker가 queue나 flushed를 바꾼 뒤 호출한다. queue 위치는 lazySet으로 갱신되므로 waiter를 읽기 전에 fence를 둔다
+	private void wakeWaiter() {
+		VarHandle.fullFence();
+		LockSupport.unpark(waiter);
+	}
+
+	private void start() {
+		if (started)
+			return;
+		synchronized (this) {
+			if (started)
+				return;
+			started = true;
+			EXECUTOR.execute(input ? this::fill : this::drain);
+		}
+	}
+
+	// 입력: 실제 장치에서 읽어 queue에 채운다. 장치 끝이나 오류면 queue를 닫는다.
+	private void fill() {
+		worker = Thread.currentThread();
+		Device writer = queue.writer();
+		try {
+			while (!finished) {
+				int b = delegate.read();
+				if (b < 0)
+					break;
+				while (!writer.test() && !finished) {
+					LockSupport.park(this);
+				}
+				if (finished)
+					break;
+				writer.write(b);
+				wakeWaiter();
+			}
+		} catch (IOException e) {
+			failure = e;
+		} finally {
+			try {
+				writer.close();
+			} catch (IOException ignored) {
+			}
+			wakeWaiter();
+		}
+	}
+
+	// 출력: queue에 쌓인 바이트를 실제 장치로 내보낸다.
+	private void drain() {
+		worker = Thread.currentThread();
+		Device reader = queue.reader();
+		long written = 0;
+		try {
+			while (true) {
+				if (reader.test()) {
+					delegate.write(reader.read());
+					written++;
+					wakeWaiter(); // 빈 자리가 생겼다
+				} else if (finished) {
+					break;
+				} else {
+					if (flushed != written) {
+						delegate.flush(); // 잠시 쉬기 전에 실제 장치로 내보낸다
+						flushed = written;
+						wakeWaiter();
+					}
+					LockSupport.park(this);
+				}
+			}
+		} catch (IOException e) {
+			failure = e;
+			finished = true;
+			wakeWaiter();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "async:" + delegate;
+	}
+}
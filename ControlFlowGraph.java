@@ -0,0 +1,180 @@
+package SP25_simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * load된 프로그램의 명령어들을 basic block 단위로 묶은 control-flow graph. Disassembler가 load할 때마다 한 번 만들고,
+ * instruction 목록(GUI), 실행 시 주소 -> 명령어 조회, block 단위 실행 등이 같은 결과를 공유한다.
+ * <p>
+ * 명령어는 주소 오름차순의 int[]/byte[] 배열로 가지고 있으며 block은 그 배열의 연속된 구간이다.
+ */
+public class ControlFlowGraph {
+	/**
+	 * 중간에 들어오거나 나가는 분기가 없는 명령어 구간.
+	 */
+	public static class BasicBlock {
+		public final int start;
+		// block의 마지막 명령어 바로 다음 주소
+		public final int end;
+		// instructionAddresses에서 이 block의 첫 명령어 index
+		public final int firstInstruction;
+		public final int instructionCount;
+		// 다음에 실행될 수 있는 block의 시작 주소. 알 수 없는 곳(간접 분기, RSUB 등)으로 가면 비어 있다.
+		public final int[] successors;
+		// JSUB로 끝나는 block의 호출 대상 주소 (없으면 -1)
+		public final int callTarget;
+
+		BasicBlock(int start, int end, int firstInstruction, int instructionCount, int[] successors, int callTarget) {
+			this.start = start;
+			this.end = end;
+			this.firstInstruction = firstInstruction;
+			this.instructionCount = instructionCount;
+			this.successors = successors;
+			this.callTarget = callTarget;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(String.format("[%06X, %06X) ->", start, end));
+			for (int successor : successors) {
+				sb.append(String.format(" %06X", successor));
+			}
+			if (callTarget >= 0)
+				sb.append(String.format(" call %06X", callTarget));
+			return sb.toString();
+		}
+	}
+
+	public static final ControlFlowGraph EMPTY = new ControlFlowGraph(new int[0], new byte[0], List.of());
+
+	final int[] instructionAddresses;
+	final byte[] instructionLengths;
+	final List<BasicBlock> blocks;
+
+	private ControlFlowGraph(int[] instructionAddresses, byte[] instructionLengths, List<BasicBlock> blocks) {
+		this.instructionAddresses = instructionAddresses;
+		this.instructionLengths = instructionLengths;
+		this.blocks = blocks;
+	}
+
+	/**
+	 * 명령어 목록으로부터 basic block을 나눈다. 분기 대상과 분기 명령 바로 다음 주소, 연속되지 않는 명령어가 block의
+	 * 시작이 된다.
+	 *
+	 * @param memory    명령어를 읽을 메모리
+	 * @param addresses 명령어 주소 (오름차순)
+	 * @param lengths   명령어 길이
+	 * @param count     명령어 수
+	 * @param roots     추가로 block 시작으로 볼 주소 (실행 시작 주소, section 시작 등)
+	 * @return 만들어진 graph
+	 */
+	public static ControlFlowGraph build(char[] memory, int[] addresses, byte[] lengths, int count, int[] roots) {
+		addresses = Arrays.copyOf(addresses, count);
+		lengths = Arrays.copyOf(lengths, count);
+
+		// block 시작 주소 표시
+		java.util.BitSet leaders = new java.util.BitSet(memory.length);
+		for (int root : roots) {
+			if (root >= 0 && root < memory.length)
+				leaders.set(root);
+		}
+		for (int i = 0; i < count; i++) {
+			int addr = addresses[i];
+			int kind = Disassembler.branchKind(memory, addr);
+			if (kind == Disassembler.FALL_THROUGH)
+				continue;
+			int target = Disassembler.branchTarget(memory, addr, lengths[i]);
+			if (target >= 0 && target < memory.length)
+				leaders.set(target);
+			if (addr + lengths[i] < memory.length)
+				leaders.set(addr + lengths[i]);
+		}
+
+		List<BasicBlock> blocks = new ArrayList<>();
+		int first = 0;
+		for (int i = 0; i < count; i++) {
+			int next = addresses[i] + lengths[i];
+			boolean last = i + 1 == count || addresses[i + 1] != next || leaders.get(addresses[i + 1])
+					|| Disassembler.branchKind(memory, addresses[i]) != Disassembler.FALL_THROUGH;
+			if (!last)
+				continue;
+			blocks.add(makeBlock(memory, addresses, lengths, first, i, i + 1 < count && addresses[i + 1] == next));
+			first = i + 1;
+		}
+		return new ControlFlowGraph(addresses, lengths, List.copyOf(blocks));
+	}
+
+	private static BasicBlock makeBlock(char[] memory, int[] addresses, byte[] lengths, int first, int last,
+			boolean contiguous) {
+		int lastAddr = addresses[last];
+		int end = lastAddr + lengths[last];
+		int kind = Disassembler.branchKind(memory, lastAddr);
+		int target = kind == Disassembler.FALL_THROUGH ? -1 : Disassembler.branchTarget(memory, lastAddr, lengths[last]);
+		int[] successors;
+		int callTarget = -1;
+		switch (kind) {
+			case Disassembler.JUMP -> successors = target >= 0 ? new int[] { target } : new int[0];
+			case Disassembler.CONDITIONAL -> successors = target >= 0 ? new int[] { target, end } : new int[] { end };
+			case Disassembler.CALL -> {
+				successors = new int[] { end };
+				callTarget = target;
+			}
+			case Disassembler.RETURN -> successors = new int[0];
+			default -> successors = contiguous ? new int[] { end } : new int[0];
+		}
+		return new BasicBlock(addresses[first], end, first, last - first + 1, successors, callTarget);
+	}
+
+	/**
+	 * @return 명령어 수
+	 */
+	public int instructionCount() {
+		return instructionAddresses.length;
+	}
+
+	public int instructionAddress(int index) {
+		return instructionAddresses[index];
+	}
+
+	public int instructionLength(int index) {
+		return instructionLengths[index];
+	}
+
+	/**
+	 * @return block 목록 (시작 주소 오름차순)
+	 */
+	public List<BasicBlock> getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * @param address 명령어 주소
+	 * @return address에서 시작하는 명령어의 index. 없으면 -1
+	 */
+	public int instructionIndex(int address) {
+		int index = Arrays.binarySearch(instructionAddresses, address);
+		return index >= 0 ? index : -1;
+	}
+
+	/**
+	 * @param address 임의의 주소
+	 * @return address를 포함하는 block. 없으면 null
+	 */
+	public BasicBlock blockAt(int address) {
+		int low = 0;
+		int high = blocks.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			BasicBlock block = blocks.get(mid);
+			if (address < block.start)
+				high = mid - 1;
+			else if (address >= block.end)
+				low = mid + 1;
+			else
+				return block;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,205 @@
+package SP25_simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * object program 안의 control section 하나(H ~ E 레코드)를 해석한 결과. 메모리나 symbol table에는 손대지 않으므로
+ * 여러 section을 동시에 해석할 수 있다. 주소는 모두 section 시작 기준의 상대 주소이며, 실제 위치(loadAddr)는
+ * SicLoader가 link 단계에서 정한다.
+ */
+public class ControlSection {
+	// 16진수 문자 -> 값 변환표. 16진수가 아닌 문자는 -1
+	private static final byte[] HEX_VALUE = new byte[128];
+	static {
+		Arrays.fill(HEX_VALUE, (byte) -1);
+		for (int i = 0; i < 10; i++) HEX_VALUE['0' + i] = (byte) i;
+		for (int i = 0; i < 6; i++) {
+			HEX_VALUE['A' + i] = (byte) (10 + i);
+			HEX_VALUE['a' + i] = (byte) (10 + i);
+		}
+	}
+
+	String fileName;
+	String name = "";
+	int startAddr;
+	int length;
+	int loadAddr;
+	// E 레코드의 실행 시작 주소 (없으면 -1)
+	int entry = -1;
+
+	final ArrayList<String> defNames = new ArrayList<>();
+	final ArrayList<Integer> defAddrs = new ArrayList<>();
+	final ArrayList<String> refNames = new ArrayList<>();
+	// link 단계에서 만드는 지역 symbol table (parent는 ESTAB)
+	SymbolTable symtab;
+
+	// T 레코드 내용. textData[textOffsets[i] ..]에서 textLengths[i] 바이트가 textAddrs[i]에 놓인다.
+	int textCount;
+	int[] textAddrs = new int[8];
+	int[] textOffsets = new int[8];
+	int[] textLengths = new int[8];
+	char[] textData = new char[256];
+	int textSize;
+
+	// M 레코드 내용
+	int modCount;
+	int[] modAddrs = new int[8];
+	int[] modHalfBytes = new int[8];
+	boolean[] modAdd = new boolean[8];
+	String[] modSymbols = new String[8];
+
+	/**
+	 * buffer의 position부터 limit까지를 하나의 control section으로 보고 해석한다.
+	 *
+	 * @param buffer   section 하나 분량의 object code
+	 * @param fileName 진단 메시지에 사용할 파일 이름
+	 * @return 해석 결과
+	 * @throws NumberFormatException 16진수 자리에 다른 문자가 있을 때. 메시지에 해당 레코드가 포함된다.
+	 */
+	public static ControlSection parse(ByteBuffer buffer, String fileName) {
+		ControlSection section = new ControlSection();
+		section.fileName = fileName;
+		byte[] line = new byte[256];
+		int lineLength = 0;
+		while (buffer.hasRemaining()) {
+			byte b = buffer.get();
+			if (b == '\n') {
+				section.parseLine(line, lineLength);
+				lineLength = 0;
+			} else {
+				if (lineLength == line.length)
+					line = Arrays.copyOf(line, line.length * 2);
+				line[lineLength++] = b;
+			}
+		}
+		if (lineLength > 0)
+			section.parseLine(line, lineLength);
+		return section;
+	}
+
+	// 잘못된 16진수가 있으면 어느 레코드인지 덧붙여 다시 던진다
+	private void parseLine(byte[] line, int length) {
+		try {
+			parseRecord(line, length);
+		} catch (NumberFormatException e) {
+			throw new NumberFormatException(e.getMessage() + ": " + new String(line, 0, length).trim());
+		}
+	}
+
+	/**
+	 * 레코드 한 줄을 해석한다. 줄 끝의 공백 문자와 CR은 무시한다.
+	 */
+	private void parseRecord(byte[] line, int length) {
+		while (length > 0 && (line[length - 1] == '\r' || line[length - 1] == ' '))
+			length--;
+		if (length == 0)
+			return;
+		switch (line[0]) {
+			case 'H' -> {
+				if (length < 19) {
+					if (Trace.LOADER >= Trace.ERROR)
+						Trace.println("[H] Record too short: " + new String(line, 0, length));
+					return;
+				}
+				name = ascii(line, 1, 6);
+				startAddr = hex(line, 7, 6);
+				this.length = hex(line, 13, 6);
+			}
+			case 'D' -> {
+				if (length < 13) {
+					if (Trace.LOADER >= Trace.ERROR)
+						Trace.println("[D] Record too short: " + new String(line, 0, length));
+					return;
+				}
+				for (int i = 1; i + 12 <= length; i += 12) {
+					defNames.add(ascii(line, i, 6));
+					defAddrs.add(hex(line, i + 6, 6));
+				}
+			}
+			case 'R' -> {
+				for (int i = 1; i < length; i += 6) {
+					String ref = ascii(line, i, Math.min(6, length - i));
+					if (!ref.isEmpty())
+						refNames.add(ref);
+				}
+			}
+			case 'T' -> {
+				if (length < 11) {
+					if (Trace.LOADER >= Trace.ERROR)
+						Trace.println("[T] Record too short: " + new String(line, 0, length));
+					return;
+				}
+				int count = (length - 9) / 2;
+				if (textCount == textAddrs.length) {
+					textAddrs = Arrays.copyOf(textAddrs, textCount * 2);
+					textOffsets = Arrays.copyOf(textOffsets, textCount * 2);
+					textLengths = Arrays.copyOf(textLengths, textCount * 2);
+				}
+				if (textSize + count > textData.length)
+					textData = Arrays.copyOf(textData, Math.max(textData.length * 2, textSize + count));
+				int invalid = 0;
+				for (int i = 0, pos = 9; i < count; i++, pos += 2) {
+					int hi = line[pos] >= 0 ? HEX_VALUE[line[pos]] : -1;
+					int lo = line[pos + 1] >= 0 ? HEX_VALUE[line[pos + 1]] : -1;
+					invalid |= hi | lo;
+					textData[textSize + i] = (char) ((hi << 4) | lo);
+				}
+				if (invalid < 0)
+					throw new NumberFormatException("Invalid hex digit in T record");
+				textAddrs[textCount] = hex(line, 1, 6);
+				textOffsets[textCount] = textSize;
+				textLengths[textCount] = count;
+				textCount++;
+				textSize += count;
+			}
+			case 'M' -> {
+				if (length < 10) {
+					if (Trace.LOADER >= Trace.ERROR)
+						Trace.println("[M] Record too short: " + new String(line, 0, length));
+					return;
+				}
+				if (modCount == modAddrs.length) {
+					modAddrs = Arrays.copyOf(modAddrs, modCount * 2);
+					modHalfBytes = Arrays.copyOf(modHalfBytes, modCount * 2);
+					modAdd = Arrays.copyOf(modAdd, modCount * 2);
+					modSymbols = Arrays.copyOf(modSymbols, modCount * 2);
+				}
+				modAddrs[modCount] = hex(line, 1, 6);
+				modHalfBytes[modCount] = hex(line, 7, 2);
+				modAdd[modCount] = line[9] != '-';
+				modSymbols[modCount] = ascii(line, 10, length - 10);
+				modCount++;
+			}
+			case 'E' -> {
+				if (length > 1)
+					entry = hex(line, 1, length - 1);
+			}
+			default -> {
+				// 알 수 없는 레코드는 무시한다
+			}
+		}
+	}
+
+	// line[offset, offset + count)의 16진수를 정수로 변환한다. 공백은 무시한다.
+	private static int hex(byte[] line, int offset, int count) {
+		int value = 0;
+		int end = Math.min(offset + count, line.length);
+		for (int i = offset; i < end; i++) {
+			int c = line[i];
+			if (c == ' ')
+				continue;
+			int digit = c >= 0 ? HEX_VALUE[c] : -1;
+			if (digit < 0)
+				throw new NumberFormatException("Invalid hex digit '" + (char) c + "' in record");
+			value = (value << 4) | digit;
+		}
+		return value;
+	}
+
+	private static String ascii(byte[] line, int offset, int count) {
+		return new String(line, offset, count, StandardCharsets.US_ASCII).trim();
+	}
+}
@@ -0,0 +1,231 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 실행한 명령어와 조건 분기의 방향을 주소마다 1비트로 기록하는 coverage bitmap. ResourceManager.coverage에 설정하면
+ * SicSimulator가 명령어를 하나 실행할 때마다 record()를 호출한다.
+ * <p>
+ * bitmap은 세 개이다. executed는 실행한 명령어의 시작 주소, taken과 fallThrough는 조건 분기(JEQ/JGT/JLT)가
+ * 분기한 경우와 분기하지 않은 경우이다. 기록은 long 배열의 OR 한 번이다.
+ * <p>
+ * 여러 batch 실행의 결과는 export()로 저장한 뒤 merge()로 OR하여 합친다. 같은 프로그램의 결과만 합칠 수 있다.
+ * <p>
+ * 파일 구조 (big-endian) :
+ * <pre>
+ * header : magic "SICC"(4) version(2) flags(2) programName(8)
+ * bitmap : executed(8192) taken(8192) fallThrough(8192)
+ * </pre>
+ */
+public class CoverageMap {
+	public static final int MAGIC = 0x53494343; // "SICC"
+	public static final int VERSION = 1;
+	private static final int NAME_LENGTH = 8;
+	private static final int WORDS = 65536 >> 6;
+	private static final int HEADER_SIZE = 16;
+	private static final int FILE_SIZE = HEADER_SIZE + 3 * WORDS * 8;
+
+	final String programName;
+	final long[] executed = new long[WORDS];
+	final long[] taken = new long[WORDS];
+	final long[] fallThrough = new long[WORDS];
+
+	/**
+	 * @param programName 기록하는 프로그램 이름. 다른 프로그램의 결과와 합치지 않도록 파일에 함께 저장한다.
+	 */
+	public CoverageMap(String programName) {
+		this.programName = programName == null ? "" : programName.trim();
+	}
+
+	/**
+	 * 실행한 명령어 하나를 기록한다. 명령어를 실행한 직후에 호출한다.
+	 *
+	 * @param entry 실행한 명령어
+	 * @param pc    실행 후의 PC
+	 */
+	public void record(ResourceManager.InstructionEntry entry, int pc) {
+		int addr = entry.address;
+		executed[addr >> 6] |= 1L << addr;
+		int opcode = entry.opcode;
+		if (opcode == 0x30 || opcode == 0x34 || opcode == 0x38) { // JEQ, JGT, JLT
+			if (pc == addr + (entry.hexCode.length() >> 1))
+				fallThrough[addr >> 6] |= 1L << addr;
+			else
+				taken[addr >> 6] |= 1L << addr;
+		}
+	}
+
+	public boolean isExecuted(int addr) {
+		return (executed[addr >> 6] & (1L << addr)) != 0;
+	}
+
+	public boolean isTaken(int addr) {
+		return (taken[addr >> 6] & (1L << addr)) != 0;
+	}
+
+	public boolean isFallThrough(int addr) {
+		return (fallThrough[addr >> 6] & (1L << addr)) != 0;
+	}
+
+	/**
+	 * 다른 실행의 결과를 더한다.
+	 *
+	 * @param other 같은 프로그램의 coverage
+	 * @throws IllegalArgumentException 프로그램 이름이 다를 때
+	 */
+	public void merge(CoverageMap other) {
+		if (!programName.equals(other.programName))
+			throw new IllegalArgumentException(
+					String.format("Cannot merge coverage of '%s' into '%s'", other.programName, programName));
+		for (int i = 0; i < WORDS; i++) {
+			executed[i] |= other.executed[i];
+			taken[i] |= other.taken[i];
+			fallThrough[i] |= other.fallThrough[i];
+		}
+	}
+
+	/**
+	 * other에만 있는 bit를 더한다.
+	 *
+	 * @param other 같은 프로그램의 coverage
+	 * @return 새로 더해진 bit가 있으면 true
+	 */
+	public boolean mergeNew(CoverageMap other) {
+		boolean added = false;
+		for (int i = 0; i < WORDS; i++) {
+			long fresh = (other.executed[i] & ~executed[i]) | (other.taken[i] & ~taken[i])
+					| (other.fallThrough[i] & ~fallThrough[i]);
+			if (fresh != 0) {
+				executed[i] |= other.executed[i];
+				taken[i] |= other.taken[i];
+				fallThrough[i] |= other.fallThrough[i];
+				added = true;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * 기록을 모두 지운다.
+	 */
+	public void clear() {
+		Arrays.fill(executed, 0);
+		Arrays.fill(taken, 0);
+		Arrays.fill(fallThrough, 0);
+	}
+
+	/**
+	 * 파일로 저장한다.
+	 *
+	 * @param file 저장할 파일
+	 */
+	public void export(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+		buffer.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0);
+		byte[] name = Arrays.copyOf(programName.getBytes(StandardCharsets.US_ASCII), NAME_LENGTH);
+		buffer.put(name);
+		buffer.asLongBuffer().put(executed).put(taken).put(fallThrough);
+		buffer.position(0);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * export()로 저장한 파일을 읽는다.
+	 *
+	 * @param file coverage 파일
+	 * @return 읽은 coverage
+	 */
+	public static CoverageMap load(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != FILE_SIZE)
+				throw new IOException("Not a coverage file: " + file);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			}
+		}
+		buffer.flip();
+		if (buffer.getInt() != MAGIC)
+			throw new IOException("Not a coverage file: " + file);
+		if (buffer.getShort() != VERSION)
+			throw new IOException("Unsupported coverage file version: " + file);
+		buffer.getShort();
+		byte[] name = new byte[NAME_LENGTH];
+		buffer.get(name);
+		CoverageMap map = new CoverageMap(new String(name, StandardCharsets.US_ASCII).replace("\0", ""));
+		buffer.asLongBuffer().get(map.executed).get(map.taken).get(map.fallThrough);
+		return map;
+	}
+
+	/**
+	 * instruction 목록 기준으로 명령어와 분기 방향의 coverage를 출력한다. routine(symbol)별 비율도 함께 출력한다.
+	 *
+	 * @param rMgr 명령어 목록과 symbol을 가진 ResourceManager
+	 * @return 보고서 문자열
+	 */
+	public String summary(ResourceManager rMgr) {
+		SymbolIndex symbols = rMgr.symbolIndex;
+		int[] total = new int[symbols.size() + 1];
+		int[] covered = new int[symbols.size() + 1];
+		int instructions = 0;
+		int executedCount = 0;
+		int edges = 0;
+		int edgesCovered = 0;
+		for (ResourceManager.InstructionEntry entry : rMgr.debugInstructionList) {
+			int addr = entry.address;
+			int routine = symbols.indexOf(addr) + 1;
+			instructions++;
+			total[routine]++;
+			if (isExecuted(addr)) {
+				executedCount++;
+				covered[routine]++;
+			}
+			if (Disassembler.branchKind(rMgr.memory, addr) == Disassembler.CONDITIONAL) {
+				edges += 2;
+				edgesCovered += (isTaken(addr) ? 1 : 0) + (isFallThrough(addr) ? 1 : 0);
+			}
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Coverage of %s: %d/%d instructions (%.1f%%), %d/%d branch edges (%.1f%%)%n",
+				programName, executedCount, instructions, ratio(executedCount, instructions), edgesCovered, edges,
+				ratio(edgesCovered, edges)));
+		for (int i = 0; i < total.length; i++) {
+			if (total[i] != 0)
+				sb.append(String.format("  %-8s %d/%d (%.1f%%)%n", i == 0 ? "(none)" : symbols.nameAt(i - 1),
+						covered[i], total[i], ratio(covered[i], total[i])));
+		}
+		return sb.toString();
+	}
+
+	private static double ratio(int count, int total) {
+		return total == 0 ? 100.0 : count * 100.0 / total;
+	}
+
+	/**
+	 * 여러 coverage 파일을 하나로 합친다.
+	 * <p>
+	 * 사용법 : java SP25_simulator.CoverageMap &lt;output&gt; &lt;input...&gt;
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: CoverageMap <output> <input...>");
+			System.exit(2);
+		}
+		CoverageMap merged = load(Paths.get(args[1]));
+		for (int i = 2; i < args.length; i++) {
+			merged.merge(load(Paths.get(args[i])));
+		}
+		merged.export(Paths.get(args[0]));
+	}
+}
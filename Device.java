@@ -0,0 +1,49 @@
+package SP25_simulator;
+
+import java.io.IOException;
+
+/**
+ * TD/RD/WD가 사용하는 장치. DeviceManager에 이름("F1", "05" 등)으로 붙여서 사용한다.
+ * <p>
+ * 구현 : FileDevice(파일), MappedFileDevice(memory-mapped 입력 파일), MemoryDevice(byte 배열), StreamDevice
+ * (표준 입출력 등 stream), PipeDevice(다른 simulator 인스턴스와 연결하는 ring buffer).
+ */
+public interface Device {
+	/**
+	 * TD 명령에서 호출한다.
+	 *
+	 * @return 장치가 다음 RD/WD를 바로 처리할 수 있으면 true (SW = 1)
+	 */
+	boolean test();
+
+	/**
+	 * @return 다음 바이트 (0 ~ 255). 더 읽을 데이터가 없으면 -1
+	 */
+	int read() throws IOException;
+
+	/**
+	 * @param b 쓸 바이트 (하위 8비트만 사용)
+	 */
+	void write(int b) throws IOException;
+
+	/**
+	 * buffer에 남아 있는 출력을 내보낸다.
+	 */
+	default void flush() throws IOException {
+	}
+
+	/**
+	 * 이 장치를 쓰던 프로그램이 끝났을 때(PC = FFFFFF) 그 simulator가 호출한다. 기본 구현은 flush()만 한다. 상대 쪽이
+	 * 있는 장치(PipeDevice의 writer)는 여기서 상대에게 입력의 끝을 알린다.
+	 */
+	default void finish() throws IOException {
+		flush();
+	}
+
+	/**
+	 * flush한 뒤 장치가 가진 자원을 반납한다.
+	 */
+	default void close() throws IOException {
+		flush();
+	}
+}
@@ -0,0 +1,368 @@
+package SP25_simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * DeviceManager를 거치는 장치 입출력(TD 결과, RD로 읽은 바이트, WD로 쓴 바이트, 입출력 오류)을 순서대로 기록하고, 같은
+ * 순서로 다시 재생하는 journal.
+ * <p>
+ * 기록 중에는 실제 장치를 사용하며 결과만 파일에 덧붙인다. 재생 중에는 실제 장치를 전혀 열지 않고 journal의 결과를
+ * 돌려주며, WD로 쓰는 바이트는 기록된 바이트와 비교한다. simulator가 요청한 장치 입출력이 journal과 다르면(다른 장치,
+ * 다른 종류의 입출력, 다른 출력 바이트, journal보다 많거나 적은 입출력) divergence로 기록한다. divergence 이후의
+ * 입출력은 장치가 준비되지 않았거나(TD) 데이터가 없는(RD) 것으로 처리하며, SicSimulator.allStep()은 실행을 멈춘다.
+ * <p>
+ * 파일 형식 : magic "SICJ", version(1바이트) 뒤에 record가 이어진다. record의 첫 바이트는 종류, 둘째 바이트는 장치
+ * 번호(journal 안에서 처음 나올 때 DEFINE record로 이름을 정한다)이다.
+ * <pre>
+ * DEFINE    index, 이름 길이, 이름(UTF-8)
+ * READY     index                TD 결과 준비됨
+ * BUSY      index                TD 결과 준비 안 됨
+ * READ      index, byte          RD 결과
+ * EOF       index                RD 결과 데이터 없음
+ * WRITE     index, byte          WD 출력
+ * NO_FILE   index                장치 파일 없음
+ * ERROR     index, 길이(2바이트), 내용(UTF-8)   그 밖의 입출력 오류
+ * REPEAT    count(varint)        직전 record가 count번 더 반복됨
+ * </pre>
+ * TD로 장치를 기다리는 loop처럼 같은 결과가 이어지면 REPEAT 하나로 줄인다.
+ */
+public class DeviceJournal implements AutoCloseable {
+	private static final byte[] MAGIC = { 'S', 'I', 'C', 'J' };
+	private static final int VERSION = 1;
+
+	private static final int DEFINE = 0;
+	private static final int READY = 1;
+	private static final int BUSY = 2;
+	private static final int READ = 3;
+	private static final int EOF = 4;
+	private static final int WRITE = 5;
+	private static final int NO_FILE = 6;
+	private static final int ERROR = 7;
+	private static final int REPEAT = 8;
+
+	private static final int MAX_DEVICES = 256;
+
+	// 기록 : 출력 stream과 장치 번호
+	private final DataOutputStream out;
+	private final HashMap<String, Integer> indices = new HashMap<>();
+	// 아직 쓰지 않은 직전 record와 반복 횟수
+	private int lastType = -1;
+	private int lastIndex;
+	private int lastValue;
+	private long repeat;
+
+	// 재생 : journal 전체와 읽기 위치
+	private final ByteBuffer in;
+	private final List<String> names = new ArrayList<>();
+	private int pendingType = -1;
+	private int pendingIndex;
+	private int pendingValue;
+	private String pendingMessage;
+	private long pendingRepeat;
+
+	private long events;
+	private long divergences;
+	private String firstDivergence;
+
+	private DeviceJournal(DataOutputStream out, ByteBuffer in) {
+		this.out = out;
+		this.in = in;
+	}
+
+	/**
+	 * 기록용 journal을 만든다. 파일이 있으면 덮어쓴다.
+	 *
+	 * @param file journal 파일
+	 */
+	public static DeviceJournal record(Path file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		return new DeviceJournal(out, null);
+	}
+
+	/**
+	 * 재생용 journal을 연다. 파일 전체를 메모리에 읽어 두므로 재생 중에는 파일 시스템을 사용하지 않는다.
+	 *
+	 * @param file journal 파일
+	 */
+	public static DeviceJournal replay(Path file) throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+		for (byte b : MAGIC) {
+			if (!in.hasRemaining() || in.get() != b)
+				throw new IOException(file + " is not a device journal");
+		}
+		int version = in.hasRemaining() ? in.get() : -1;
+		if (version != VERSION)
+			throw new IOException("Unsupported device journal version " + version);
+		return new DeviceJournal(null, in);
+	}
+
+	/**
+	 * @return 재생용 journal이면 true
+	 */
+	public boolean isReplaying() {
+		return in != null;
+	}
+
+	void recordTest(String name, boolean ready) throws IOException {
+		append(ready ? READY : BUSY, name, 0);
+	}
+
+	void recordRead(String name, int b) throws IOException {
+		append(b < 0 ? EOF : READ, name, b & 0xFF);
+	}
+
+	void recordWrite(String name, int b) throws IOException {
+		append(WRITE, name, b & 0xFF);
+	}
+
+	void recordError(String name, IOException e) throws IOException {
+		if (e instanceof NoSuchFileException) {
+			append(NO_FILE, name, 0);
+			return;
+		}
+		events++;
+		int index = index(name);
+		flushPending();
+		byte[] message = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(message.length, 0xFFFF);
+		out.writeByte(ERROR);
+		out.writeByte(index);
+		out.writeShort(length);
+		out.write(message, 0, length);
+		lastType = -1;
+	}
+
+	// record를 추가한다. 직전 record와 같으면 반복 횟수만 늘린다.
+	private void append(int type, String name, int value) throws IOException {
+		events++;
+		int index = index(name);
+		if (type == lastType && index == lastIndex && value == lastValue) {
+			repeat++;
+			return;
+		}
+		flushPending();
+		out.writeByte(type);
+		out.writeByte(index);
+		if (type == READ || type == WRITE)
+			out.writeByte(value);
+		lastType = type;
+		lastIndex = index;
+		lastValue = value;
+	}
+
+	private void flushPending() throws IOException {
+		if (repeat > 0) {
+			out.writeByte(REPEAT);
+			for (long n = repeat; ; n >>>= 7) {
+				if (n < 0x80) {
+					out.writeByte((int) n);
+					break;
+				}
+				out.writeByte((int) (n & 0x7F) | 0x80);
+			}
+			repeat = 0;
+		}
+	}
+
+	private int index(String name) throws IOException {
+		Integer index = indices.get(name);
+		if (index != null)
+			return index;
+		if (indices.size() >= MAX_DEVICES)
+			throw new IOException("Too many devices in journal");
+		flushPending();
+		lastType = -1;
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(DEFINE);
+		out.writeByte(indices.size());
+		out.writeByte(bytes.length);
+		out.write(bytes);
+		indices.put(name, indices.size());
+		return indices.size() - 1;
+	}
+
+	/**
+	 * TD 결과를 재생한다.
+	 */
+	boolean replayTest(String name) {
+		if (!expect(name, "TD", READY, BUSY))
+			return false;
+		return pendingType == READY;
+	}
+
+	/**
+	 * RD 결과를 재생한다.
+	 *
+	 * @return 기록된 바이트. 데이터 없음이면 -1
+	 */
+	int replayRead(String name) throws IOException {
+		if (!expect(name, "RD", READ, EOF, NO_FILE, ERROR))
+			return -1;
+		return switch (pendingType) {
+			case READ -> pendingValue;
+			case NO_FILE -> throw new NoSuchFileException(name);
+			case ERROR -> throw new IOException(pendingMessage);
+			default -> -1;
+		};
+	}
+
+	/**
+	 * WD 출력을 기록된 출력과 비교한다.
+	 */
+	void replayWrite(String name, int b) throws IOException {
+		if (!expect(name, "WD", WRITE, NO_FILE, ERROR))
+			return;
+		if (pendingType == ERROR)
+			throw new IOException(pendingMessage);
+		if (pendingType == WRITE && pendingValue != (b & 0xFF))
+			diverge(String.format("event %d: WD '%s' wrote %02X but journal has %02X", events, name, b & 0xFF,
+					pendingValue));
+	}
+
+	// 다음 record를 꺼내 장치와 종류가 맞는지 확인한다
+	private boolean expect(String name, String operation, int... types) {
+		events++;
+		if (divergences > 0) {
+			divergences++;
+			return false;
+		}
+		if (!next()) {
+			diverge(String.format("event %d: %s '%s' after end of journal", events, operation, name));
+			return false;
+		}
+		String recorded = names.get(pendingIndex);
+		boolean typeMatches = false;
+		for (int type : types) {
+			typeMatches |= type == pendingType;
+		}
+		if (!typeMatches || !recorded.equals(name)) {
+			diverge(String.format("event %d: %s '%s' but journal has %s '%s'", events, operation, name,
+					describe(pendingType), recorded));
+			return false;
+		}
+		return true;
+	}
+
+	// 재생할 다음 record를 pending*에 놓는다. 남은 record가 없으면 false
+	private boolean next() {
+		if (pendingRepeat > 0) {
+			pendingRepeat--;
+			return true;
+		}
+		while (in.hasRemaining()) {
+			int type = in.get() & 0xFF;
+			switch (type) {
+				case DEFINE -> {
+					int index = in.get() & 0xFF;
+					byte[] bytes = new byte[in.get() & 0xFF];
+					in.get(bytes);
+					while (names.size() <= index) {
+						names.add(null);
+					}
+					names.set(index, new String(bytes, StandardCharsets.UTF_8));
+				}
+				case REPEAT -> {
+					long count = 0;
+					for (int shift = 0; ; shift += 7) {
+						int b = in.get() & 0xFF;
+						count |= (long) (b & 0x7F) << shift;
+						if (b < 0x80)
+							break;
+					}
+					pendingRepeat = count - 1;
+					return true;
+				}
+				default -> {
+					pendingType = type;
+					pendingIndex = in.get() & 0xFF;
+					if (type == READ || type == WRITE)
+						pendingValue = in.get() & 0xFF;
+					if (type == ERROR) {
+						byte[] message = new byte[in.getShort() & 0xFFFF];
+						in.get(message);
+						pendingMessage = new String(message, StandardCharsets.UTF_8);
+					}
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static String describe(int type) {
+		return switch (type) {
+			case READY -> "TD ready";
+			case BUSY -> "TD busy";
+			case READ -> "RD";
+			case EOF -> "RD end";
+			case WRITE -> "WD";
+			case NO_FILE -> "missing device";
+			case ERROR -> "I/O error";
+			default -> "record " + type;
+		};
+	}
+
+	private void diverge(String message) {
+		if (divergences++ == 0) {
+			firstDivergence = message;
+			if (Trace.DEVICE >= Trace.ERROR)
+				Trace.println("[REPLAY] Divergence at " + message);
+		}
+	}
+
+	/**
+	 * 재생이 끝났을 때 호출한다. journal에 재생하지 않은 입출력이 남아 있으면 divergence로 기록한다.
+	 *
+	 * @return divergence가 없으면 true
+	 */
+	public boolean finish() {
+		if (isReplaying() && divergences == 0 && next())
+			diverge(String.format("event %d: journal has more %s '%s' after the run ended", events + 1,
+					describe(pendingType), names.get(pendingIndex)));
+		return divergences == 0;
+	}
+
+	/**
+	 * @return 기록하거나 재생한 입출력 수
+	 */
+	public long getEvents() {
+		return events;
+	}
+
+	/**
+	 * @return divergence 수. 첫 divergence 이후의 입출력은 모두 divergence로 센다.
+	 */
+	public long getDivergences() {
+		return divergences;
+	}
+
+	/**
+	 * @return 첫 divergence의 내용. 없으면 null
+	 */
+	public String getFirstDivergence() {
+		return firstDivergence;
+	}
+
+	/**
+	 * 기록용이면 남은 record를 내보내고 파일을 닫는다.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (out != null) {
+			flushPending();
+			out.close();
+		}
+	}
+}
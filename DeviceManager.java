@@ -0,0 +1,320 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * 장치 이름("F1", "05" 등)을 Device로 연결하여 TD/RD/WD를 처리한다. simulator 인스턴스(ResourceManager)마다 하나씩
+ * 가진다.
+ * <p>
+ * attach()로 붙인 장치(메모리, 표준 입출력, pipe 등)가 먼저 쓰이고, 붙인 장치가 없는 이름은 directory 안의 같은 이름의
+ * 파일을 FileDevice로 열어 사용한다. 한 번 연 장치는 close()할 때까지 channel과 읽기 cursor, buffer를 유지하므로
+ * RD/WD 한 번마다 파일을 열거나 system call을 하지 않는다. 쓰기 buffer는 flush()나 close()를 호출할 때(프로그램 종료,
+ * 다시 load, 창 닫기) 기록된다.
+ * <p>
+ * setMapped()로 지정한 이름은 읽기 전용 MappedFileDevice로 열어 RD를 mapping된 buffer에서 처리한다.
+ * <p>
+ * setJournal()로 DeviceJournal을 붙이면 test/read/write의 결과를 기록하거나, 장치 대신 journal에서 재생한다.
+ */
+public class DeviceManager {
+	private final Path directory;
+	// attach()로 붙인 장치. close()해도 flush만 하고 남겨 둔다.
+	private final HashMap<String, Device> attached = new HashMap<>();
+	// 이름으로 찾아 연 파일 장치. close()하면 닫고 비운다.
+	private final HashMap<String, Device> opened = new HashMap<>();
+	private final HashSet<String> mappedNames = new HashSet<>();
+	private DeviceJournal journal;
+
+	/**
+	 * 현재 작업 directory의 파일을 장치로 사용한다.
+	 */
+	public DeviceManager() {
+		this(Paths.get(""));
+	}
+
+	/**
+	 * @param directory 장치 파일이 있는 directory
+	 */
+	public DeviceManager(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * 장치 이름에 Device를 붙인다. 같은 이름의 파일보다 우선한다.
+	 *
+	 * @param name   장치 이름 (예: "F1")
+	 * @param device 연결할 장치
+	 */
+	public void attach(String name, Device device) {
+		closeQuietly(name, opened.remove(name));
+		attached.put(name, device);
+	}
+
+	/**
+	 * attach()로 붙인 장치를 떼어 낸다. 장치는 flush만 하고 닫지 않는다.
+	 *
+	 * @param name 장치 이름
+	 * @return 떼어 낸 장치. 없으면 null
+	 */
+	public Device detach(String name) {
+		Device device = attached.remove(name);
+		flushQuietly(name, device);
+		return device;
+	}
+
+	/**
+	 * 장치 입출력을 기록하거나 재생할 journal을 정한다. 재생용 journal이면 이후 test/read/write는 장치를 사용하지 않는다.
+	 *
+	 * @param journal 사용할 journal. null이면 journal을 사용하지 않는다.
+	 */
+	public void setJournal(DeviceJournal journal) {
+		this.journal = journal;
+	}
+
+	public DeviceJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * 장치를 사용할 수 있는지 확인한다. 이미 열려 있는 파일 장치는 파일 시스템을 다시 확인하지 않는다.
+	 *
+	 * @param name 장치 이름
+	 * @return 다음 RD/WD를 처리할 수 있으면 true
+	 */
+	public boolean test(String name) {
+		return test(name, false);
+	}
+
+	/**
+	 * test()와 같지만, 쓰기용이면 아직 없는 장치 파일도 write()가 만들 수 있으므로 사용 가능하다고 본다.
+	 *
+	 * @param name  장치 이름
+	 * @param write 쓰기용으로 확인하면 true
+	 * @return 다음 RD/WD를 처리할 수 있으면 true
+	 */
+	public boolean test(String name, boolean write) {
+		if (journal != null && journal.isReplaying())
+			return journal.replayTest(name);
+		Device device = find(name);
+		boolean ready = device != null ? device.test() : write || Files.isRegularFile(directory.resolve(name));
+		if (journal != null) {
+			try {
+				journal.recordTest(name, ready);
+			} catch (IOException e) {
+				if (Trace.DEVICE >= Trace.ERROR)
+					Trace.printf("[DEVICE] Failed to write journal: %s\n", e.getMessage());
+			}
+		}
+		return ready;
+	}
+
+	/**
+	 * 장치를 memory-mapped 입력 장치로 사용할지 정한다. 이미 열려 있는 장치에는 다음 load(close 이후)부터 적용된다.
+	 *
+	 * @param name   장치 이름
+	 * @param mapped true이면 mapping하여 읽는다 (쓰기 불가)
+	 */
+	public void setMapped(String name, boolean mapped) {
+		if (mapped)
+			mappedNames.add(name);
+		else
+			mappedNames.remove(name);
+	}
+
+	/**
+	 * memory-mapped 입력 장치의 읽기 위치를 옮긴다.
+	 *
+	 * @param name     장치 이름
+	 * @param position 파일 처음부터의 byte offset
+	 */
+	public void seek(String name, long position) throws IOException {
+		mappedDevice(name).seek(position);
+	}
+
+	/**
+	 * memory-mapped 입력 장치를 처음부터 다시 읽도록 한다.
+	 *
+	 * @param name 장치 이름
+	 */
+	public void reset(String name) throws IOException {
+		mappedDevice(name).reset();
+	}
+
+	/**
+	 * 장치에서 한 바이트를 읽는다.
+	 *
+	 * @param name 장치 이름
+	 * @return 읽은 바이트 (0 ~ 255). 더 읽을 데이터가 없으면 -1
+	 * @throws java.nio.file.NoSuchFileException 붙인 장치도 장치 파일도 없을 때
+	 */
+	public int read(String name) throws IOException {
+		if (journal == null)
+			return device(name, false).read();
+		if (journal.isReplaying())
+			return journal.replayRead(name);
+		int b;
+		try {
+			b = device(name, false).read();
+		} catch (IOException e) {
+			journal.recordError(name, e);
+			throw e;
+		}
+		journal.recordRead(name, b);
+		return b;
+	}
+
+	/**
+	 * 장치에 한 바이트를 쓴다. 붙인 장치가 없으면 같은 이름의 파일을 만들어 덧붙인다.
+	 *
+	 * @param name 장치 이름
+	 * @param b    쓸 바이트
+	 */
+	public void write(String name, int b) throws IOException {
+		if (journal == null) {
+			device(name, true).write(b);
+			return;
+		}
+		if (journal.isReplaying()) {
+			journal.replayWrite(name, b);
+			return;
+		}
+		try {
+			device(name, true).write(b);
+		} catch (IOException e) {
+			journal.recordError(name, e);
+			throw e;
+		}
+		journal.recordWrite(name, b);
+	}
+
+	/**
+	 * 모든 장치의 쓰기 buffer를 내보낸다.
+	 */
+	public void flush() {
+		opened.forEach(this::flushQuietly);
+		attached.forEach(this::flushQuietly);
+	}
+
+	/**
+	 * 프로그램이 끝났을 때(PC = FFFFFF) 호출한다. 모든 장치의 쓰기 buffer를 내보내고, attach()로 붙인 장치에는
+	 * Device.finish()로 끝을 알린다. pipe의 writer이면 상대 simulator의 RD가 파일 끝을 받는다.
+	 */
+	public void finish() {
+		opened.forEach(this::flushQuietly);
+		attached.forEach((name, device) -> {
+			try {
+				device.finish();
+			} catch (IOException e) {
+				if (Trace.DEVICE >= Trace.ERROR)
+					Trace.printf("[DEVICE] Failed to finish '%s': %s\n", name, e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * 이름으로 연 파일 장치를 모두 flush하고 닫는다. 다음 사용 시에는 파일 처음부터 다시 읽는다. attach()로 붙인 장치는
+	 * flush만 한다.
+	 */
+	public void close() {
+		opened.forEach(this::closeQuietly);
+		opened.clear();
+		attached.forEach(this::flushQuietly);
+	}
+
+	/**
+	 * @return 장치 이름 -> 장치 (붙인 장치와 지금 열려 있는 파일 장치)
+	 */
+	public Map<String, Device> getDevices() {
+		HashMap<String, Device> all = new HashMap<>(opened);
+		all.putAll(attached);
+		return all;
+	}
+
+	/**
+	 * CLI 등에서 쓰는 장치 지정 문자열을 Device로 만든다.
+	 * <ul>
+	 * <li>stdin, stdout : 표준 입력, 표준 출력</li>
+	 * <li>file:path : 파일</li>
+	 * <li>mapped:path : memory-mapped 입력 파일</li>
+	 * <li>mem:text : text를 입력으로 주는 MemoryDevice</li>
+	 * <li>async-in:spec, async-out:spec : spec 장치를 AsyncDevice로 감싼 입력/출력 장치 (예: async-in:stdin)</li>
+	 * </ul>
+	 *
+	 * @param spec 장치 지정 문자열
+	 * @return 만들어진 장치
+	 */
+	public static Device parseDevice(String spec) throws IOException {
+		if (spec.equals("stdin"))
+			return StreamDevice.stdin();
+		if (spec.equals("stdout"))
+			return StreamDevice.stdout();
+		if (spec.startsWith("file:"))
+			return new FileDevice(Paths.get(spec.substring(5)));
+		if (spec.startsWith("mapped:"))
+			return MappedFileDevice.open(Paths.get(spec.substring(7)));
+		if (spec.startsWith("async-in:"))
+			return new AsyncDevice(parseDevice(spec.substring(9)), true);
+		if (spec.startsWith("async-out:"))
+			return new AsyncDevice(parseDevice(spec.substring(10)), false);
+		if (spec.startsWith("mem:"))
+			return new MemoryDevice(spec.substring(4));
+		throw new IllegalArgumentException("Unknown device spec: " + spec);
+	}
+
+	private Device find(String name) {
+		Device device = attached.get(name);
+		return device != null ? device : opened.get(name);
+	}
+
+	private Device device(String name, boolean create) throws IOException {
+		Device device = find(name);
+		if (device == null) {
+			Path path = directory.resolve(name);
+			if (!create && !Files.isRegularFile(path))
+				throw new java.nio.file.NoSuchFileException(path.toString());
+			SimEvents.DeviceOperation event = new SimEvents.DeviceOperation();
+			event.begin();
+			device = mappedNames.contains(name) ? MappedFileDevice.open(path) : new FileDevice(path);
+			opened.put(name, device);
+			if (event.shouldCommit()) {
+				event.device = name;
+				event.operation = device instanceof MappedFileDevice ? "open-mapped" : "open";
+				event.commit();
+			}
+		}
+		return device;
+	}
+
+	private MappedFileDevice mappedDevice(String name) throws IOException {
+		if (device(name, false) instanceof MappedFileDevice mapped)
+			return mapped;
+		throw new IOException("Device '" + name + "' is not a mapped device");
+	}
+
+	private void flushQuietly(String name, Device device) {
+		if (device == null)
+			return;
+		try {
+			device.flush();
+		} catch (IOException e) {
+			if (Trace.DEVICE >= Trace.ERROR)
+				Trace.printf("[DEVICE] Failed to flush '%s': %s\n", name, e.getMessage());
+		}
+	}
+
+	private void closeQuietly(String name, Device device) {
+		if (device == null)
+			return;
+		try {
+			device.close();
+		} catch (IOException e) {
+			if (Trace.DEVICE >= Trace.ERROR)
+				Trace.printf("[DEVICE] Failed to close '%s': %s\n", name, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package SP25_simulator;
+
+import java.util.Arrays;
+
+/**
+ * load된 메모리에서 실제로 실행될 수 있는 명령어만 골라내는 recursive-descent disassembler.
+ * <p>
+ * 실행 시작 주소(E 레코드)에서 출발하여 명령어를 차례로 해석하고, J/JSUB/JEQ/JGT/JLT의 분기 대상을 따라간다. RSUB와
+ * 무조건 분기(J) 뒤는 따라가지 않으므로 RESW/BYTE 등으로 만든 데이터는 명령어로 보지 않는다. 간접 주소, base 상대
+ * 주소, index 주소로 분기하는 경우는 대상을 알 수 없으므로 따라가지 않는다.
+ * <p>
+ * section 시작 주소와 D 레코드 symbol처럼 "코드일 수도 있는" 주소는 weak root로 준다. weak root에서 출발한 해석은
+ * 도중에 알 수 없는 opcode, 초기화되지 않은 메모리(0xFF), 이미 찾은 명령어와 겹치는 바이트를 만나면 통째로 버린다.
+ */
+public class Disassembler {
+	// branchKind() 결과
+	public static final int FALL_THROUGH = 0;
+	public static final int JUMP = 1;
+	public static final int CONDITIONAL = 2;
+	public static final int CALL = 3;
+	public static final int RETURN = 4;
+
+	private final ResourceManager rMgr;
+	private final char[] memory;
+	// 명령어 시작 주소에는 그 길이, 명령어의 나머지 바이트에는 -1, 나머지는 0
+	private final byte[] owner;
+	private int[] found = new int[64];
+	private int foundCount;
+	private int[] work = new int[64];
+	private int workCount;
+
+	private Disassembler(ResourceManager rMgr) {
+		this.rMgr = rMgr;
+		this.memory = rMgr.memory;
+		this.owner = new byte[memory.length];
+	}
+
+	/**
+	 * 메모리의 프로그램을 해석하여 control-flow graph를 만든다.
+	 *
+	 * @param rMgr      메모리와 opcode table
+	 * @param roots     반드시 코드인 주소 (실행 시작 주소 등)
+	 * @param weakRoots 코드일 수도 있는 주소 (section 시작, D 레코드 symbol 등)
+	 * @return 찾은 명령어와 basic block
+	 */
+	public static ControlFlowGraph disassemble(ResourceManager rMgr, int[] roots, int[] weakRoots) {
+		Disassembler d = new Disassembler(rMgr);
+		for (int root : roots) {
+			d.trace(root, false);
+		}
+		for (int root : weakRoots) {
+			d.trace(root, true);
+		}
+
+		int[] addresses = Arrays.copyOf(d.found, d.foundCount);
+		Arrays.sort(addresses);
+		byte[] lengths = new byte[addresses.length];
+		for (int i = 0; i < addresses.length; i++) {
+			lengths[i] = d.owner[addresses[i]];
+		}
+		int[] leaders = Arrays.copyOf(roots, roots.length + weakRoots.length);
+		System.arraycopy(weakRoots, 0, leaders, roots.length, weakRoots.length);
+		return ControlFlowGraph.build(rMgr.memory, addresses, lengths, addresses.length, leaders);
+	}
+
+	/**
+	 * start에서 도달할 수 있는 명령어를 모두 찾는다. weak이면 실패했을 때 이번에 찾은 명령어를 모두 되돌린다.
+	 */
+	private void trace(int start, boolean weak) {
+		int mark = foundCount;
+		workCount = 0;
+		push(start);
+		while (workCount > 0) {
+			int addr = work[--workCount];
+			while (true) {
+				if (addr >= 0 && addr < memory.length && owner[addr] > 0)
+					break; // 이미 해석한 명령어
+				int length = decodeLength(addr);
+				if (length < 0) {
+					if (weak) {
+						rollback(mark);
+						return;
+					}
+					break; // 코드가 아닌 곳으로 흘러감: 이 경로는 여기서 끝
+				}
+				claim(addr, length);
+				int kind = branchKind(memory, addr);
+				int target = kind == FALL_THROUGH ? -1 : branchTarget(memory, addr, length);
+				if (target >= 0 && kind != RETURN)
+					push(target);
+				if (kind == JUMP || kind == RETURN)
+					break;
+				addr += length;
+			}
+		}
+	}
+
+	/**
+	 * addr에서 시작하는 명령어의 길이. 명령어가 아니거나 다른 명령어와 겹치면 -1.
+	 */
+	private int decodeLength(int addr) {
+		if (addr < 0 || addr >= memory.length)
+			return -1;
+		int byte1 = memory[addr] & 0xFF;
+		if (byte1 == 0xFF)
+			return -1;
+		int opcode = byte1 & 0xFC;
+		if (!rMgr.instructionTable.containsKey(opcode))
+			return -1;
+		boolean extended = addr + 1 < memory.length && (memory[addr + 1] & 0x10) != 0;
+		int length = instructionFormat(opcode, extended);
+		// format 1/2는 ni 비트가 없으므로 하위 2비트가 0이어야 한다
+		if (length <= 2 && byte1 != opcode)
+			return -1;
+		if (addr + length > memory.length)
+			return -1;
+		for (int i = 0; i < length; i++) {
+			if (owner[addr + i] != 0)
+				return -1;
+		}
+		return length;
+	}
+
+	private void claim(int addr, int length) {
+		owner[addr] = (byte) length;
+		for (int i = 1; i < length; i++) {
+			owner[addr + i] = -1;
+		}
+		if (foundCount == found.length)
+			found = Arrays.copyOf(found, foundCount * 2);
+		found[foundCount++] = addr;
+	}
+
+	private void rollback(int mark) {
+		for (int i = mark; i < foundCount; i++) {
+			int addr = found[i];
+			Arrays.fill(owner, addr, addr + owner[addr], (byte) 0);
+		}
+		foundCount = mark;
+	}
+
+	private void push(int addr) {
+		if (workCount == work.length)
+			work = Arrays.copyOf(work, workCount * 2);
+		work[workCount++] = addr;
+	}
+
+	/**
+	 * 주어진 opcode와 extended 플래그를 기준으로 명령어 형식(= 바이트 수)을 판단한다.
+	 *
+	 * @param opcode   ni 비트를 제외한 opcode
+	 * @param extended e 비트가 켜져 있는지 여부
+	 * @return 1~4 중의 형식 번호
+	 */
+	public static int instructionFormat(int opcode, boolean extended) {
+		switch (opcode) {
+			// Format 1
+			case 0xC4: // FIX
+			case 0xC0: // FLOAT
+			case 0xF4: // HIO
+			case 0xC8: // NORM
+			case 0xF0: // SIO
+			case 0xF8: // TIO
+				return 1;
+			// Format 2
+			case 0x90: // ADDR
+			case 0x9C: // DIVR
+			case 0x98: // MULR
+			case 0x94: // SUBR
+			case 0xA0: // COMPR
+			case 0xA4: // SHIFTL
+			case 0xA8: // SHIFTR
+			case 0xAC: // RMO
+			case 0xB0: // SVC
+			case 0xB4: // CLEAR
+			case 0xB8: // TIXR
+				return 2;
+		}
+		return extended ? 4 : 3;
+	}
+
+	/**
+	 * @return addr의 명령어가 흐름을 어떻게 바꾸는지 (FALL_THROUGH, JUMP, CONDITIONAL, CALL, RETURN)
+	 */
+	public static int branchKind(char[] memory, int addr) {
+		return switch (memory[addr] & 0xFC) {
+			case 0x3C -> JUMP; // J
+			case 0x30, 0x34, 0x38 -> CONDITIONAL; // JEQ, JGT, JLT
+			case 0x48 -> CALL; // JSUB
+			case 0x4C -> RETURN; // RSUB
+			default -> FALL_THROUGH;
+		};
+	}
+
+	/**
+	 * format 3/4 분기 명령의 대상 주소를 정적으로 계산한다.
+	 *
+	 * @param memory 메모리
+	 * @param addr   명령어 주소
+	 * @param length 명령어 길이
+	 * @return 대상 주소. 간접/base 상대/index 주소처럼 실행 전에는 알 수 없으면 -1
+	 */
+	public static int branchTarget(char[] memory, int addr, int length) {
+		if (length < 3)
+			return -1;
+		int byte1 = memory[addr] & 0xFF;
+		int byte2 = memory[addr + 1] & 0xFF;
+		int byte3 = memory[addr + 2] & 0xFF;
+		boolean n = (byte1 & 0x2) != 0;
+		boolean i = (byte1 & 0x1) != 0;
+		boolean x = (byte2 & 0x80) != 0;
+		if (x || (n && !i))
+			return -1; // index 또는 간접 주소
+		if (!n && !i)
+			return ((byte2 & 0x7F) << 8) | byte3; // SIC 형식: 15비트 직접 주소
+		boolean b = (byte2 & 0x40) != 0;
+		boolean p = (byte2 & 0x20) != 0;
+		if (length == 4)
+			return ((byte2 & 0x0F) << 16) | (byte3 << 8) | (memory[addr + 3] & 0xFF);
+		int disp = ((byte2 & 0x0F) << 8) | byte3;
+		if (b)
+			return -1; // base 상대: B 레지스터 값이 필요
+		if (p) {
+			if ((disp & 0x800) != 0)
+				disp |= 0xFFFFF000;
+			return (addr + 3 + disp) & 0xFFFFF;
+		}
+		return disp;
+	}
+}
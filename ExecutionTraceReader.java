@@ -0,0 +1,301 @@
+package SP25_simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * ExecutionTraceWriter가 기록한 chunk 파일을 차례로 읽는 reader. next()로 record를 하나씩 읽고, getter로 현재
+ * record의 값을 얻는다.
+ * <p>
+ * main은 trace를 SicSimulator의 실행 log와 같은 "Executed: LDA at 001003 (COPY+0x3)" 형식으로 출력하며, 주소 구간이나
+ * symbol(그 symbol부터 다음 symbol 전까지)로 거를 수 있다.
+ */
+public class ExecutionTraceReader implements AutoCloseable {
+	private static final int BATCH_RECORDS = 4096;
+
+	private final String prefix;
+	private final SymbolIndex symbols;
+	private final SymbolTable symtab;
+	private final int limit;
+
+	private DataInputStream in;
+	// InflaterInputStream은 밖에서 받은 Inflater를 end()하지 않으므로 chunk를 닫을 때 직접 정리한다
+	private Inflater inflater;
+	private int chunkIndex;
+	private final byte[] batch = new byte[BATCH_RECORDS * ExecutionTraceWriter.RECORD_SIZE];
+	private final ByteBuffer view = ByteBuffer.wrap(batch);
+	private int batchRecords;
+	private int cursor = -1;
+	private long index = -1;
+
+	/**
+	 * @param prefix ExecutionTraceWriter에 준 파일 이름 앞부분
+	 */
+	public ExecutionTraceReader(String prefix) throws IOException {
+		this.prefix = prefix;
+		this.symtab = new SymbolTable();
+		int end = 0;
+		Path symbolsFile = ExecutionTraceWriter.symbolsPath(prefix);
+		if (Files.isRegularFile(symbolsFile)) {
+			List<String> lines = Files.readAllLines(symbolsFile);
+			for (String line : lines) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length != 2)
+					continue;
+				int address = Integer.parseInt(fields[1], 16);
+				if (fields[0].equals("limit"))
+					end = address;
+				else
+					symtab.putSymbol(fields[0], address);
+			}
+		}
+		this.limit = end;
+		this.symbols = SymbolIndex.build(symtab, end);
+		if (!Files.isRegularFile(ExecutionTraceWriter.chunkPath(prefix, 0)))
+			throw new IOException("No execution trace at " + ExecutionTraceWriter.chunkPath(prefix, 0));
+	}
+
+	public SymbolIndex getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @param name symbol 이름
+	 * @return symbol의 주소부터 다음 symbol(없으면 프로그램 끝)까지의 구간 {start, end}. symbol이 없으면 null
+	 */
+	public int[] symbolRange(String name) {
+		int start = symtab.search(name);
+		if (start < 0)
+			return null;
+		int next = symbols.indexOf(start) + 1;
+		return new int[] { start, next < symbols.size() ? symbols.addressAt(next) : Math.max(limit, start + 1) };
+	}
+
+	/**
+	 * 다음 record로 넘어간다.
+	 *
+	 * @return 더 읽을 record가 없으면 false
+	 */
+	public boolean next() throws IOException {
+		if (++cursor < batchRecords) {
+			index++;
+			return true;
+		}
+		while (true) {
+			if (in == null && !openChunk())
+				return false;
+			int bytes = in.readNBytes(batch, 0, batch.length);
+			batchRecords = bytes / ExecutionTraceWriter.RECORD_SIZE;
+			if (batchRecords > 0) {
+				cursor = 0;
+				index++;
+				return true;
+			}
+			closeChunk();
+		}
+	}
+
+	private void closeChunk() throws IOException {
+		try {
+			if (in != null)
+				in.close();
+		} finally {
+			in = null;
+			if (inflater != null)
+				inflater.end();
+			inflater = null;
+		}
+	}
+
+	private boolean openChunk() throws IOException {
+		Path file = ExecutionTraceWriter.chunkPath(prefix, chunkIndex);
+		if (!Files.isRegularFile(file))
+			return false;
+		chunkIndex++;
+		InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+		byte[] header = new byte[ExecutionTraceWriter.CHUNK_HEADER_SIZE];
+		try {
+			new DataInputStream(stream).readFully(header);
+		} catch (EOFException e) {
+			stream.close();
+			throw new IOException(file + ": truncated header");
+		}
+		ByteBuffer h = ByteBuffer.wrap(header);
+		byte[] magic = new byte[4];
+		h.get(magic);
+		int version = h.get();
+		int flags = h.get();
+		int recordSize = h.getShort();
+		if (!Arrays.equals(magic, ExecutionTraceWriter.MAGIC) || version != ExecutionTraceWriter.VERSION
+				|| recordSize != ExecutionTraceWriter.RECORD_SIZE) {
+			stream.close();
+			throw new IOException(file + " is not a version " + ExecutionTraceWriter.VERSION + " execution trace");
+		}
+		index = h.getLong() - 1;
+		if ((flags & ExecutionTraceWriter.FLAG_COMPRESSED) != 0) {
+			inflater = new Inflater();
+			stream = new InflaterInputStream(stream, inflater, 1 << 16);
+		}
+		in = new DataInputStream(stream);
+		return true;
+	}
+
+	private int field(int offset) {
+		return view.getInt(cursor * ExecutionTraceWriter.RECORD_SIZE + offset);
+	}
+
+	/**
+	 * @return 실행 순서 번호 (0부터)
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	public int getAddress() {
+		return field(0) & 0xFFFFFF;
+	}
+
+	public int getLength() {
+		return field(0) >>> 24;
+	}
+
+	/**
+	 * @return 명령어 바이트. 첫 바이트가 최상위 8비트
+	 */
+	public int getRaw() {
+		return field(4);
+	}
+
+	/**
+	 * @return 유효 주소. 없으면 -1
+	 */
+	public int getEffectiveAddress() {
+		return field(8);
+	}
+
+	public int getA() {
+		return field(12);
+	}
+
+	public int getX() {
+		return field(16);
+	}
+
+	public int getL() {
+		return field(20);
+	}
+
+	public int getSW() {
+		return field(24);
+	}
+
+	/**
+	 * @return 명령어 바이트를 16진수로 (예: "172027")
+	 */
+	public String getHexCode() {
+		String hex = String.format("%08X", getRaw());
+		return hex.substring(0, Math.min(getLength(), 4) * 2);
+	}
+
+	@Override
+	public void close() throws IOException {
+		closeChunk();
+	}
+
+	private static void usage() {
+		System.err.println("usage: ExecutionTraceReader [--range start:end] [--symbol name] [--regs] [--limit n] <prefix>");
+		System.exit(2);
+	}
+
+	/**
+	 * 사용법 : java SP25_simulator.ExecutionTraceReader [options] &lt;prefix&gt;
+	 * <ul>
+	 * <li>--range start:end : 이 구간(16진수, end는 포함하지 않음)의 명령어만 출력한다</li>
+	 * <li>--symbol name : symbol부터 다음 symbol 전까지의 명령어만 출력한다</li>
+	 * <li>--regs : 유효 주소와 실행 후 A, X, L, SW도 출력한다</li>
+	 * <li>--limit n : 최대 n줄까지 출력한다</li>
+	 * </ul>
+	 */
+	public static void main(String[] args) throws IOException {
+		String range = null;
+		String symbol = null;
+		boolean regs = false;
+		long maxLines = Long.MAX_VALUE;
+		String prefix = null;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--range" -> {
+					if (++i >= args.length) usage();
+					range = args[i];
+				}
+				case "--symbol" -> {
+					if (++i >= args.length) usage();
+					symbol = args[i];
+				}
+				case "--regs" -> regs = true;
+				case "--limit" -> {
+					if (++i >= args.length) usage();
+					maxLines = Long.parseLong(args[i]);
+				}
+				default -> {
+					if (args[i].startsWith("--") || prefix != null) usage();
+					prefix = args[i];
+				}
+			}
+		}
+		if (prefix == null)
+			usage();
+
+		// opcode -> mnemonic
+		ResourceManager table = new ResourceManager();
+		table.initializeResource();
+		try (ExecutionTraceReader reader = new ExecutionTraceReader(prefix);
+				Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+			int[] bounds = range != null ? MemoryExporter.parseRange(range, 0x1000000) : new int[] { 0, 0x1000000 };
+			if (symbol != null) {
+				int[] symbolBounds = reader.symbolRange(symbol);
+				if (symbolBounds == null) {
+					System.err.println("Unknown symbol: " + symbol);
+					System.exit(1);
+				}
+				bounds[0] = Math.max(bounds[0], symbolBounds[0]);
+				bounds[1] = Math.min(bounds[1], symbolBounds[1]);
+			}
+			SymbolIndex symbols = reader.getSymbols();
+			StringBuilder line = new StringBuilder(96);
+			long lines = 0;
+			while (lines < maxLines && reader.next()) {
+				int address = reader.getAddress();
+				if (address < bounds[0] || address >= bounds[1])
+					continue;
+				String mnemonic = table.instructionTable.get((reader.getRaw() >>> 24) & 0xFC);
+				line.setLength(0);
+				line.append(String.format("Executed: %s at %06X (", mnemonic != null ? mnemonic : "?", address));
+				symbols.appendTo(line, address).append(')');
+				if (regs) {
+					int target = reader.getEffectiveAddress();
+					line.append(String.format(" #%d %s EA=%s A=%06X X=%06X L=%06X SW=%d", reader.getIndex(),
+							reader.getHexCode(), target < 0 ? "------" : String.format("%06X", target),
+							reader.getA() & 0xFFFFFF, reader.getX() & 0xFFFFFF, reader.getL() & 0xFFFFFF,
+							reader.getSW()));
+				}
+				out.append(line).append('\n');
+				lines++;
+			}
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package SP25_simulator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 실행한 명령어마다 32바이트 record 하나를 파일에 기록하는 execution trace. ResourceManager.executionTrace에 설정하면
+ * SicSimulator.oneStep()이 명령어를 실행한 뒤 record()를 호출한다. 기록한 파일은 ExecutionTraceReader로 읽는다.
+ * <p>
+ * record 형식 (big-endian)
+ * <pre>
+ * 0..3   : 명령어 길이(상위 8비트)와 주소(하위 24비트)
+ * 4..7   : 명령어 바이트 (앞에서부터, 4바이트보다 짧으면 뒤를 0으로 채움)
+ * 8..11  : 유효 주소. 없으면 -1
+ * 12..27 : 실행 후 A, X, L, SW
+ * 28..31 : 실행 순서 번호의 하위 32비트
+ * </pre>
+ * 파일은 chunkRecords개씩 prefix.000000.sxt, prefix.000001.sxt, ...로 나누어 쓰며, 각 파일은 CHUNK_HEADER_SIZE
+ * 바이트의 header(magic "SICT", version, flags, record 크기, 첫 record 번호, 프로그램 이름) 뒤에 record가 이어진다.
+ * 압축하면 header 뒤의 record 부분 전체가 deflate stream이 된다. symbol은 prefix.symbols에 text로 저장한다.
+ * <p>
+ * record()는 simulator thread에서 현재 buffer에 값을 넣기만 한다. buffer가 차면 writer thread에 넘기고 비어 있는
+ * 다른 buffer를 받아 계속 기록하므로, 디스크 쓰기와 압축은 writer thread에서 실행과 겹쳐 진행된다. 모든 buffer가 쓰기
+ * 대기 중일 때(디스크가 기록 속도를 따라가지 못할 때)만 simulator thread가 기다린다.
+ */
+public class ExecutionTraceWriter implements AutoCloseable {
+	public static final int RECORD_SIZE = 32;
+	public static final int CHUNK_HEADER_SIZE = 24;
+	public static final byte[] MAGIC = { 'S', 'I', 'C', 'T' };
+	public static final int VERSION = 1;
+	public static final int FLAG_COMPRESSED = 1;
+
+	public static final int DEFAULT_BUFFER_RECORDS = 1 << 15;
+	public static final int DEFAULT_CHUNK_RECORDS = 1 << 22;
+
+	private final String prefix;
+	private final String programName;
+	private final boolean compress;
+	private final long chunkRecords;
+
+	// writer thread에 넘긴 buffer와 다시 쓸 수 있는 buffer. 길이 0인 buffer는 종료 신호이다.
+	private final BlockingQueue<ByteBuffer> full;
+	private final BlockingQueue<ByteBuffer> free;
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+	private final Thread writer;
+	private volatile IOException failure;
+
+	private ByteBuffer current;
+	private long records;
+	private boolean closed;
+
+	// writer thread에서만 사용
+	private WritableByteChannel chunk;
+	private int chunkIndex;
+	private long chunkStart;
+	private long written;
+
+	/**
+	 * @param prefix       파일 이름 앞부분
+	 * @param rMgr         load가 끝난 ResourceManager (프로그램 이름과 symbol)
+	 * @param compress     true이면 chunk를 deflate로 압축한다
+	 * @param chunkRecords chunk 파일 하나의 record 수
+	 * @param buffers      buffer 수 (2 이상)
+	 */
+	public ExecutionTraceWriter(String prefix, ResourceManager rMgr, boolean compress, long chunkRecords, int buffers)
+			throws IOException {
+		if (buffers < 2)
+			throw new IllegalArgumentException("At least two buffers are required");
+		this.prefix = prefix;
+		this.programName = rMgr.programName == null ? "" : rMgr.programName;
+		this.compress = compress;
+		this.chunkRecords = chunkRecords;
+		writeSymbols(rMgr);
+		full = new ArrayBlockingQueue<>(buffers + 1);
+		free = new ArrayBlockingQueue<>(buffers);
+		for (int i = 1; i < buffers; i++) {
+			free.add(ByteBuffer.allocate(DEFAULT_BUFFER_RECORDS * RECORD_SIZE));
+		}
+		current = ByteBuffer.allocate(DEFAULT_BUFFER_RECORDS * RECORD_SIZE);
+		SimEvents.allocation("ExecutionTraceWriter buffers", (long) buffers * DEFAULT_BUFFER_RECORDS * RECORD_SIZE);
+		writer = new Thread(this::drain, "sic-execution-trace");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * 기본 chunk 크기와 buffer 두 개(double buffering)로 기록한다.
+	 */
+	public ExecutionTraceWriter(String prefix, ResourceManager rMgr, boolean compress) throws IOException {
+		this(prefix, rMgr, compress, DEFAULT_CHUNK_RECORDS, 2);
+	}
+
+	/**
+	 * @return index번째 chunk 파일 경로
+	 */
+	public static Path chunkPath(String prefix, int index) {
+		return Path.of(String.format("%s.%06d.sxt", prefix, index));
+	}
+
+	public static Path symbolsPath(String prefix) {
+		return Path.of(prefix + ".symbols");
+	}
+
+	// 첫 줄은 "limit 주소", 이후 "이름 주소"
+	private void writeSymbols(ResourceManager rMgr) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(symbolsPath(prefix))) {
+			out.write(String.format("limit %06X%n", rMgr.programStartAddr + rMgr.programLength));
+			SymbolTable symtab = rMgr.symtabList;
+			for (int i = 0; symtab != null && i < symtab.size(); i++) {
+				out.write(String.format("%s %06X%n", symtab.getSymbol(i), symtab.getAddress(i)));
+			}
+		}
+	}
+
+	/**
+	 * 방금 실행한 명령어를 기록한다. 실행 후의 레지스터와 lastEffectiveAddress를 사용한다.
+	 *
+	 * @param rMgr  실행 중인 ResourceManager
+	 * @param entry 실행한 명령어
+	 */
+	public void record(ResourceManager rMgr, ResourceManager.InstructionEntry entry) {
+		ByteBuffer buffer = current;
+		int pos = buffer.position();
+		if (pos == buffer.capacity()) {
+			buffer = swap();
+			pos = 0;
+		}
+		char[] memory = rMgr.memory;
+		int address = entry.address;
+		int length = Math.min(entry.hexCode.length() >> 1, 4);
+		int raw = 0;
+		for (int i = 0; i < 4; i++) {
+			raw <<= 8;
+			if (i < length && address + i < memory.length)
+				raw |= memory[address + i] & 0xFF;
+		}
+		Integer target = rMgr.lastEffectiveAddress;
+		int[] register = rMgr.register;
+		buffer.putInt(pos, length << 24 | (address & 0xFFFFFF));
+		buffer.putInt(pos + 4, raw);
+		buffer.putInt(pos + 8, target == null || target == Integer.MIN_VALUE ? -1 : target);
+		buffer.putInt(pos + 12, register[ResourceManager.REG_A]);
+		buffer.putInt(pos + 16, register[ResourceManager.REG_X]);
+		buffer.putInt(pos + 20, register[ResourceManager.REG_L]);
+		buffer.putInt(pos + 24, register[ResourceManager.REG_SW]);
+		buffer.putInt(pos + 28, (int) records++);
+		buffer.position(pos + RECORD_SIZE);
+	}
+
+	// 찬 buffer를 writer thread에 넘기고 빈 buffer를 받는다
+	private ByteBuffer swap() {
+		try {
+			full.put(current.flip());
+			current = free.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while writing execution trace", e);
+		}
+		current.clear();
+		return current;
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				ByteBuffer buffer = full.take();
+				if (buffer == END)
+					break;
+				if (failure == null) {
+					try {
+						write(buffer);
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+				free.put(buffer);
+			}
+			if (chunk != null)
+				chunk.close();
+		} catch (IOException e) {
+			if (failure == null)
+				failure = e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// buffer를 chunk에 쓴다. chunk가 차면 buffer 경계에서 다음 chunk로 넘어간다.
+	private void write(ByteBuffer buffer) throws IOException {
+		if (chunk == null || written - chunkStart >= chunkRecords) {
+			if (chunk != null)
+				chunk.close();
+			chunk = openChunk(chunkIndex++, written);
+			chunkStart = written;
+		}
+		written += buffer.remaining() / RECORD_SIZE;
+		while (buffer.hasRemaining()) {
+			chunk.write(buffer);
+		}
+	}
+
+	private WritableByteChannel openChunk(int index, long first) throws IOException {
+		FileChannel file = FileChannel.open(chunkPath(prefix, index), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+		header.put(MAGIC).put((byte) VERSION).put((byte) (compress ? FLAG_COMPRESSED : 0)).putShort((short) RECORD_SIZE);
+		header.putLong(first);
+		byte[] name = programName.getBytes(StandardCharsets.US_ASCII);
+		header.put(name, 0, Math.min(name.length, 8));
+		header.position(CHUNK_HEADER_SIZE).flip();
+		while (header.hasRemaining()) {
+			file.write(header);
+		}
+		if (!compress)
+			return file;
+		return Channels.newChannel(
+				new DeflaterOutputStream(Channels.newOutputStream(file), new Deflater(Deflater.BEST_SPEED), 1 << 16) {
+					@Override
+					public void close() throws IOException {
+						super.close();
+						def.end();
+					}
+				});
+	}
+
+	/**
+	 * @return 지금까지 기록한 record 수
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * 남은 record를 모두 쓰고 파일을 닫는다.
+	 *
+	 * @throws IOException writer thread에서 쓰기가 실패했을 때
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			if (current.position() > 0)
+				full.put(current.flip());
+			full.put(END);
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing execution trace", e);
+		}
+		if (failure != null)
+			throw failure;
+	}
+}
@@ -0,0 +1,98 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 파일 하나에 대응하는 장치. 한 번 연 channel과 읽기 cursor를 계속 사용하고, 읽기와 쓰기를 각각 BUFFER_SIZE 크기의
+ * buffer로 모아서 처리한다. 쓰기는 파일 끝에 덧붙인다.
+ */
+public class FileDevice implements Device {
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	final Path path;
+	private FileChannel readChannel;
+	private ByteBuffer readBuffer;
+	private FileChannel writeChannel;
+	private ByteBuffer writeBuffer;
+
+	public FileDevice(Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * 이미 열린 파일 장치는 파일 시스템을 다시 확인하지 않고 항상 사용 가능하다고 본다.
+	 */
+	@Override
+	public boolean test() {
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (readBuffer == null) {
+			flush(); // 같은 장치에 쓴 내용이 있으면 먼저 기록해야 읽을 수 있다
+			readChannel = FileChannel.open(path, StandardOpenOption.READ);
+			readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+			readBuffer.flip();
+		}
+		if (!readBuffer.hasRemaining()) {
+			flush();
+			readBuffer.clear();
+			int count = readChannel.read(readBuffer);
+			readBuffer.flip();
+			if (count <= 0) {
+				// 다른 쪽에서 파일에 덧붙일 수 있으므로 다음 RD에서 다시 확인한다
+				return -1;
+			}
+		}
+		return readBuffer.get() & 0xFF;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (writeBuffer == null) {
+			writeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+			writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+		if (!writeBuffer.hasRemaining())
+			flush();
+		writeBuffer.put((byte) b);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (writeBuffer == null || writeBuffer.position() == 0)
+			return;
+		writeBuffer.flip();
+		while (writeBuffer.hasRemaining()) {
+			writeChannel.write(writeBuffer);
+		}
+		writeBuffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			if (readChannel != null)
+				readChannel.close();
+			if (writeChannel != null)
+				writeChannel.close();
+			readChannel = null;
+			writeChannel = null;
+			readBuffer = null;
+			writeBuffer = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return path.toString();
+	}
+}
@@ -0,0 +1,505 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 입력 장치(RD가 읽는 내용)를 변형하며 프로그램을 반복 실행하는 coverage-guided fuzzer.
+ * <p>
+ * 프로그램은 한 번만 load하고 MachineSnapshot으로 load 직후 상태를 저장한다. worker thread마다 자기
+ * ResourceManager를 가지며, 시도마다 snapshot에서 바뀐 메모리 line만 되돌리고 입력 장치에 MemoryDevice를 붙여
+ * 명령어 budget만큼 실행한다. 실행 중에는 CoverageMap을 기록하여 전체 coverage에 없던 명령어나 분기 방향에 도달한
+ * 입력을 corpus에 추가하고, 다음 시도는 corpus의 입력을 변형하여 만든다.
+ * <p>
+ * 입력 장치와 출력 장치는 명령어 목록의 RD/WD가 가리키는 장치 번호로 찾는다. 그 밖의 장치 이름은 빈 임시 directory의
+ * 파일로 처리되므로 실제 장치 파일을 건드리지 않는다.
+ * <p>
+ * 다음 경우를 crash로 보고, 같은 종류와 주소의 crash는 한 번만 기록한다. 기록할 때 입력을 줄여도 같은 crash가
+ * 나는지 확인하며 최소화한 뒤, 장치 이름을 파일 이름으로 하는 재현 파일을 만든다.
+ * <ul>
+ * <li>INVALID_INSTRUCTION : PC가 명령어 목록에 없는 주소(코드가 아닌 곳)를 가리킴</li>
+ * <li>OUT_OF_RANGE : PC나 operand 주소가 메모리 밖</li>
+ * <li>RUNAWAY : 명령어 budget 안에 끝나지 않음</li>
+ * </ul>
+ * 그 밖의 예외는 프로그램이 아니라 simulator의 오류이므로 crash로 기록하지 않고 run()을 실패시킨다.
+ */
+public class Fuzzer {
+	public enum CrashKind {
+		INVALID_INSTRUCTION, OUT_OF_RANGE, RUNAWAY
+	}
+
+	/**
+	 * 기록된 crash 하나와 최소화한 입력.
+	 */
+	public static class Crash {
+		public final CrashKind kind;
+		public final int address;
+		public final byte[][] input;
+
+		Crash(CrashKind kind, int address, byte[][] input) {
+			this.kind = kind;
+			this.address = address;
+			this.input = input;
+		}
+	}
+
+	private static final int MAX_INPUT = 4096;
+	private static final int MINIMIZE_RUNS = 2000;
+	private static final byte[] INTERESTING = { 0, (byte) 0xFF, 0x7F, (byte) 0x80, '\n', ' ', '0', 'A' };
+
+	private final SicImage image;
+	private final MachineSnapshot snapshot;
+	private final String[] inputDevices;
+	private final String[] outputDevices;
+	private final long budget;
+	private final Path scratch;
+
+	// 전체 coverage. 갱신은 coverage 자신으로 동기화한다.
+	private final CoverageMap coverage;
+	private final CopyOnWriteArrayList<byte[][]> corpus = new CopyOnWriteArrayList<>();
+	private final ConcurrentHashMap<String, Crash> crashes = new ConcurrentHashMap<>();
+	// 시작한 시도 수와 끝난 시도 수
+	private final AtomicLong attempts = new AtomicLong();
+	private final AtomicLong executed = new AtomicLong();
+	// null이 아니면 모든 worker가 실행 통계를 더한다
+	private SimulatorMetrics metrics;
+
+	/**
+	 * @param rMgr   load가 끝난 ResourceManager (SicSimulator.load()까지 마친 상태)
+	 * @param budget 한 번의 실행에서 허용하는 명령어 수
+	 */
+	public Fuzzer(ResourceManager rMgr, long budget) throws IOException {
+		this.image = SicImage.capture(rMgr);
+		this.snapshot = MachineSnapshot.capture(rMgr);
+		this.budget = budget;
+		this.coverage = new CoverageMap(rMgr.programName);
+		TreeSet<String> inputs = new TreeSet<>();
+		TreeSet<String> outputs = new TreeSet<>();
+		findDevices(rMgr, inputs, outputs);
+		this.inputDevices = inputs.toArray(new String[0]);
+		this.outputDevices = outputs.toArray(new String[0]);
+		this.scratch = Files.createTempDirectory("sic-fuzz");
+		scratch.toFile().deleteOnExit();
+	}
+
+	// 명령어 목록에서 operand 주소를 정적으로 알 수 있는 RD/WD의 장치 번호를 모은다
+	static void findDevices(ResourceManager rMgr, TreeSet<String> inputs, TreeSet<String> outputs) {
+		for (ResourceManager.InstructionEntry entry : rMgr.debugInstructionList) {
+			if (entry.opcode != 0xD8 && entry.opcode != 0xDC) // RD, WD
+				continue;
+			int target = Disassembler.branchTarget(rMgr.memory, entry.address, entry.hexCode.length() >> 1);
+			if (target < 0 || target >= rMgr.memory.length)
+				continue;
+			String name = String.format("%02X", rMgr.memory[target] & 0xFF);
+			(entry.opcode == 0xD8 ? inputs : outputs).add(name);
+		}
+	}
+
+	/**
+	 * 시도마다의 실행 통계를 더할 곳을 지정한다. run() 전에 호출한다.
+	 *
+	 * @param metrics 모든 worker가 함께 사용하는 통계. null이면 기록하지 않는다.
+	 */
+	public void setMetrics(SimulatorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public String[] getInputDevices() {
+		return inputDevices.clone();
+	}
+
+	/**
+	 * 첫 corpus 입력을 추가한다. MAX_INPUT보다 긴 장치 내용은 앞부분만 사용한다.
+	 *
+	 * @param input 입력 장치 순서(getInputDevices())대로의 장치 내용
+	 */
+	public void addSeed(byte[][] input) {
+		if (input.length != inputDevices.length)
+			throw new IllegalArgumentException("Expected " + inputDevices.length + " input devices");
+		byte[][] seed = input.clone();
+		for (int d = 0; d < seed.length; d++) {
+			if (seed[d].length > MAX_INPUT)
+				seed[d] = Arrays.copyOf(seed[d], MAX_INPUT);
+		}
+		corpus.add(seed);
+	}
+
+	/**
+	 * 여러 thread에서 fuzzing을 수행한다. seed가 없으면 빈 입력으로 시작한다.
+	 *
+	 * @param threads     worker thread 수
+	 * @param maxAttempts 전체 시도 수
+	 * @param millis      제한 시간 (0이면 제한 없음)
+	 * @param seed        난수 seed. worker마다 seed + worker 번호를 사용한다.
+	 * @throws IllegalStateException worker가 예외로 끝났을 때. 나머지 worker는 멈춘다.
+	 */
+	public void run(int threads, long maxAttempts, long millis, long seed) throws InterruptedException {
+		if (corpus.isEmpty())
+			corpus.add(new byte[inputDevices.length][0]);
+		long deadline = millis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis) : Long.MAX_VALUE;
+		// seed 입력의 coverage를 먼저 기록한다
+		Machine first = new Machine();
+		for (byte[][] input : corpus) {
+			execute(first, input, false);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			SplittableRandom random = new SplittableRandom(seed + i);
+			workers.add(pool.submit(() -> work(random, maxAttempts, deadline)));
+		}
+		pool.shutdown();
+		try {
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} catch (ExecutionException e) {
+			attempts.set(maxAttempts); // 남은 worker가 다음 시도를 시작하지 않도록
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+			throw new IllegalStateException("Fuzzer worker failed", e.getCause());
+		}
+	}
+
+	private void work(SplittableRandom random, long maxAttempts, long deadline) {
+		Machine machine = new Machine();
+		while (attempts.getAndIncrement() < maxAttempts && System.nanoTime() < deadline) {
+			byte[][] parent = corpus.get(random.nextInt(corpus.size()));
+			execute(machine, mutate(parent, random), true);
+			executed.incrementAndGet();
+		}
+	}
+
+	// 한 번 실행하고 결과에 따라 corpus 또는 crash에 기록한다
+	private void execute(Machine machine, byte[][] input, boolean addToCorpus) {
+		Outcome outcome = machine.run(input);
+		if (outcome.kind != null) {
+			String key = outcome.kind + ":" + (outcome.kind == CrashKind.RUNAWAY ? 0 : outcome.address);
+			if (crashes.putIfAbsent(key, new Crash(outcome.kind, outcome.address, input)) == null)
+				crashes.put(key, new Crash(outcome.kind, outcome.address, minimize(machine, input, outcome)));
+			return;
+		}
+		boolean added;
+		synchronized (coverage) {
+			added = coverage.mergeNew(machine.local);
+		}
+		if (added && addToCorpus)
+			corpus.add(input);
+	}
+
+	// 장치마다 구간을 지워 보며 같은 crash가 나는 가장 짧은 입력을 찾는다
+	private byte[][] minimize(Machine machine, byte[][] input, Outcome expected) {
+		byte[][] best = input.clone();
+		int runs = 0;
+		for (int d = 0; d < best.length; d++) {
+			for (int chunk = Math.max(1, best[d].length / 2); chunk >= 1 && runs < MINIMIZE_RUNS; chunk /= 2) {
+				int i = 0;
+				while (i < best[d].length && runs < MINIMIZE_RUNS) {
+					byte[][] candidate = best.clone();
+					candidate[d] = remove(best[d], i, Math.min(chunk, best[d].length - i));
+					runs++;
+					if (machine.run(candidate).sameCrash(expected))
+						best = candidate;
+					else
+						i += chunk;
+				}
+			}
+		}
+		return best;
+	}
+
+	private static byte[] remove(byte[] data, int from, int count) {
+		byte[] result = new byte[data.length - count];
+		System.arraycopy(data, 0, result, 0, from);
+		System.arraycopy(data, from + count, result, from, data.length - from - count);
+		return result;
+	}
+
+	private byte[][] mutate(byte[][] parent, SplittableRandom random) {
+		byte[][] input = parent.clone();
+		if (input.length == 0)
+			return input;
+		int d = random.nextInt(input.length);
+		byte[] data = input[d];
+		int count = 1 + random.nextInt(4);
+		for (int m = 0; m < count; m++) {
+			int op = data.length == 0 ? 3 : random.nextInt(7);
+			int pos = data.length == 0 ? 0 : random.nextInt(data.length);
+			switch (op) {
+				case 0 -> { // bit 반전
+					data = data.clone();
+					data[pos] ^= (byte) (1 << random.nextInt(8));
+				}
+				case 1 -> { // 임의 바이트
+					data = data.clone();
+					data[pos] = (byte) random.nextInt(256);
+				}
+				case 2 -> { // 경계값
+					data = data.clone();
+					data[pos] = INTERESTING[random.nextInt(INTERESTING.length)];
+				}
+				case 3 -> { // 삽입
+					if (data.length < MAX_INPUT) {
+						byte[] grown = new byte[data.length + 1];
+						int at = data.length == 0 ? 0 : random.nextInt(data.length + 1);
+						System.arraycopy(data, 0, grown, 0, at);
+						grown[at] = (byte) random.nextInt(256);
+						System.arraycopy(data, at, grown, at + 1, data.length - at);
+						data = grown;
+					}
+				}
+				case 4 -> data = remove(data, pos, 1); // 삭제
+				case 5 -> { // 구간 복제
+					int length = Math.min(1 + random.nextInt(Math.min(data.length - pos, 64)), MAX_INPUT - data.length);
+					if (length > 0) {
+						byte[] grown = Arrays.copyOf(data, data.length + length);
+						System.arraycopy(data, pos, grown, data.length, length);
+						data = grown;
+					}
+				}
+				default -> { // 다른 corpus 입력과 이어 붙이기
+					byte[] other = corpus.get(random.nextInt(corpus.size()))[d];
+					int cut = other.length == 0 ? 0 : random.nextInt(other.length);
+					int length = Math.min(pos + other.length - cut, MAX_INPUT) - pos;
+					if (length > 0) {
+						byte[] spliced = Arrays.copyOf(data, pos + length);
+						System.arraycopy(other, cut, spliced, pos, length);
+						data = spliced;
+					}
+				}
+			}
+		}
+		input[d] = data;
+		return input;
+	}
+
+	/**
+	 * 한 번의 실행 결과. kind가 null이면 정상 종료.
+	 */
+	static class Outcome {
+		final CrashKind kind;
+		final int address;
+
+		Outcome(CrashKind kind, int address) {
+			this.kind = kind;
+			this.address = address;
+		}
+
+		boolean sameCrash(Outcome other) {
+			return kind == other.kind && (kind == CrashKind.RUNAWAY || address == other.address);
+		}
+	}
+
+	private static final Outcome FINISHED = new Outcome(null, 0);
+
+	/**
+	 * worker 하나의 machine. 같은 snapshot에서 출발한다.
+	 */
+	private final class Machine {
+		final ResourceManager rMgr = new ResourceManager();
+		final SicSimulator simulator = new SicSimulator(rMgr);
+		final CoverageMap local;
+
+		Machine() {
+			image.restore(new SicLoader(rMgr));
+			rMgr.deviceManager = new DeviceManager(scratch);
+			snapshot.reset(rMgr);
+			local = new CoverageMap(rMgr.programName);
+			rMgr.coverage = local;
+			rMgr.metrics = metrics;
+		}
+
+		Outcome run(byte[][] input) {
+			if (metrics == null)
+				return execute(input);
+			long started = System.nanoTime();
+			Outcome outcome = execute(input);
+			metrics.runFinished(System.nanoTime() - started, outcome == FINISHED);
+			return outcome;
+		}
+
+		private Outcome execute(byte[][] input) {
+			snapshot.restore(rMgr);
+			local.clear();
+			DeviceManager devices = rMgr.deviceManager;
+			devices.close(); // 이전 시도가 임시 directory에 연 장치
+			for (int i = 0; i < inputDevices.length; i++) {
+				devices.attach(inputDevices[i], new MemoryDevice(input[i]));
+			}
+			for (String name : outputDevices) {
+				devices.attach(name, new MemoryDevice());
+			}
+			int[] register = rMgr.register;
+			for (long step = 0; step < budget; step++) {
+				int pc = register[ResourceManager.REG_PC];
+				if (pc == 0xFFFFFF)
+					return FINISHED;
+				if (pc < 0 || pc >= rMgr.memory.length)
+					return new Outcome(CrashKind.OUT_OF_RANGE, pc);
+				if (rMgr.instructionAt(pc) == null)
+					return new Outcome(CrashKind.INVALID_INSTRUCTION, pc);
+				try {
+					simulator.oneStep();
+				} catch (IndexOutOfBoundsException e) {
+					return new Outcome(CrashKind.OUT_OF_RANGE, pc);
+				}
+				Integer target = rMgr.lastEffectiveAddress;
+				if (target != null && target != Integer.MIN_VALUE && (target < 0 || target >= rMgr.memory.length))
+					return new Outcome(CrashKind.OUT_OF_RANGE, pc);
+				if ((step & 0xFFF) == 0xFFF)
+					rMgr.executionLog.clear(); // 실행 log가 budget만큼 쌓이지 않도록
+			}
+			return new Outcome(CrashKind.RUNAWAY, register[ResourceManager.REG_PC]);
+		}
+	}
+
+	/**
+	 * @return 끝난 시도 수
+	 */
+	public long getAttempts() {
+		return executed.get();
+	}
+
+	public List<byte[][]> getCorpus() {
+		return new ArrayList<>(corpus);
+	}
+
+	public Map<String, Crash> getCrashes() {
+		return Map.copyOf(crashes);
+	}
+
+	public CoverageMap getCoverage() {
+		return coverage;
+	}
+
+	/**
+	 * corpus와 crash 재현 파일을 저장한다. corpus는 dir/corpus/번호.장치, crash는 dir/crash-종류-주소/장치이다.
+	 *
+	 * @param dir 저장할 directory
+	 */
+	public void save(Path dir) throws IOException {
+		Path corpusDir = Files.createDirectories(dir.resolve("corpus"));
+		List<byte[][]> entries = getCorpus();
+		for (int n = 0; n < entries.size(); n++) {
+			for (int d = 0; d < inputDevices.length; d++) {
+				Files.write(corpusDir.resolve(String.format("%06d.%s", n, inputDevices[d])), entries.get(n)[d]);
+			}
+		}
+		for (Crash crash : crashes.values()) {
+			Path crashDir = Files.createDirectories(
+					dir.resolve(String.format("crash-%s-%06X", crash.kind.name().toLowerCase(), crash.address)));
+			for (int d = 0; d < inputDevices.length; d++) {
+				Files.write(crashDir.resolve(inputDevices[d]), crash.input[d]);
+			}
+		}
+	}
+
+	private static void usage() {
+		System.err.println("usage: Fuzzer [--attempts n] [--time seconds] [--budget instructions] [--threads n] "
+				+ "[--seed n] [--seed-dir dir] [--out dir] [--metrics-port port] [--progaddr addr] <object file...>");
+		System.exit(2);
+	}
+
+	/**
+	 * 사용법 : java SP25_simulator.Fuzzer [options] &lt;object file...&gt;
+	 * <ul>
+	 * <li>--attempts n : 전체 시도 수 (기본값 10000)</li>
+	 * <li>--time seconds : 제한 시간 (기본값 없음)</li>
+	 * <li>--budget n : 한 번의 실행에서 허용하는 명령어 수 (기본값 100000)</li>
+	 * <li>--threads n : worker thread 수 (기본값 CPU core 수)</li>
+	 * <li>--seed n : 난수 seed</li>
+	 * <li>--seed-dir dir : 입력 장치와 같은 이름의 파일이 있으면 첫 입력으로 사용한다 (기본값 현재 directory)</li>
+	 * <li>--out dir : corpus와 crash 재현 파일을 저장할 directory (기본값 fuzz-out)</li>
+	 * <li>--metrics-port port : 실행 통계를 JMX MBean과 http://127.0.0.1:port/metrics로 공개한다</li>
+	 * </ul>
+	 */
+	public static void main(String[] args) throws Exception {
+		long maxAttempts = 10000;
+		long seconds = 0;
+		long budget = 100000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		Path seedDir = Paths.get("");
+		Path outDir = Paths.get("fuzz-out");
+		int progAddr = 0;
+		int metricsPort = -1;
+		List<File> programs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].startsWith("--") && i + 1 >= args.length)
+				usage();
+			switch (args[i]) {
+				case "--attempts" -> maxAttempts = Long.parseLong(args[++i]);
+				case "--time" -> seconds = Long.parseLong(args[++i]);
+				case "--budget" -> budget = Long.parseLong(args[++i]);
+				case "--threads" -> threads = Integer.parseInt(args[++i]);
+				case "--seed" -> seed = Long.parseLong(args[++i]);
+				case "--seed-dir" -> seedDir = Paths.get(args[++i]);
+				case "--out" -> outDir = Paths.get(args[++i]);
+				case "--metrics-port" -> metricsPort = Integer.parseInt(args[++i]);
+				case "--progaddr" -> progAddr = Integer.parseInt(args[++i], 16);
+				default -> {
+					if (args[i].startsWith("--")) usage();
+					programs.add(new File(args[i]));
+				}
+			}
+		}
+		if (programs.isEmpty())
+			usage();
+
+		// 실행 중 trace 출력은 버린다
+		Trace.Sink sink = Trace.getSink();
+		Trace.setSink(Trace.Sink.NONE);
+		Fuzzer fuzzer;
+		try {
+			SicRunner base = new SicRunner();
+			base.sicLoader.setProgAddr(progAddr);
+			base.load(programs);
+			fuzzer = new Fuzzer(base.resourceManager, budget);
+			if (metricsPort >= 0) {
+				fuzzer.setMetrics(SimulatorMetrics.create("fuzzer"));
+				System.out.printf("[FUZZ] Metrics at http://127.0.0.1:%d/metrics%n",
+						SimulatorMetrics.startHttpServer(metricsPort));
+			}
+			byte[][] first = new byte[fuzzer.inputDevices.length][];
+			for (int d = 0; d < first.length; d++) {
+				Path file = seedDir.resolve(fuzzer.inputDevices[d]);
+				first[d] = Files.isRegularFile(file) ? Files.readAllBytes(file) : new byte[0];
+			}
+			fuzzer.addSeed(first);
+			fuzzer.run(threads, maxAttempts, seconds * 1000, seed);
+		} finally {
+			Trace.setSink(sink);
+			SimulatorMetrics.stopHttpServer();
+		}
+
+		fuzzer.save(outDir);
+		ResourceManager rMgr = new ResourceManager();
+		fuzzer.image.restore(new SicLoader(rMgr));
+		System.out.printf("[FUZZ] %d attempts, %d corpus entries, input devices %s, output devices %s%n",
+				fuzzer.getAttempts(), fuzzer.corpus.size(), Arrays.toString(fuzzer.inputDevices),
+				Arrays.toString(fuzzer.outputDevices));
+		System.out.print(fuzzer.coverage.summary(rMgr));
+		for (Crash crash : fuzzer.crashes.values()) {
+			System.out.printf("[FUZZ] %s at %06X (%s), input %s%n", crash.kind, crash.address,
+					rMgr.symbolIndex.annotate(crash.address),
+					Arrays.stream(crash.input).map(b -> b.length + " bytes").toList());
+		}
+		System.out.println("[FUZZ] Results saved to " + outDir.toAbsolutePath());
+	}
+}
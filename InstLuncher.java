@@ -2,15 +2,8 @@ package SP25_simulator;
 
 // instruction에 따라 동작을 수행하는 메소드를 정의하는 클래스
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.util.HashMap;
-
 public class InstLuncher {
     ResourceManager rMgr;
-    // Maintain open device streams for RD instruction
-    public HashMap<String, FileInputStream> rdDeviceStreams = new HashMap<>();
-    public HashMap<String, FileOutputStream> wrDeviceStreams = new HashMap<>();
     public InstLuncher(ResourceManager resourceManager) {
         this.rMgr = resourceManager;
     }
@@ -21,7 +14,47 @@ public class InstLuncher {
         // Return to the address stored in register L
         rMgr.register[ResourceManager.REG_PC] = rMgr.register[ResourceManager.REG_L];
         rMgr.lastUsedDeviceName = null;
-        System.out.printf("[RSUB] Returned to address %06X from register L\n", rMgr.register[ResourceManager.REG_L]);
+        if (Trace.EXEC >= Trace.DEBUG)
+            Trace.printf("[RSUB] Returned to address %06X from register L\n", rMgr.register[ResourceManager.REG_L]);
+    }
+
+    public void SIO(ResourceManager.InstructionEntry entry) {
+        // Format 1: SIO
+        // Start the channel program at address (S) on channel (A)
+        int channel = rMgr.register[ResourceManager.REG_A];
+        int programAddr = rMgr.register[ResourceManager.REG_S];
+        int sw = rMgr.startChannel(channel, programAddr);
+        rMgr.register[ResourceManager.REG_SW] = sw;
+        if (sw == 0) {
+            if (Trace.DEVICE >= Trace.DEBUG)
+                Trace.printf("[SIO] Started channel %d with program at %06X → SW = 0\n", channel, programAddr);
+        } else if (sw > 0) {
+            if (Trace.DEVICE >= Trace.DEBUG)
+                Trace.printf("[SIO] Channel %d is busy → SW = 1\n", channel);
+        } else {
+            if (Trace.DEVICE >= Trace.ERROR)
+                Trace.printf("[SIO] Invalid channel %d → SW = -1\n", channel);
+        }
+    }
+
+    public void TIO(ResourceManager.InstructionEntry entry) {
+        // Format 1: TIO
+        // Test channel (A): SW = 0 if finished, 1 if busy, -1 on error
+        int channel = rMgr.register[ResourceManager.REG_A];
+        int sw = rMgr.testChannel(channel);
+        rMgr.register[ResourceManager.REG_SW] = sw;
+        if (Trace.DEVICE >= Trace.DEBUG)
+            Trace.printf("[TIO] Channel %d status → SW = %d\n", channel, sw);
+    }
+
+    public void HIO(ResourceManager.InstructionEntry entry) {
+        // Format 1: HIO
+        // Halt channel (A)
+        int channel = rMgr.register[ResourceManager.REG_A];
+        int sw = rMgr.haltChannel(channel);
+        rMgr.register[ResourceManager.REG_SW] = sw;
+        if (Trace.DEVICE >= Trace.DEBUG)
+            Trace.printf("[HIO] Halted channel %d → SW = %d\n", channel, sw);
     }
 
     // Format 2
@@ -30,7 +63,8 @@ public class InstLuncher {
         // The second byte holds the register number to clear
         int r1 = Integer.parseInt(entry.hexCode.substring(2, 3), 16);
         rMgr.register[r1] = 0;
-        System.out.printf("[CLEAR] Cleared register %d → 0\n", r1);
+        if (Trace.EXEC >= Trace.DEBUG)
+            Trace.printf("[CLEAR] Cleared register %d → 0\n", r1);
     }
 
     public void COMPR(ResourceManager.InstructionEntry entry) {
@@ -49,17 +83,20 @@ public class InstLuncher {
             } else {
                 rMgr.register[ResourceManager.REG_SW] = 1;
             }
-            System.out.printf("[COMPR] Compared register %d (value=0x%X) with register %d (value=0x%X) → SW = %d\n",
-                    r1, val1, r2, val2, rMgr.register[ResourceManager.REG_SW]);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[COMPR] Compared register %d (value=0x%X) with register %d (value=0x%X) → SW = %d\n",
+                        r1, val1, r2, val2, rMgr.register[ResourceManager.REG_SW]);
         } catch (Exception e) {
-            System.out.printf("[COMPR][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[COMPR][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
     public void TIXR(ResourceManager.InstructionEntry entry) {
         try {
             if (entry.hexCode.length() < 4) {
-                System.out.printf("[TIXR] Invalid hexCode length for format 2: %s\n", entry.hexCode);
+                if (Trace.EXEC >= Trace.ERROR)
+                    Trace.printf("[TIXR] Invalid hexCode length for format 2: %s\n", entry.hexCode);
                 return;
             }
 
@@ -78,10 +115,12 @@ public class InstLuncher {
                 rMgr.register[ResourceManager.REG_SW] = 1;
             }
 
-            System.out.printf("[TIXR] Incremented register X → 0x%X; Compared with register %d (value=0x%X) → SW = %d\n",
-                    valX, r1, valR1, rMgr.register[ResourceManager.REG_SW]);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[TIXR] Incremented register X → 0x%X; Compared with register %d (value=0x%X) → SW = %d\n",
+                        valX, r1, valR1, rMgr.register[ResourceManager.REG_SW]);
         } catch (Exception e) {
-            System.out.printf("[TIXR][ERROR] Failed to execute with hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[TIXR][ERROR] Failed to execute with hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -90,12 +129,12 @@ public class InstLuncher {
         // [STL] Store the contents of L register to the effective address
         int targetAddr = calculateEffectiveAddress(entry);
         int val = rMgr.register[ResourceManager.REG_L];
-        rMgr.memory[targetAddr] = (char) ((val >> 16) & 0xFF);
-        rMgr.memory[targetAddr + 1] = (char) ((val >> 8) & 0xFF);
-        rMgr.memory[targetAddr + 2] = (char) (val & 0xFF);
-        System.out.printf("[STL] Stored register L value 0x%06X into memory at %06X\n", val, targetAddr);
-        System.out.printf("[STL] Memory at %06X: %02X %02X %02X\n", targetAddr,
-            (int) rMgr.memory[targetAddr], (int) rMgr.memory[targetAddr + 1], (int) rMgr.memory[targetAddr + 2]);
+        rMgr.setMemoryWord(targetAddr, val);
+        if (Trace.EXEC >= Trace.DEBUG)
+            Trace.printf("[STL] Stored register L value 0x%06X into memory at %06X\n", val, targetAddr);
+        if (Trace.EXEC >= Trace.DEBUG)
+            Trace.printf("[STL] Memory at %06X: %02X %02X %02X\n", targetAddr,
+                (int) rMgr.memory[targetAddr], (int) rMgr.memory[targetAddr + 1], (int) rMgr.memory[targetAddr + 2]);
     }
 
     public void JSUB(ResourceManager.InstructionEntry entry) {
@@ -109,8 +148,9 @@ public class InstLuncher {
         rMgr.register[ResourceManager.REG_L] = rMgr.register[ResourceManager.REG_PC]; // Save return address
         rMgr.register[ResourceManager.REG_PC] = targetAddr; // Jump to target address
 
-        System.out.printf("[JSUB] Jumping to address %06X (from hexCode: %s, e=%d)\n",
-                targetAddr, entry.hexCode, ((entry.nixbpe & 0x10) != 0) ? 1 : 0);
+        if (Trace.EXEC >= Trace.DEBUG)
+            Trace.printf("[JSUB] Jumping to address %06X (from hexCode: %s, e=%d)\n",
+                    targetAddr, entry.hexCode, ((entry.nixbpe & 0x10) != 0) ? 1 : 0);
 
     }
 
@@ -131,24 +171,28 @@ public class InstLuncher {
                 } else if (entry.hexCode.length() == 8) { // Format 4
                     val = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 } else {
-                    System.out.printf("[LDA] Invalid hexCode length for immediate mode: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[LDA] Invalid hexCode length for immediate mode: %s\n", entry.hexCode);
                     return;
                 }
                 rMgr.register[ResourceManager.REG_A] = val;
-                System.out.printf("[LDA] Loaded immediate value 0x%06X into register A\n", val);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[LDA] Loaded immediate value 0x%06X into register A\n", val);
             } else {
                 int targetAddr = calculateEffectiveAddress(entry);
                 val = readBytesFromMemory(targetAddr, 3);
                 rMgr.register[ResourceManager.REG_A] = val;
-                System.out.printf("[LDA] Loaded value 0x%06X from address %06X into register A\n", val, targetAddr);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[LDA] Loaded value 0x%06X from address %06X into register A\n", val, targetAddr);
             }
         } catch (Exception e) {
-            System.out.printf("[LDA][ERROR] Failed to decode or load from hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[LDA][ERROR] Failed to decode or load from hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
     // Helper to calculate the effective address for format 3/4 instructions, considering n, i, x, b, p, e flags
-    private int calculateEffectiveAddress(ResourceManager.InstructionEntry entry) {
+    int calculateEffectiveAddress(ResourceManager.InstructionEntry entry) {
         boolean[] nixbpe = new boolean[6];
         for (int i = 0; i < 6; i++) {
             nixbpe[5 - i] = (entry.nixbpe & (1 << i)) != 0;
@@ -182,11 +226,7 @@ public class InstLuncher {
 
     // Helper to read n bytes from memory and return as int (big-endian)
     private int readBytesFromMemory(int addr, int n) {
-        int val = 0;
-        for (int i = 0; i < n; i++) {
-            val = (val << 8) | (rMgr.memory[addr + i] & 0xFF);
-        }
-        return val;
+        return rMgr.readMemory(addr, n);
     }
 
     public void COMP(ResourceManager.InstructionEntry entry) {
@@ -205,18 +245,21 @@ public class InstLuncher {
                 // Simple addressing
                 int targetAddr = calculateTargetAddress(entry.address, hex, flags);
                 val = getWordFromMemory(targetAddr);
-                System.out.printf("[COMP] Compared A (0x%06X) with value from memory[0x%06X] = 0x%06X → ", rMgr.register[ResourceManager.REG_A], targetAddr, val);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[COMP] Compared A (0x%06X) with value from memory[0x%06X] = 0x%06X → ", rMgr.register[ResourceManager.REG_A], targetAddr, val);
             } else if (flags[1]) {
                 // Immediate addressing
                 int disp = getDispOrAddr(hex, isExtended);
                 val = disp;
-                System.out.printf("[COMP] Compared A (0x%06X) with immediate value 0x%06X → ", rMgr.register[ResourceManager.REG_A], val);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[COMP] Compared A (0x%06X) with immediate value 0x%06X → ", rMgr.register[ResourceManager.REG_A], val);
             } else if (flags[0]) {
                 // Indirect addressing
                 int targetAddr = calculateTargetAddress(entry.address, hex, flags);
                 int pointer = getWordFromMemory(targetAddr);
                 val = getWordFromMemory(pointer);
-                System.out.printf("[COMP] Compared A (0x%06X) with value from indirect address [0x%06X] = 0x%06X → ", rMgr.register[ResourceManager.REG_A], pointer, val);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[COMP] Compared A (0x%06X) with value from indirect address [0x%06X] = 0x%06X → ", rMgr.register[ResourceManager.REG_A], pointer, val);
             }
 
             int acc = rMgr.register[ResourceManager.REG_A];
@@ -225,16 +268,17 @@ public class InstLuncher {
             else if (acc == val) rMgr.register[ResourceManager.REG_SW] = 0;
             else rMgr.register[ResourceManager.REG_SW] = 1;
 
-            System.out.printf("SW = %d\n", rMgr.register[ResourceManager.REG_SW]);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("SW = %d\n", rMgr.register[ResourceManager.REG_SW]);
         } catch (Exception e) {
-            System.out.printf("[COMP][ERROR] Failed to execute COMP for hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[COMP][ERROR] Failed to execute COMP for hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
     // Helper to get 3-byte word from memory at addr
     private int getWordFromMemory(int addr) {
-        char[] mem = rMgr.memory;
-        return ((mem[addr] & 0xFF) << 16) | ((mem[addr + 1] & 0xFF) << 8) | (mem[addr + 2] & 0xFF);
+        return rMgr.readMemory(addr, 3);
     }
 
     // Helper to calculate the target address for format 3/4 instructions, considering n, i, x, b, p, e flags
@@ -283,14 +327,16 @@ public class InstLuncher {
                 int disp;
                 if (isExtended) {
                     if (entry.hexCode.length() < 8) {
-                        System.out.printf("[JEQ] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                        if (Trace.EXEC >= Trace.ERROR)
+                            Trace.printf("[JEQ] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                         return;
                     }
                     disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                     targetAddr = disp;
                 } else {
                     if (entry.hexCode.length() < 6) {
-                        System.out.printf("[JEQ] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                        if (Trace.EXEC >= Trace.ERROR)
+                            Trace.printf("[JEQ] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                         return;
                     }
                     disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -307,12 +353,15 @@ public class InstLuncher {
                 }
 
                 rMgr.register[ResourceManager.REG_PC] = targetAddr;
-                System.out.printf("[JEQ] Jumped to address %06X (SW=0)\n", targetAddr);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[JEQ] Jumped to address %06X (SW=0)\n", targetAddr);
             } catch (Exception e) {
-                System.out.printf("[JEQ][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
+                if (Trace.EXEC >= Trace.ERROR)
+                    Trace.printf("[JEQ][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
             }
         } else {
-            System.out.printf("[JEQ] Condition not met (SW=%d), no jump\n", rMgr.register[ResourceManager.REG_SW]);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[JEQ] Condition not met (SW=%d), no jump\n", rMgr.register[ResourceManager.REG_SW]);
         }
     }
 
@@ -331,13 +380,15 @@ public class InstLuncher {
         int targetAddr;
         if (isExtended) {
             if (hexCode.length() < 8) {
-                System.out.printf("[J] Invalid hexCode length for format 4: %s\n", hexCode);
+                if (Trace.EXEC >= Trace.ERROR)
+                    Trace.printf("[J] Invalid hexCode length for format 4: %s\n", hexCode);
                 return;
             }
             targetAddr = Integer.parseInt(hexCode.substring(3, 8), 16);
         } else {
             if (hexCode.length() < 6) {
-                System.out.printf("[J] Invalid hexCode length for format 3: %s\n", hexCode);
+                if (Trace.EXEC >= Trace.ERROR)
+                    Trace.printf("[J] Invalid hexCode length for format 3: %s\n", hexCode);
                 return;
             }
             int disp = Integer.parseInt(hexCode.substring(3, 6), 16);
@@ -355,9 +406,7 @@ public class InstLuncher {
         if (n && !iFlag) {
             // Try to read the address from memory; if out-of-bounds or uninitialized, fallback to 0x000000
             try {
-                targetAddr = ((rMgr.memory[targetAddr] & 0xFF) << 16) |
-                             ((rMgr.memory[targetAddr + 1] & 0xFF) << 8) |
-                             (rMgr.memory[targetAddr + 2] & 0xFF);
+                targetAddr = rMgr.readMemory(targetAddr, 3);
             } catch (Exception e) {
                 targetAddr = 0x000000;
             }
@@ -365,7 +414,8 @@ public class InstLuncher {
 
         rMgr.register[ResourceManager.REG_PC] = targetAddr;
 
-        System.out.printf("[J] Jumped to address %06X (from hexCode: %s, e=%d)\n", targetAddr, hexCode, isExtended ? 1 : 0);
+        if (Trace.EXEC >= Trace.DEBUG)
+            Trace.printf("[J] Jumped to address %06X (from hexCode: %s, e=%d)\n", targetAddr, hexCode, isExtended ? 1 : 0);
     }
 
     public void STA(ResourceManager.InstructionEntry entry) {
@@ -376,14 +426,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[STA] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[STA] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[STA] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[STA] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -404,24 +456,26 @@ public class InstLuncher {
             }
 
             int val = rMgr.register[ResourceManager.REG_A];
-            rMgr.memory[targetAddr] = (char) ((val >> 16) & 0xFF);
-            rMgr.memory[targetAddr + 1] = (char) ((val >> 8) & 0xFF);
-            rMgr.memory[targetAddr + 2] = (char) (val & 0xFF);
+            rMgr.setMemoryWord(targetAddr, val);
 
-            System.out.printf("[STA] Stored register A value 0x%06X into memory at %06X\n", val, targetAddr);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[STA] Stored register A value 0x%06X into memory at %06X\n", val, targetAddr);
             // Hex dump of 16 bytes from targetAddr
-            System.out.print("[STA] Memory Dump @ " + String.format("%06X", targetAddr) + " : ");
-            for (int i = 0; i < 16; i++) {
-                int dumpAddr = targetAddr + i;
-                if (dumpAddr < rMgr.memory.length) {
-                    System.out.printf("%02X ", rMgr.memory[dumpAddr] & 0xFF);
-                } else {
-                    System.out.print("?? ");
+            if (Trace.EXEC >= Trace.DEBUG) {
+                Trace.print("[STA] Memory Dump @ " + String.format("%06X", targetAddr) + " : ");
+                for (int i = 0; i < 16; i++) {
+                    int dumpAddr = targetAddr + i;
+                    if (dumpAddr < rMgr.memory.length) {
+                        Trace.printf("%02X ", rMgr.memory[dumpAddr] & 0xFF);
+                    } else {
+                        Trace.print("?? ");
+                    }
                 }
+                Trace.println();
             }
-            System.out.println();
         } catch (Exception e) {
-            System.out.printf("[STA][ERROR] Failed to execute STA for hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[STA][ERROR] Failed to execute STA for hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -433,14 +487,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[LDT] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[LDT] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16); // 20-bit
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[LDT] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[LDT] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16); // 12-bit
@@ -456,13 +512,14 @@ public class InstLuncher {
                 }
             }
 
-            char[] mem = rMgr.memory;
-            int val = ((mem[targetAddr] & 0xFF) << 16) | ((mem[targetAddr + 1] & 0xFF) << 8) | (mem[targetAddr + 2] & 0xFF);
+            int val = rMgr.readMemory(targetAddr, 3);
             rMgr.register[ResourceManager.REG_T] = val;
 
-            System.out.printf("[LDT] Loaded value 0x%06X from address %06X into register T\n", val, targetAddr);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[LDT] Loaded value 0x%06X from address %06X into register T\n", val, targetAddr);
         } catch (Exception e) {
-            System.out.printf("[LDT][ERROR] Failed to load from hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[LDT][ERROR] Failed to load from hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -474,14 +531,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[TD] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.DEVICE >= Trace.ERROR)
+                        Trace.printf("[TD] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[TD] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.DEVICE >= Trace.ERROR)
+                        Trace.printf("[TD] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -497,27 +556,17 @@ public class InstLuncher {
                 }
             }
 
-            char[] mem = rMgr.memory;
             // Read 1 byte and interpret as ASCII from two 4-bit nibbles for device name
-            int byteVal = mem[targetAddr] & 0xFF;
+            int byteVal = rMgr.readMemoryByte(targetAddr);
             char high = Character.forDigit((byteVal >> 4) & 0xF, 16);
             char low = Character.forDigit(byteVal & 0xF, 16);
             String deviceName = "" + Character.toUpperCase(high) + Character.toUpperCase(low);
 
-            java.io.File devFile = new java.io.File(deviceName);
-            if (!deviceName.isEmpty() && devFile.exists()) {
-                rMgr.register[ResourceManager.REG_SW] = 1;
-            } else {
-                rMgr.register[ResourceManager.REG_SW] = 0;
-            }
+            rMgr.testDevice(deviceName); // sets SW
             rMgr.lastUsedDeviceName = deviceName;
-            // Always print the result, not inside any conditional
-            System.out.printf("[TD] Device file (ASCII from nibbles) '%s' %s → SW = %d\n",
-                deviceName,
-                devFile.exists() ? "exists" : "not found",
-                rMgr.register[ResourceManager.REG_SW]);
         } catch (Exception e) {
-            System.out.printf("[TD][ERROR] Failed to decode address from hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.DEVICE >= Trace.ERROR)
+                Trace.printf("[TD][ERROR] Failed to decode address from hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -529,14 +578,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[RD] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.DEVICE >= Trace.ERROR)
+                        Trace.printf("[RD] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[RD] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.DEVICE >= Trace.ERROR)
+                        Trace.printf("[RD] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -553,37 +604,28 @@ public class InstLuncher {
             }
 
             // New RD logic: keep stream open for device
-            int byteVal = rMgr.memory[targetAddr] & 0xFF;
+            int byteVal = rMgr.readMemoryByte(targetAddr);
             String deviceName = String.format("%02X", byteVal);
-            java.io.File file = new java.io.File(deviceName);
-            if (!file.exists()) {
-                System.out.printf("[RD] Device file '%s' not found → A not updated\n", deviceName);
+            char[] data = rMgr.readDevice(deviceName, 1);
+            if (data == null) {
+                if (Trace.DEVICE >= Trace.ERROR)
+                    Trace.printf("[RD] Device file '%s' not found → A not updated\n", deviceName);
                 return;
             }
-
-            try {
-                java.io.FileInputStream fis = rMgr.rdDeviceStreams.get(deviceName);
-                if (fis == null) {
-                    fis = new java.io.FileInputStream(file);
-                    rMgr.rdDeviceStreams.put(deviceName, fis);
-                }
-                int read = fis.read();
-                if (read == -1) {
-                    rMgr.register[ResourceManager.REG_A] = 0;
-                    System.out.printf("[RD] Device file '%s' is empty or EOF reached → A set to 0x00\n", deviceName);
-                    return;
-                }
-                rMgr.register[ResourceManager.REG_A] = read & 0xFF;
-                // Advance the stream manually by reading and discarding the next byte
-                // This enforces reading one character at a time consistently on repeated RD
-                rMgr.rdDeviceStreams.put(deviceName, fis);
-                System.out.printf("[RD] Read byte 0x%02X ('%c') from device '%s' into register A\n",
-                        read, (char) read, deviceName);
-            } catch (Exception e) {
-                System.out.printf("[RD][ERROR] Failed to read from device '%s': %s\n", deviceName, e.getMessage());
+            if (data.length == 0) {
+                rMgr.register[ResourceManager.REG_A] = 0;
+                if (Trace.DEVICE >= Trace.DEBUG)
+                    Trace.printf("[RD] Device file '%s' is empty or EOF reached → A set to 0x00\n", deviceName);
+                return;
             }
+            int read = data[0] & 0xFF;
+            rMgr.register[ResourceManager.REG_A] = read;
+            if (Trace.DEVICE >= Trace.DEBUG)
+                Trace.printf("[RD] Read byte 0x%02X ('%c') from device '%s' into register A\n",
+                        read, (char) read, deviceName);
         } catch (Exception e) {
-            System.out.printf("[RD][ERROR] Failed to execute RD for hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.DEVICE >= Trace.ERROR)
+                Trace.printf("[RD][ERROR] Failed to execute RD for hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -595,14 +637,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[STCH] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[STCH] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[STCH] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[STCH] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -624,23 +668,27 @@ public class InstLuncher {
             }
 
             int val = rMgr.register[ResourceManager.REG_A] & 0xFF;
-            rMgr.memory[targetAddr] = (char) val;
+            rMgr.setMemoryByte(targetAddr, val);
 
-            System.out.printf("[STCH] Stored lowest byte of register A (0x%02X) into memory at %06X\n", val, targetAddr);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[STCH] Stored lowest byte of register A (0x%02X) into memory at %06X\n", val, targetAddr);
 
             // Hex dump of 16 bytes from targetAddr
-            System.out.print("[STCH] Memory Dump @ " + String.format("%06X", targetAddr-rMgr.register[ResourceManager.REG_X]) + " : ");
-            for (int i = 0; i < 16; i++) {
-                int dumpAddr = targetAddr + i-rMgr.register[ResourceManager.REG_X];
-                if (dumpAddr < rMgr.memory.length) {
-                    System.out.printf("%02X ", rMgr.memory[dumpAddr] & 0xFF);
-                } else {
-                    System.out.print("?? ");
+            if (Trace.EXEC >= Trace.DEBUG) {
+                Trace.print("[STCH] Memory Dump @ " + String.format("%06X", targetAddr-rMgr.register[ResourceManager.REG_X]) + " : ");
+                for (int i = 0; i < 16; i++) {
+                    int dumpAddr = targetAddr + i-rMgr.register[ResourceManager.REG_X];
+                    if (dumpAddr < rMgr.memory.length) {
+                        Trace.printf("%02X ", rMgr.memory[dumpAddr] & 0xFF);
+                    } else {
+                        Trace.print("?? ");
+                    }
                 }
+                Trace.println();
             }
-            System.out.println();
         } catch (Exception e) {
-            System.out.printf("[STCH][ERROR] Failed to execute STCH for hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[STCH][ERROR] Failed to execute STCH for hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -653,14 +701,16 @@ public class InstLuncher {
                 int disp;
                 if (isExtended) {
                     if (entry.hexCode.length() < 8) {
-                        System.out.printf("[JLT] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                        if (Trace.EXEC >= Trace.ERROR)
+                            Trace.printf("[JLT] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                         return;
                     }
                     disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                     targetAddr = disp;
                 } else {
                     if (entry.hexCode.length() < 6) {
-                        System.out.printf("[JLT] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                        if (Trace.EXEC >= Trace.ERROR)
+                            Trace.printf("[JLT] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                         return;
                     }
                     disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -677,12 +727,15 @@ public class InstLuncher {
                 }
 
                 rMgr.register[ResourceManager.REG_PC] = targetAddr;
-                System.out.printf("[JLT] Jumped to address %06X (SW<0)\n", targetAddr);
+                if (Trace.EXEC >= Trace.DEBUG)
+                    Trace.printf("[JLT] Jumped to address %06X (SW<0)\n", targetAddr);
             } catch (Exception e) {
-                System.out.printf("[JLT][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
+                if (Trace.EXEC >= Trace.ERROR)
+                    Trace.printf("[JLT][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
             }
         } else {
-            System.out.printf("[JLT] Condition not met (SW=%d), no jump\n", rMgr.register[ResourceManager.REG_SW]);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[JLT] Condition not met (SW=%d), no jump\n", rMgr.register[ResourceManager.REG_SW]);
         }
     }
 
@@ -694,14 +747,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[STX] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[STX] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[STX] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[STX] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -718,24 +773,26 @@ public class InstLuncher {
             }
 
             int val = rMgr.register[ResourceManager.REG_X];
-            rMgr.memory[targetAddr] = (char) ((val >> 16) & 0xFF);
-            rMgr.memory[targetAddr + 1] = (char) ((val >> 8) & 0xFF);
-            rMgr.memory[targetAddr + 2] = (char) (val & 0xFF);
+            rMgr.setMemoryWord(targetAddr, val);
 
-            System.out.printf("[STX] Stored register X value 0x%06X into memory at %06X\n", val, targetAddr);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[STX] Stored register X value 0x%06X into memory at %06X\n", val, targetAddr);
             // Hex dump of 16 bytes from targetAddr
-            System.out.print("[STX] Memory Dump @ " + String.format("%06X", targetAddr) + " : ");
-            for (int i = 0; i < 16; i++) {
-                int dumpAddr = targetAddr + i;
-                if (dumpAddr < rMgr.memory.length) {
-                    System.out.printf("%02X ", rMgr.memory[dumpAddr] & 0xFF);
-                } else {
-                    System.out.print("?? ");
+            if (Trace.EXEC >= Trace.DEBUG) {
+                Trace.print("[STX] Memory Dump @ " + String.format("%06X", targetAddr) + " : ");
+                for (int i = 0; i < 16; i++) {
+                    int dumpAddr = targetAddr + i;
+                    if (dumpAddr < rMgr.memory.length) {
+                        Trace.printf("%02X ", rMgr.memory[dumpAddr] & 0xFF);
+                    } else {
+                        Trace.print("?? ");
+                    }
                 }
+                Trace.println();
             }
-            System.out.println();
         } catch (Exception e) {
-            System.out.printf("[STX][ERROR] Failed to execute STX for hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[STX][ERROR] Failed to execute STX for hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -747,14 +804,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[LDCH] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[LDCH] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[LDCH] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.EXEC >= Trace.ERROR)
+                        Trace.printf("[LDCH] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -774,12 +833,14 @@ public class InstLuncher {
                 targetAddr += rMgr.register[ResourceManager.REG_X];
             }
 
-            int val = rMgr.memory[targetAddr] & 0xFF;
+            int val = rMgr.readMemoryByte(targetAddr);
             rMgr.register[ResourceManager.REG_A] = val;
 
-            System.out.printf("[LDCH] Loaded byte 0x%02X from memory[%06X] into register A\n", val, targetAddr);
+            if (Trace.EXEC >= Trace.DEBUG)
+                Trace.printf("[LDCH] Loaded byte 0x%02X from memory[%06X] into register A\n", val, targetAddr);
         } catch (Exception e) {
-            System.out.printf("[LDCH][ERROR] Failed to execute LDCH for hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.EXEC >= Trace.ERROR)
+                Trace.printf("[LDCH][ERROR] Failed to execute LDCH for hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 
@@ -791,14 +852,16 @@ public class InstLuncher {
             int disp;
             if (isExtended) {
                 if (entry.hexCode.length() < 8) {
-                    System.out.printf("[WD] Invalid hexCode length for format 4: %s\n", entry.hexCode);
+                    if (Trace.DEVICE >= Trace.ERROR)
+                        Trace.printf("[WD] Invalid hexCode length for format 4: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 8), 16);
                 targetAddr = disp;
             } else {
                 if (entry.hexCode.length() < 6) {
-                    System.out.printf("[WD] Invalid hexCode length for format 3: %s\n", entry.hexCode);
+                    if (Trace.DEVICE >= Trace.ERROR)
+                        Trace.printf("[WD] Invalid hexCode length for format 3: %s\n", entry.hexCode);
                     return;
                 }
                 disp = Integer.parseInt(entry.hexCode.substring(3, 6), 16);
@@ -814,24 +877,15 @@ public class InstLuncher {
                 }
             }
 
-            int byteVal = rMgr.memory[targetAddr] & 0xFF;
+            int byteVal = rMgr.readMemoryByte(targetAddr);
             String deviceName = String.format("%02X", byteVal);
-            java.io.File file = new java.io.File(deviceName);
-            try {
-                java.io.FileOutputStream fos = rMgr.wrDeviceStreams.get(deviceName);
-                if (fos == null) {
-                    fos = new java.io.FileOutputStream(file, true); // append mode
-                    rMgr.wrDeviceStreams.put(deviceName, fos);
-                }
-                int data = rMgr.register[ResourceManager.REG_A] & 0xFF;
-                fos.write(data);
-                fos.flush();
-                System.out.printf("[WD] Wrote byte 0x%02X ('%c') from register A to device '%s'\n", data, (char) data, deviceName);
-            } catch (Exception e) {
-                System.out.printf("[WD][ERROR] Failed to write to device '%s': %s\n", deviceName, e.getMessage());
-            }
+            int data = rMgr.register[ResourceManager.REG_A] & 0xFF;
+            rMgr.writeDevice(deviceName, new char[] { (char) data }, 1); // buffered, appended to the device file
+            if (Trace.DEVICE >= Trace.DEBUG)
+                Trace.printf("[WD] Wrote byte 0x%02X ('%c') from register A to device '%s'\n", data, (char) data, deviceName);
         } catch (Exception e) {
-            System.out.printf("[WD][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
+            if (Trace.DEVICE >= Trace.ERROR)
+                Trace.printf("[WD][ERROR] Failed to decode hexCode %s: %s\n", entry.hexCode, e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package SP25_simulator;
+
+import java.io.IOException;
+
+/**
+ * SIO/TIO/HIO로 제어하는 I/O channel. SIO로 시작한 channel program에 따라 장치와 메모리 사이의 전송을 CPU 실행과
+ * 겹쳐서 처리한다.
+ * <p>
+ * channel program은 메모리에 연속해서 놓인 8바이트 CCW(channel command word)의 나열이다.
+ * <pre>
+ * byte 0    : command (CMD_END, CMD_READ, CMD_WRITE)
+ * byte 1    : 장치 번호 (TD/RD/WD의 장치 이름과 같은 2자리 16진수. 예: 0xF1 -> "F1")
+ * byte 2..4 : 메모리 주소
+ * byte 5..7 : 전송할 바이트 수
+ * </pre>
+ * CMD_END를 만나면 channel program이 끝나고 channel은 IDLE이 된다. READ 중에 장치 끝에 도달하면 그 CCW는 거기서
+ * 끝나고 다음 CCW로 넘어간다.
+ * <p>
+ * 전송은 simulator가 명령어 하나를 실행할 때마다 step()으로 최대 bytesPerStep 바이트씩 진행한다. 장치와 메모리를
+ * simulator thread에서만 다루므로 DeviceManager나 메모리 변경 추적을 동기화할 필요가 없고, 같은 입력에 대해 항상
+ * 같은 순서로 실행된다. 실제로 느린 장치는 AsyncDevice로 붙이면 장치 입출력 자체가 background에서 진행된다.
+ */
+public class IoChannel {
+	public static final int CHANNEL_COUNT = 16;
+	public static final int CCW_SIZE = 8;
+	public static final int DEFAULT_BYTES_PER_STEP = 16;
+
+	// CCW command
+	public static final int CMD_END = 0x00;
+	public static final int CMD_READ = 0x01;
+	public static final int CMD_WRITE = 0x02;
+
+	// getStatus() 결과
+	public static final int IDLE = 0;
+	public static final int BUSY = 1;
+	public static final int ERROR = 2;
+
+	final int number;
+	private int status = IDLE;
+	private String error;
+	// 다음에 읽을 CCW 주소
+	private int ccwAddr;
+	// 지금 처리 중인 CCW
+	private int command;
+	private String device;
+	private int address;
+	private int remaining;
+	private long transferred;
+
+	public IoChannel(int number) {
+		this.number = number;
+	}
+
+	/**
+	 * channel program을 시작한다.
+	 *
+	 * @param programAddr 첫 CCW의 주소
+	 * @return 시작했으면 true. 이미 전송 중이면 false
+	 */
+	public boolean start(int programAddr) {
+		if (status == BUSY)
+			return false;
+		ccwAddr = programAddr;
+		remaining = 0;
+		transferred = 0;
+		error = null;
+		status = BUSY;
+		return true;
+	}
+
+	/**
+	 * 진행 중인 전송을 멈춘다. 이미 옮긴 데이터는 그대로 남는다.
+	 */
+	public void halt() {
+		status = IDLE;
+		remaining = 0;
+	}
+
+	/**
+	 * 전송을 진행한다. 장치가 준비되지 않았으면 다음 step까지 기다린다.
+	 *
+	 * @param rMgr   메모리와 장치
+	 * @param budget 이번에 옮길 수 있는 최대 바이트 수
+	 * @return 실제로 옮긴 바이트 수
+	 */
+	public int step(ResourceManager rMgr, int budget) {
+		SimEvents.DeviceOperation event = new SimEvents.DeviceOperation();
+		event.begin();
+		int moved = 0;
+		DeviceManager devices = rMgr.deviceManager;
+		try {
+			while (status == BUSY && moved < budget) {
+				if (remaining == 0) {
+					fetch(rMgr.memory);
+					continue;
+				}
+				if (!devices.test(device, command == CMD_WRITE))
+					break;
+				if (command == CMD_READ) {
+					int b = devices.read(device);
+					if (b < 0) {
+						remaining = 0; // 장치 끝: 이 CCW는 여기까지
+						continue;
+					}
+					rMgr.setMemoryByte(address, b);
+				} else {
+					devices.write(device, rMgr.readMemoryByte(address));
+				}
+				address = (address + 1) & 0xFFFF;
+				remaining--;
+				moved++;
+			}
+		} catch (IOException e) {
+			fail(String.format("device '%s': %s", device, e.getMessage()));
+		}
+		transferred += moved;
+		if (moved > 0 && rMgr.metrics != null) {
+			if (command == CMD_WRITE)
+				rMgr.metrics.deviceWritten(moved);
+			else
+				rMgr.metrics.deviceRead(moved);
+		}
+		if (moved > 0 && event.shouldCommit()) {
+			event.device = device;
+			event.operation = command == CMD_WRITE ? "channel-write" : "channel-read";
+			event.bytes = moved;
+			event.commit();
+		}
+		return moved;
+	}
+
+	// ccwAddr의 CCW를 읽어 다음 전송을 준비한다. CMD_END이면 channel program을 끝낸다.
+	private void fetch(char[] memory) {
+		if (ccwAddr < 0 || ccwAddr + CCW_SIZE > memory.length) {
+			fail(String.format("channel program address %06X out of memory", ccwAddr));
+			return;
+		}
+		int cmd = memory[ccwAddr] & 0xFF;
+		if (cmd == CMD_END) {
+			status = IDLE;
+			return;
+		}
+		if (cmd != CMD_READ && cmd != CMD_WRITE) {
+			fail(String.format("unknown channel command %02X at %06X", cmd, ccwAddr));
+			return;
+		}
+		command = cmd;
+		device = String.format("%02X", memory[ccwAddr + 1] & 0xFF);
+		address = word(memory, ccwAddr + 2) & 0xFFFF;
+		remaining = word(memory, ccwAddr + 5);
+		ccwAddr += CCW_SIZE;
+	}
+
+	private static int word(char[] memory, int addr) {
+		return ((memory[addr] & 0xFF) << 16) | ((memory[addr + 1] & 0xFF) << 8) | (memory[addr + 2] & 0xFF);
+	}
+
+	private void fail(String message) {
+		status = ERROR;
+		error = message;
+		remaining = 0;
+		if (Trace.DEVICE >= Trace.ERROR)
+			Trace.printf("[CHANNEL %d] Error: %s\n", number, message);
+	}
+
+	/**
+	 * @return IDLE, BUSY, ERROR 중 하나
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	public boolean isBusy() {
+		return status == BUSY;
+	}
+
+	/**
+	 * @return 마지막 오류 내용. 오류가 없으면 null
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @return 마지막 SIO 이후 옮긴 바이트 수
+	 */
+	public long getTransferred() {
+		return transferred;
+	}
+
+	@Override
+	public String toString() {
+		String state = switch (status) {
+			case BUSY -> "busy";
+			case ERROR -> "error";
+			default -> "idle";
+		};
+		return String.format("channel %d %s (%d bytes)", number, state, transferred);
+	}
+}
@@ -0,0 +1,193 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * link가 끝난 load 결과(SicImage)를 object 파일 내용의 hash와 load 주소로 찾아 재사용하는 cache. 같은 파일을 다시
+ * load할 때 레코드 해석, relocation, instruction 목록 생성을 모두 건너뛴다.
+ * <p>
+ * 메모리에는 전체 크기가 maxBytes를 넘지 않도록 가장 오래 사용하지 않은 항목부터 버린다(LRU). directory를 지정하면
+ * 항목을 "key.sxe" 이름의 SicImage 파일로도 저장하여 프로세스가 다시 시작되어도 사용할 수 있다.
+ */
+public class LoadCache {
+	public static final String IMAGE_SUFFIX = ".sxe";
+
+	private final long maxBytes;
+	private final Path directory;
+	private final LinkedHashMap<String, SicImage> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long currentBytes;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param maxBytes  메모리에 보관할 image 크기의 합 상한
+	 * @param directory image 파일을 저장할 directory. null이면 메모리에만 보관한다.
+	 */
+	public LoadCache(long maxBytes, Path directory) {
+		this.maxBytes = maxBytes;
+		this.directory = directory;
+	}
+
+	/**
+	 * object 파일 내용과 load 주소로 cache key를 만든다.
+	 *
+	 * @param objectCode object 파일
+	 * @param loadAddr   첫 control section이 놓일 주소
+	 * @return SHA-256 hash(16진수)와 load 주소를 이은 문자열
+	 */
+	public static String key(File objectCode, int loadAddr) throws IOException {
+		return key(java.util.List.of(objectCode), loadAddr);
+	}
+
+	/**
+	 * 여러 object 파일을 주어진 순서로 link한 결과에 대한 cache key를 만든다. 파일 순서가 다르면 key도 다르다.
+	 *
+	 * @param objectFiles object 파일들
+	 * @param loadAddr    첫 control section이 놓일 주소
+	 * @return SHA-256 hash(16진수)와 load 주소를 이은 문자열
+	 */
+	public static String key(java.util.List<File> objectFiles, int loadAddr) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+		for (File objectCode : objectFiles) {
+			try (FileChannel channel = FileChannel.open(objectCode.toPath(), StandardOpenOption.READ)) {
+				buffer.clear().putLong(channel.size()).flip();
+				digest.update(buffer); // 파일 경계를 구분하기 위해 길이를 먼저 넣는다
+				buffer.clear();
+				while (channel.read(buffer) != -1) {
+					buffer.flip();
+					digest.update(buffer);
+					buffer.clear();
+				}
+			}
+		}
+		StringBuilder sb = new StringBuilder(72);
+		for (byte b : digest.digest()) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.append('-').append(String.format("%06X", loadAddr)).toString();
+	}
+
+	/**
+	 * key에 해당하는 image를 찾는다. 메모리에 없으면 directory의 파일을 확인한다.
+	 *
+	 * @param key cache key
+	 * @return 찾은 image, 없으면 null
+	 */
+	public synchronized SicImage get(String key) {
+		SicImage image = entries.get(key);
+		if (image == null && directory != null) {
+			Path file = directory.resolve(key + IMAGE_SUFFIX);
+			if (Files.isRegularFile(file)) {
+				try {
+					image = SicImage.map(file);
+					insert(key, image);
+				} catch (IOException e) {
+					// 손상된 파일은 지우고 miss로 처리한다
+					System.err.printf("[CACHE] Dropping unreadable entry %s: %s%n", file, e.getMessage());
+					invalidated(key, "corrupt", 1, 0);
+					try {
+						Files.deleteIfExists(file);
+					} catch (IOException ignored) {
+					}
+				}
+			}
+		}
+		if (image == null)
+			misses++;
+		else
+			hits++;
+		return image;
+	}
+
+	/**
+	 * image를 cache에 넣는다. directory가 있으면 파일로도 저장한다.
+	 *
+	 * @param key   cache key
+	 * @param image load 결과
+	 */
+	public synchronized void put(String key, SicImage image) {
+		insert(key, image);
+		if (directory != null) {
+			try {
+				Files.createDirectories(directory);
+				Path tmp = Files.createTempFile(directory, key, ".tmp");
+				image.write(tmp);
+				Files.move(tmp, directory.resolve(key + IMAGE_SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				System.err.printf("[CACHE] Could not persist %s: %s%n", key, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 메모리에 보관 중인 항목을 모두 버린다. directory의 파일은 남겨둔다.
+	 */
+	public synchronized void clear() {
+		invalidated(null, "clear", entries.size(), currentBytes);
+		entries.clear();
+		currentBytes = 0;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void insert(String key, SicImage image) {
+		SicImage previous = entries.put(key, image);
+		if (previous != null)
+			currentBytes -= sizeOf(previous);
+		currentBytes += sizeOf(image);
+		// 가장 오래 사용하지 않은 항목부터 버린다. 방금 넣은 항목은 남긴다.
+		Iterator<Map.Entry<String, SicImage>> it = entries.entrySet().iterator();
+		while (currentBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+			Map.Entry<String, SicImage> eldest = it.next();
+			if (eldest.getKey().equals(key))
+				continue;
+			currentBytes -= sizeOf(eldest.getValue());
+			invalidated(eldest.getKey(), "evict", 1, sizeOf(eldest.getValue()));
+			it.remove();
+		}
+	}
+
+	private static void invalidated(String key, String reason, int count, long bytes) {
+		SimEvents.CacheInvalidation event = new SimEvents.CacheInvalidation();
+		if (event.shouldCommit()) {
+			event.key = key;
+			event.reason = reason;
+			event.entries = count;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	private static long sizeOf(SicImage image) {
+		return image.segmentData.limit() + image.symbolNames.size() * 16L + image.codeAddresses.length * 5L;
+	}
+}
@@ -0,0 +1,73 @@
+package SP25_simulator;
+
+/**
+ * load 직후의 machine 상태(메모리, 레지스터)를 저장해 두고, 같은 프로그램을 여러 번 실행할 때 다시 load하지 않고 그
+ * 상태로 되돌리는 snapshot.
+ * <p>
+ * snapshot의 메모리는 읽기 전용이므로 여러 thread의 ResourceManager가 하나를 공유한다. restore()는 ResourceManager의
+ * 메모리 변경 추적(drainDirtyLines)으로 마지막 restore 이후 바뀐 line만 snapshot에서 다시 복사하므로, 실행이 메모리를
+ * 조금만 바꾸었다면 되돌리는 비용도 그만큼만 든다. 변경 기록을 소비하므로 MemoryInspector가 붙어 있는
+ * ResourceManager에는 사용하지 않는다.
+ */
+public class MachineSnapshot {
+	private final char[] memory;
+	private final int[] register;
+	private final double registerF;
+
+	private MachineSnapshot(char[] memory, int[] register, double registerF) {
+		this.memory = memory;
+		this.register = register;
+		this.registerF = registerF;
+	}
+
+	/**
+	 * 현재 상태를 저장한다. rMgr의 변경 기록은 비운다.
+	 *
+	 * @param rMgr load가 끝난 ResourceManager
+	 * @return snapshot
+	 */
+	public static MachineSnapshot capture(ResourceManager rMgr) {
+		rMgr.drainDirtyLines(line -> {
+		});
+		SimEvents.allocation("MachineSnapshot memory", rMgr.memory.length * 2L);
+		return new MachineSnapshot(rMgr.memory.clone(), rMgr.register.clone(), rMgr.register_F);
+	}
+
+	/**
+	 * 다른 ResourceManager(같은 프로그램을 load한 것)를 처음 이 snapshot에 맞출 때 사용한다. 메모리 전체를 복사한다.
+	 *
+	 * @param rMgr 대상 ResourceManager
+	 */
+	public void reset(ResourceManager rMgr) {
+		System.arraycopy(memory, 0, rMgr.memory, 0, memory.length);
+		rMgr.drainDirtyLines(line -> {
+		});
+		restoreState(rMgr);
+	}
+
+	/**
+	 * 마지막 reset()/restore() 이후 바뀐 메모리 line과 레지스터, 실행 상태를 snapshot 상태로 되돌린다.
+	 *
+	 * @param rMgr 대상 ResourceManager
+	 */
+	public void restore(ResourceManager rMgr) {
+		char[] target = rMgr.memory;
+		rMgr.drainDirtyLines(line -> {
+			int start = line << ResourceManager.MEMORY_LINE_SHIFT;
+			System.arraycopy(memory, start, target, start, ResourceManager.MEMORY_LINE_SIZE);
+		});
+		restoreState(rMgr);
+	}
+
+	private void restoreState(ResourceManager rMgr) {
+		System.arraycopy(register, 0, rMgr.register, 0, register.length);
+		rMgr.register_F = registerF;
+		rMgr.haltChannels();
+		rMgr.resetCounters();
+		rMgr.executionLog.clear();
+		rMgr.lastEffectiveAddress = null;
+		rMgr.lastDeviceAddress = null;
+		rMgr.lastUsedDeviceName = "";
+		rMgr.currentInstructionIndex = -1;
+	}
+}
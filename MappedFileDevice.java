@@ -0,0 +1,135 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * 입력 장치 파일을 FileChannel.map으로 메모리에 mapping하여 RD마다 mapping된 buffer에서 바로 읽는 장치. 수백 MB
+ * 크기의 입력 파일도 복사 없이 사용할 수 있다.
+ * <p>
+ * 같은 파일을 여러 simulator 인스턴스(같은 JVM 안의 여러 ResourceManager)가 동시에 읽을 때는 mapping 하나를
+ * 공유하고, 인스턴스마다 독립된 읽기 위치를 가진 view(ByteBuffer.duplicate)만 따로 가진다. mapping을 만든 뒤에는
+ * 파일 handle을 바로 닫으므로 인스턴스가 파일 handle을 들고 있지 않는다. mapping은 마지막 사용자가 close()하면
+ * registry에서 빠지고 GC가 해제한다.
+ */
+public class MappedFileDevice implements Device {
+	/**
+	 * 파일 하나의 공유 mapping. 파일 크기나 수정 시각이 바뀌면 새 mapping을 만든다.
+	 */
+	private static class Mapping {
+		final Path path;
+		final MappedByteBuffer buffer;
+		final long size;
+		final long lastModified;
+		int refCount;
+
+		Mapping(Path path, MappedByteBuffer buffer, long size, long lastModified) {
+			this.path = path;
+			this.buffer = buffer;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+
+	private static final HashMap<Path, Mapping> MAPPINGS = new HashMap<>();
+
+	private Mapping mapping;
+	private final ByteBuffer view;
+
+	private MappedFileDevice(Mapping mapping) {
+		this.mapping = mapping;
+		this.view = mapping.buffer.duplicate();
+	}
+
+	/**
+	 * 파일의 공유 mapping을 얻어 장치를 만든다. 읽기 위치는 파일 처음이다.
+	 *
+	 * @param file 입력 장치 파일
+	 * @return 장치
+	 * @throws IOException 파일을 열 수 없거나 2GB 이상일 때
+	 */
+	public static MappedFileDevice open(Path file) throws IOException {
+		Path key = file.toRealPath();
+		long size = Files.size(key);
+		long lastModified = Files.getLastModifiedTime(key).toMillis();
+		synchronized (MAPPINGS) {
+			Mapping mapping = MAPPINGS.get(key);
+			if (mapping == null || mapping.size != size || mapping.lastModified != lastModified) {
+				if (size > Integer.MAX_VALUE)
+					throw new IOException("Device file too large to map: " + key);
+				try (FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+					mapping = new Mapping(key, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size, lastModified);
+				}
+				// 이전 mapping을 쓰던 인스턴스는 그대로 두고, 이후 사용자부터 새 mapping을 공유한다
+				MAPPINGS.put(key, mapping);
+			}
+			mapping.refCount++;
+			return new MappedFileDevice(mapping);
+		}
+	}
+
+	@Override
+	public boolean test() {
+		return true;
+	}
+
+	@Override
+	public int read() {
+		return view.hasRemaining() ? view.get() & 0xFF : -1;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		throw new IOException("Mapped device " + mappingPath() + " is read-only");
+	}
+
+	/**
+	 * 읽기 위치를 옮긴다.
+	 *
+	 * @param position 파일 처음부터의 byte offset (0 ~ size())
+	 */
+	public void seek(long position) {
+		if (position < 0 || position > view.limit())
+			throw new IllegalArgumentException("Seek position out of range: " + position);
+		view.position((int) position);
+	}
+
+	/**
+	 * 읽기 위치를 파일 처음으로 되돌린다.
+	 */
+	public void reset() {
+		view.position(0);
+	}
+
+	public long position() {
+		return view.position();
+	}
+
+	public long size() {
+		return view.limit();
+	}
+
+	private String mappingPath() {
+		return mapping != null ? mapping.path.toString() : "(closed)";
+	}
+
+	/**
+	 * 공유 mapping의 참조를 반납한다. 마지막 참조이면 registry에서 제거한다.
+	 */
+	@Override
+	public void close() {
+		if (mapping == null)
+			return;
+		synchronized (MAPPINGS) {
+			if (--mapping.refCount == 0 && MAPPINGS.get(mapping.path) == mapping)
+				MAPPINGS.remove(mapping.path);
+		}
+		mapping = null;
+	}
+}
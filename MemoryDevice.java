@@ -0,0 +1,66 @@
+package SP25_simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * byte 배열을 입력으로 사용하고 출력은 메모리에 모으는 장치. 파일 없이 프로그램에 입력을 주고 결과를 확인할 때 사용한다.
+ */
+public class MemoryDevice implements Device {
+	private final byte[] input;
+	private int position;
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	public MemoryDevice() {
+		this(new byte[0]);
+	}
+
+	/**
+	 * @param input RD로 읽을 내용 (복사하지 않는다)
+	 */
+	public MemoryDevice(byte[] input) {
+		this.input = input;
+	}
+
+	/**
+	 * @param input RD로 읽을 문자열 (ISO-8859-1로 변환)
+	 */
+	public MemoryDevice(String input) {
+		this(input.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	@Override
+	public boolean test() {
+		return true;
+	}
+
+	@Override
+	public int read() {
+		return position < input.length ? input[position++] & 0xFF : -1;
+	}
+
+	@Override
+	public void write(int b) {
+		output.write(b);
+	}
+
+	/**
+	 * 입력을 처음부터 다시 읽도록 하고 지금까지의 출력을 지운다.
+	 */
+	public void reset() {
+		position = 0;
+		output.reset();
+	}
+
+	/**
+	 * @return 지금까지 WD로 쓴 내용
+	 */
+	public byte[] getOutput() {
+		return output.toByteArray();
+	}
+
+	@Override
+	public String toString() {
+		return "memory";
+	}
+}
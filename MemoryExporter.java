@@ -0,0 +1,163 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 메모리의 임의 구간을 hex dump 텍스트 또는 raw binary image로 내보낸다. GUI(MemoryInspector)와
+ * headless 실행(SicRunner), VisualSimulator.dumpMemory()가 공통으로 사용한다.
+ *
+ * hex dump는 "AAAA : XX XX ... XX " 형식의 행을 미리 만들어 둔 template에 숫자만 채워 넣는 방식으로 만들며,
+ * 모든 바이트가 0xFF(초기화 값)인 행이 연속되면 "*" 한 줄로 줄인다. 출력은 큰 ByteBuffer에 모았다가 channel로 한 번에
+ * 쓴다.
+ */
+public class MemoryExporter {
+	public static final int BYTES_PER_ROW = 16;
+	public static final int FILL_VALUE = 0xFF;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D',
+			'E', 'F' };
+	// "AAAA : " + "XX " * 16 + "\n"
+	private static final int ADDRESS_DIGITS = 4;
+	private static final int DATA_OFFSET = ADDRESS_DIGITS + 3;
+	private static final int ROW_LENGTH = DATA_OFFSET + BYTES_PER_ROW * 3 + 1;
+	private static final byte[] SKIP_ROW = { '*', '\n' };
+
+	/**
+	 * 메모리 구간을 hex dump 텍스트로 channel에 쓴다.
+	 *
+	 * @param memory 메모리 배열
+	 * @param start  시작 주소 (포함)
+	 * @param end    끝 주소 (포함하지 않음)
+	 * @param out    출력 channel
+	 */
+	public static void writeHex(char[] memory, int start, int end, WritableByteChannel out) throws IOException {
+		checkRange(memory, start, end);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] row = new byte[ROW_LENGTH];
+		java.util.Arrays.fill(row, (byte) ' ');
+		row[ADDRESS_DIGITS + 1] = ':';
+
+		boolean skipping = false;
+		for (int addr = start; addr < end; addr += BYTES_PER_ROW) {
+			int count = Math.min(BYTES_PER_ROW, end - addr);
+			if (isFillRow(memory, addr, count)) {
+				if (!skipping) {
+					skipping = true;
+					put(buffer, SKIP_ROW, SKIP_ROW.length, out);
+				}
+				continue;
+			}
+			skipping = false;
+
+			for (int i = 0; i < ADDRESS_DIGITS; i++) {
+				row[i] = HEX_DIGITS[(addr >> ((ADDRESS_DIGITS - 1 - i) * 4)) & 0xF];
+			}
+			int pos = DATA_OFFSET;
+			for (int i = 0; i < count; i++) {
+				int b = memory[addr + i] & 0xFF;
+				row[pos] = HEX_DIGITS[b >> 4];
+				row[pos + 1] = HEX_DIGITS[b & 0xF];
+				pos += 3;
+			}
+			row[pos] = '\n';
+			put(buffer, row, pos + 1, out);
+			row[pos] = ' ';
+		}
+		drain(buffer, out);
+	}
+
+	/**
+	 * 메모리 구간을 hex dump 파일로 저장한다.
+	 *
+	 * @param memory 메모리 배열
+	 * @param start  시작 주소 (포함)
+	 * @param end    끝 주소 (포함하지 않음)
+	 * @param file   저장할 파일
+	 */
+	public static void exportHex(char[] memory, int start, int end, Path file) throws IOException {
+		try (FileChannel channel = openForWrite(file)) {
+			writeHex(memory, start, end, channel);
+		}
+	}
+
+	/**
+	 * 메모리 구간을 그대로 binary 파일로 저장한다. 파일의 offset 0이 start 주소에 해당한다.
+	 *
+	 * @param memory 메모리 배열
+	 * @param start  시작 주소 (포함)
+	 * @param end    끝 주소 (포함하지 않음)
+	 * @param file   저장할 파일
+	 */
+	public static void exportBinary(char[] memory, int start, int end, Path file) throws IOException {
+		checkRange(memory, start, end);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] chunk = buffer.array();
+		try (FileChannel channel = openForWrite(file)) {
+			for (int addr = start; addr < end;) {
+				int count = Math.min(chunk.length, end - addr);
+				for (int i = 0; i < count; i++) {
+					chunk[i] = (byte) memory[addr + i];
+				}
+				buffer.clear().limit(count);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				addr += count;
+			}
+		}
+	}
+
+	/**
+	 * "start:end" 형식의 16진수 주소 구간을 해석한다. end를 생략하면 메모리 끝까지로 본다.
+	 *
+	 * @param spec   구간 문자열 (예: "0000:1100")
+	 * @param limit  메모리 크기
+	 * @return {start, end}
+	 */
+	public static int[] parseRange(String spec, int limit) {
+		int colon = spec.indexOf(':');
+		String from = colon < 0 ? spec : spec.substring(0, colon);
+		String to = colon < 0 ? "" : spec.substring(colon + 1);
+		int start = from.isEmpty() ? 0 : Integer.parseInt(from.trim(), 16);
+		int end = to.isEmpty() ? limit : Integer.parseInt(to.trim(), 16);
+		return new int[] { start, end };
+	}
+
+	private static boolean isFillRow(char[] memory, int addr, int count) {
+		for (int i = 0; i < count; i++) {
+			if (memory[addr + i] != FILL_VALUE)
+				return false;
+		}
+		return true;
+	}
+
+	private static void put(ByteBuffer buffer, byte[] data, int length, WritableByteChannel out) throws IOException {
+		if (buffer.remaining() < length)
+			drain(buffer, out);
+		buffer.put(data, 0, length);
+	}
+
+	private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static FileChannel openForWrite(Path file) throws IOException {
+		return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	private static void checkRange(char[] memory, int start, int end) {
+		if (start < 0 || end > memory.length || start > end)
+			throw new IllegalArgumentException(String.format("Invalid memory range %X:%X", start, end));
+	}
+}
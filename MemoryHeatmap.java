@@ -0,0 +1,116 @@
+package SP25_simulator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 실행 중 메모리 읽기/쓰기 횟수를 line 단위로 세는 heatmap. ResourceManager.heatmap에 설정했을 때만 만들어지므로 끄면
+ * 메모리 접근마다 null 확인 한 번 외에는 비용이 없다.
+ * <p>
+ * 읽기와 쓰기 횟수는 line마다 하나씩 long 배열(reads, writes)로 나누어 둔다. 여러 바이트에 걸친 접근(word)은 걸친
+ * line마다 한 번씩 센다. 명령어 fetch는 세지 않고, 명령어의 operand(메모리 값, 장치 번호, 간접 주소)와 channel
+ * 전송만 센다.
+ */
+public class MemoryHeatmap {
+	private final int lineShift;
+	private final long[] reads;
+	private final long[] writes;
+
+	/**
+	 * ResourceManager의 메모리 변경 추적과 같은 16바이트 line을 사용한다.
+	 */
+	public MemoryHeatmap() {
+		this(ResourceManager.MEMORY_LINE_SHIFT);
+	}
+
+	/**
+	 * @param lineShift line 크기의 log2 (4이면 16바이트)
+	 */
+	public MemoryHeatmap(int lineShift) {
+		this.lineShift = lineShift;
+		this.reads = new long[65536 >> lineShift];
+		this.writes = new long[65536 >> lineShift];
+	}
+
+	/**
+	 * @param locate 읽은 위치
+	 * @param num    읽은 바이트 수
+	 */
+	public void read(int locate, int num) {
+		int last = (locate + num - 1) >> lineShift;
+		for (int line = locate >> lineShift; line <= last; line++) {
+			reads[line]++;
+		}
+	}
+
+	/**
+	 * @param locate 쓴 위치
+	 * @param num    쓴 바이트 수
+	 */
+	public void write(int locate, int num) {
+		int last = (locate + num - 1) >> lineShift;
+		for (int line = locate >> lineShift; line <= last; line++) {
+			writes[line]++;
+		}
+	}
+
+	public int getLineSize() {
+		return 1 << lineShift;
+	}
+
+	public int getLineCount() {
+		return reads.length;
+	}
+
+	public long getReads(int line) {
+		return reads[line];
+	}
+
+	public long getWrites(int line) {
+		return writes[line];
+	}
+
+	/**
+	 * @return 가장 많이 접근한 line의 읽기+쓰기 횟수
+	 */
+	public long getMaxAccesses() {
+		long max = 0;
+		for (int line = 0; line < reads.length; line++) {
+			max = Math.max(max, reads[line] + writes[line]);
+		}
+		return max;
+	}
+
+	public void reset() {
+		java.util.Arrays.fill(reads, 0);
+		java.util.Arrays.fill(writes, 0);
+	}
+
+	/**
+	 * 접근한 line만 CSV로 출력한다. 열은 address, reads, writes, symbol이다.
+	 *
+	 * @param out     출력 대상
+	 * @param symbols line 시작 주소에 붙일 symbol
+	 */
+	public void writeCsv(Writer out, SymbolIndex symbols) throws IOException {
+		out.write("address,reads,writes,symbol\n");
+		for (int line = 0; line < reads.length; line++) {
+			if (reads[line] == 0 && writes[line] == 0)
+				continue;
+			int address = line << lineShift;
+			out.write(String.format("%06X,%d,%d,%s%n", address, reads[line], writes[line], symbols.annotate(address)));
+		}
+	}
+
+	/**
+	 * writeCsv() 결과를 파일로 저장한다.
+	 */
+	public void exportCsv(Path file, SymbolIndex symbols) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file)) {
+			writeCsv(out, symbols);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package SP25_simulator;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.IntConsumer;
+
+/**
+ * MemoryHeatmap을 line 하나당 한 칸으로 그리는 화면. 한 줄에 64 line(16바이트 line이면 1KB)씩 놓으며, 읽기가 많을수록
+ * 파란색, 쓰기가 많을수록 빨간색이 진해진다. 횟수는 log scale로 표시한다. 칸을 누르면 그 line의 주소를 listener에
+ * 넘긴다.
+ */
+public final class MemoryHeatmapPanel extends JComponent {
+	private static final long serialVersionUID = 1L;
+	private static final int COLUMNS = 64;
+	private static final int CELL = 8;
+	private static final Color UNUSED = new Color(0xF0, 0xF0, 0xF0);
+
+	private final transient ResourceManager rMgr;
+
+	/**
+	 * @param rMgr     heatmap과 symbol을 가진 ResourceManager
+	 * @param onSelect 칸을 눌렀을 때 line 시작 주소를 받는 listener
+	 */
+	public MemoryHeatmapPanel(ResourceManager rMgr, IntConsumer onSelect) {
+		this.rMgr = rMgr;
+		setToolTipText("");
+		addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				int line = lineAt(e.getPoint());
+				MemoryHeatmap heatmap = rMgr.heatmap;
+				if (line >= 0 && heatmap != null)
+					onSelect.accept(line * heatmap.getLineSize());
+			}
+		});
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		MemoryHeatmap heatmap = rMgr.heatmap;
+		int lines = heatmap != null ? heatmap.getLineCount() : 4096;
+		return new Dimension(COLUMNS * CELL, (lines + COLUMNS - 1) / COLUMNS * CELL);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		MemoryHeatmap heatmap = rMgr.heatmap;
+		g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+		g.fillRect(0, 0, getWidth(), getHeight());
+		if (heatmap == null) {
+			g.setColor(Color.GRAY);
+			g.drawString("Heatmap is off", 10, 20);
+			return;
+		}
+		double scale = Math.log1p(Math.max(1, heatmap.getMaxAccesses()));
+		Rectangle clip = g.getClipBounds();
+		int firstRow = clip == null ? 0 : clip.y / CELL;
+		int lastRow = clip == null ? Integer.MAX_VALUE : (clip.y + clip.height) / CELL;
+		for (int line = firstRow * COLUMNS; line < heatmap.getLineCount() && line / COLUMNS <= lastRow; line++) {
+			long reads = heatmap.getReads(line);
+			long writes = heatmap.getWrites(line);
+			if (reads == 0 && writes == 0) {
+				g.setColor(UNUSED);
+			} else {
+				// 읽기는 빨강을, 쓰기는 파랑을 빼서 읽기만 하면 파란색, 쓰기만 하면 빨간색, 둘 다이면 어두운 색
+				double read = Math.log1p(reads) / scale;
+				double write = Math.log1p(writes) / scale;
+				g.setColor(new Color(255 - (int) (200 * read), 255 - (int) (200 * Math.max(read, write)),
+						255 - (int) (200 * write)));
+			}
+			g.fillRect(line % COLUMNS * CELL, line / COLUMNS * CELL, CELL - 1, CELL - 1);
+		}
+	}
+
+	@Override
+	public String getToolTipText(MouseEvent e) {
+		MemoryHeatmap heatmap = rMgr.heatmap;
+		int line = lineAt(e.getPoint());
+		if (heatmap == null || line < 0)
+			return null;
+		int start = line * heatmap.getLineSize();
+		return String.format("%06X-%06X %s : reads=%d writes=%d", start, start + heatmap.getLineSize() - 1,
+				rMgr.symbolIndex.annotate(start), heatmap.getReads(line), heatmap.getWrites(line));
+	}
+
+	private int lineAt(Point p) {
+		MemoryHeatmap heatmap = rMgr.heatmap;
+		int column = p.x / CELL;
+		int line = p.y / CELL * COLUMNS + column;
+		if (column >= COLUMNS || heatmap == null || line >= heatmap.getLineCount())
+			return -1;
+		return line;
+	}
+}
@@ -0,0 +1,155 @@
+package SP25_simulator;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+/**
+ * 메모리 내용을 보여주는 별도의 창. MemoryTableModel을 사용하므로 화면에 보이는 행만 그려지며, 마지막 갱신 이후 값이 바뀐
+ * 바이트는 색으로 강조된다.
+ */
+public final class MemoryInspector {
+	private static final Color CHANGED_COLOR = new Color(0xFF, 0xE0, 0x80);
+
+	private final JFrame frame;
+	private final JTable table;
+	private final MemoryTableModel model;
+	private final MemoryHeatmapPanel heatmapPanel;
+	private final JTabbedPane tabs;
+
+	public MemoryInspector(ResourceManager resourceManager) {
+		model = new MemoryTableModel(resourceManager);
+		table = new JTable(model);
+		table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+		table.setRowSelectionAllowed(false);
+		table.getTableHeader().setReorderingAllowed(false);
+		table.setDefaultRenderer(Object.class, new ChangedByteRenderer());
+		table.getColumnModel().getColumn(MemoryTableModel.ADDRESS_COLUMN).setPreferredWidth(60);
+		for (int i = 1; i <= MemoryTableModel.BYTES_PER_ROW; i++) {
+			table.getColumnModel().getColumn(i).setPreferredWidth(26);
+		}
+		table.getColumnModel().getColumn(MemoryTableModel.ASCII_COLUMN).setPreferredWidth(140);
+
+		frame = new JFrame("Memory");
+		frame.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+		frame.setSize(720, 480);
+		frame.setLayout(new BorderLayout());
+
+		JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		topPanel.add(new JLabel("Address :"));
+		JTextField addrField = new JTextField(8);
+		topPanel.add(addrField);
+		JButton goBtn = new JButton("go");
+		topPanel.add(goBtn);
+		java.awt.event.ActionListener goAction = e -> {
+			try {
+				scrollTo(Integer.parseInt(addrField.getText().trim(), 16));
+			} catch (NumberFormatException ex) {
+				addrField.selectAll();
+			}
+		};
+		goBtn.addActionListener(goAction);
+		addrField.addActionListener(goAction);
+
+		topPanel.add(new JLabel("Range :"));
+		JTextField rangeField = new JTextField("0000:10000", 10);
+		topPanel.add(rangeField);
+		JButton dumpBtn = new JButton("hex dump");
+		topPanel.add(dumpBtn);
+		dumpBtn.addActionListener(e -> export(rangeField.getText(), false));
+		JButton imageBtn = new JButton("image");
+		topPanel.add(imageBtn);
+		imageBtn.addActionListener(e -> export(rangeField.getText(), true));
+
+		tabs = new JTabbedPane();
+		heatmapPanel = new MemoryHeatmapPanel(resourceManager, address -> {
+			tabs.setSelectedIndex(0);
+			scrollTo(address);
+		});
+		tabs.addTab("Bytes", new JScrollPane(table));
+		tabs.addTab("Heatmap", new JScrollPane(heatmapPanel));
+
+		// 켜면 이후 실행부터 메모리 읽기/쓰기를 line마다 센다
+		JCheckBox heatmapBox = new JCheckBox("heatmap", resourceManager.heatmap != null);
+		topPanel.add(heatmapBox);
+		heatmapBox.addActionListener(e -> {
+			resourceManager.heatmap = heatmapBox.isSelected() ? new MemoryHeatmap() : null;
+			heatmapPanel.repaint();
+		});
+
+		frame.add(topPanel, BorderLayout.NORTH);
+		frame.add(tabs, BorderLayout.CENTER);
+	}
+
+	public void show() {
+		model.refresh();
+		frame.setVisible(true);
+		frame.toFront();
+	}
+
+	public boolean isVisible() {
+		return frame.isVisible();
+	}
+
+	/**
+	 * 변경된 line만 다시 확인하여 화면을 갱신한다. 창이 닫혀 있으면 변경 기록은 다음 갱신까지 누적된다.
+	 */
+	public void refresh() {
+		if (frame.isVisible()) {
+			model.refresh();
+			if (tabs.getSelectedIndex() == 1)
+				heatmapPanel.repaint();
+		}
+	}
+
+	/**
+	 * 주어진 주소를 포함하는 행이 보이도록 스크롤한다.
+	 *
+	 * @param address 메모리 주소
+	 */
+	public void scrollTo(int address) {
+		int row = address / MemoryTableModel.BYTES_PER_ROW;
+		if (row < 0 || row >= model.getRowCount())
+			return;
+		table.scrollRectToVisible(table.getCellRect(row, 0, true));
+	}
+
+	// 지정한 구간을 사용자가 고른 파일로 내보낸다
+	private void export(String rangeSpec, boolean binary) {
+		int[] range;
+		try {
+			range = MemoryExporter.parseRange(rangeSpec, model.rMgr.memory.length);
+		} catch (NumberFormatException ex) {
+			JOptionPane.showMessageDialog(frame, "Invalid range: " + rangeSpec);
+			return;
+		}
+		FileDialog fd = new FileDialog(frame, "Export memory", FileDialog.SAVE);
+		fd.setFile(binary ? "memory.bin" : "memory.txt");
+		fd.setVisible(true);
+		if (fd.getFile() == null)
+			return;
+		java.nio.file.Path file = java.nio.file.Paths.get(fd.getDirectory(), fd.getFile());
+		try {
+			if (binary)
+				MemoryExporter.exportBinary(model.rMgr.memory, range[0], range[1], file);
+			else
+				MemoryExporter.exportHex(model.rMgr.memory, range[0], range[1], file);
+		} catch (Exception ex) {
+			JOptionPane.showMessageDialog(frame, "Export failed: " + ex.getMessage());
+		}
+	}
+
+	private class ChangedByteRenderer extends DefaultTableCellRenderer {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
+				int row, int column) {
+			super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+			setBackground(model.isChanged(row, column) ? CHANGED_COLOR : table.getBackground());
+			setHorizontalAlignment(column == MemoryTableModel.ASCII_COLUMN ? LEFT : CENTER);
+			return this;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package SP25_simulator;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+/**
+ * 메모리 전체(64KB)를 16바이트 단위의 행으로 보여주는 table model. JTable은 화면에 보이는 행에 대해서만
+ * getValueAt()을 호출하므로 값은 필요할 때마다 메모리에서 직접 읽어 만든다. 즉, model 자체는 메모리 내용을 복사해두지
+ * 않는다.
+ *
+ * refresh()가 호출되면 ResourceManager가 기록한 dirty line만 확인하여, 이전 refresh 이후 실제로 값이 바뀐 바이트를
+ * 표시해 둔다. 따라서 갱신 비용은 메모리 크기가 아니라 변경된 line 수에 비례한다.
+ */
+public class MemoryTableModel extends AbstractTableModel {
+	private static final long serialVersionUID = 1L;
+
+	public static final int BYTES_PER_ROW = ResourceManager.MEMORY_LINE_SIZE;
+	public static final int ADDRESS_COLUMN = 0;
+	public static final int ASCII_COLUMN = BYTES_PER_ROW + 1;
+
+	private static final String[] HEX_BYTE = new String[256];
+	static {
+		for (int i = 0; i < 256; i++) {
+			HEX_BYTE[i] = String.format("%02X", i);
+		}
+	}
+
+	transient ResourceManager rMgr;
+	// 마지막 refresh 시점의 메모리 내용. 변경된 line에 대해서만 비교/복사한다.
+	private final char[] shadow;
+	// 마지막 refresh에서 값이 바뀐 바이트 (1바이트당 1비트)
+	private final long[] changedBytes;
+	// 강조 표시 중인 line 목록. 다음 refresh에서 이 line들의 강조만 지운다.
+	private int[] highlightedLines = new int[64];
+	private int highlightedCount;
+
+	public MemoryTableModel(ResourceManager resourceManager) {
+		this.rMgr = resourceManager;
+		shadow = new char[rMgr.memory.length];
+		Arrays.fill(shadow, (char) 0xFF);
+		changedBytes = new long[(rMgr.memory.length + 63) >> 6];
+	}
+
+	@Override
+	public int getRowCount() {
+		return rMgr.memory.length / BYTES_PER_ROW;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return BYTES_PER_ROW + 2;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		if (column == ADDRESS_COLUMN)
+			return "Address";
+		if (column == ASCII_COLUMN)
+			return "ASCII";
+		return Integer.toHexString(column - 1).toUpperCase();
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		int base = row * BYTES_PER_ROW;
+		if (column == ADDRESS_COLUMN)
+			return String.format("%06X", base);
+		if (column == ASCII_COLUMN) {
+			char[] text = new char[BYTES_PER_ROW];
+			for (int i = 0; i < BYTES_PER_ROW; i++) {
+				int b = rMgr.memory[base + i] & 0xFF;
+				text[i] = (b >= 0x20 && b < 0x7F) ? (char) b : '.';
+			}
+			return new String(text);
+		}
+		return HEX_BYTE[rMgr.memory[base + column - 1] & 0xFF];
+	}
+
+	/**
+	 * 해당 셀의 바이트가 마지막 refresh에서 변경되었는지 확인한다.
+	 *
+	 * @param row    행 번호 (line 번호)
+	 * @param column 열 번호
+	 * @return 변경된 바이트이면 true. ASCII 열은 해당 행에 변경이 있으면 true, 주소 열은 항상 false
+	 */
+	public boolean isChanged(int row, int column) {
+		if (column == ADDRESS_COLUMN)
+			return false;
+		if (column == ASCII_COLUMN)
+			return lineBits(row) != 0;
+		int addr = row * BYTES_PER_ROW + column - 1;
+		return (changedBytes[addr >> 6] & (1L << addr)) != 0;
+	}
+
+	/**
+	 * 이전 refresh 이후 변경된 line만 다시 비교하여 강조 정보를 갱신하고, 해당 행들에 대한 갱신 이벤트를 보낸다.
+	 */
+	public void refresh() {
+		// 이전 강조 해제
+		int previousCount = highlightedCount;
+		int[] previous = highlightedLines;
+		highlightedLines = new int[Math.max(64, previousCount)];
+		highlightedCount = 0;
+		for (int i = 0; i < previousCount; i++) {
+			setLineBits(previous[i], 0);
+		}
+
+		rMgr.drainDirtyLines(line -> {
+			int base = line * BYTES_PER_ROW;
+			long bits = 0;
+			for (int i = 0; i < BYTES_PER_ROW; i++) {
+				char value = rMgr.memory[base + i];
+				if (value != shadow[base + i]) {
+					shadow[base + i] = value;
+					bits |= 1L << i;
+				}
+			}
+			if (bits != 0) {
+				setLineBits(line, bits);
+				if (highlightedCount == highlightedLines.length)
+					highlightedLines = Arrays.copyOf(highlightedLines, highlightedCount * 2);
+				highlightedLines[highlightedCount++] = line;
+			}
+		});
+
+		fireLines(previous, previousCount);
+		fireLines(highlightedLines, highlightedCount);
+	}
+
+	private long lineBits(int line) {
+		int shift = (line & 3) * BYTES_PER_ROW;
+		return (changedBytes[line >> 2] >>> shift) & 0xFFFFL;
+	}
+
+	private void setLineBits(int line, long bits) {
+		int shift = (line & 3) * BYTES_PER_ROW;
+		changedBytes[line >> 2] = (changedBytes[line >> 2] & ~(0xFFFFL << shift)) | (bits << shift);
+	}
+
+	// 오름차순 line 목록을 연속 구간으로 묶어서 갱신 이벤트를 보낸다.
+	private void fireLines(int[] lines, int count) {
+		int i = 0;
+		while (i < count) {
+			int start = lines[i];
+			int end = start;
+			while (i + 1 < count && lines[i + 1] == end + 1) {
+				end = lines[++i];
+			}
+			fireTableRowsUpdated(start, end);
+			i++;
+		}
+	}
+}
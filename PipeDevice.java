@@ -0,0 +1,119 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 두 simulator 인스턴스를 연결하는 단방향 pipe. 한 쪽 인스턴스의 WD 장치로 writer()를, 다른 쪽의 RD 장치로 reader()를
+ * 붙이면 producer/consumer 구성을 만들 수 있다.
+ * <p>
+ * 생산자 하나, 소비자 하나(SPSC)를 가정한 고정 크기 ring buffer이며 lock 없이 동작한다. 읽기/쓰기 위치는 각각 한
+ * thread만 증가시키고 상대 쪽은 읽기만 하므로 AtomicLong의 lazySet(release)과 get(acquire)으로 충분하다.
+ * <p>
+ * 장치의 TD는 reader 쪽에서는 읽을 데이터가 있을 때, writer 쪽에서는 빈 자리가 있을 때 SW = 1이 된다. writer가
+ * close되고 남은 데이터를 모두 읽으면 reader의 RD는 -1(파일 끝)을 돌려준다. writer가 열려 있는데 비어 있는 pipe를
+ * TD 없이 RD하면 IOException을 던진다.
+ * <p>
+ * writer를 WD 장치로 붙인 simulator는 프로그램이 끝날 때(PC = FFFFFF) Device.finish()로 writer를 닫는다. 그 밖의
+ * 방법으로 writer를 쓰는 API 사용자는 다 쓴 뒤 직접 close()해야 한다. 닫은 pipe는 다시 쓸 수 없으므로 다시 실행하려면
+ * 새 PipeDevice를 붙인다.
+ */
+public class PipeDevice {
+	private final byte[] buffer;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong(); // 다음에 읽을 위치 (reader만 증가)
+	private final AtomicLong tail = new AtomicLong(); // 다음에 쓸 위치 (writer만 증가)
+	private volatile boolean closed;
+
+	private final Device reader = new Device() {
+		@Override
+		public boolean test() {
+			return tail.get() != head.get() || closed;
+		}
+
+		@Override
+		public int read() throws IOException {
+			boolean end = closed; // closed를 먼저 읽어야 close 전에 쓴 바이트가 tail에 보인다
+			long h = head.get();
+			if (h == tail.get()) {
+				if (end)
+					return -1;
+				throw new IOException("Pipe is empty (check with TD before RD)");
+			}
+			int b = buffer[(int) h & mask] & 0xFF;
+			head.lazySet(h + 1);
+			return b;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			throw new IOException("Pipe reader is read-only");
+		}
+
+		@Override
+		public String toString() {
+			return "pipe-reader";
+		}
+	};
+
+	private final Device writer = new Device() {
+		@Override
+		public boolean test() {
+			return tail.get() - head.get() < buffer.length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			throw new IOException("Pipe writer is write-only");
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (closed)
+				throw new IOException("Pipe is closed");
+			long t = tail.get();
+			if (t - head.get() >= buffer.length)
+				throw new IOException("Pipe is full (check with TD before WD)");
+			buffer[(int) t & mask] = (byte) b;
+			tail.lazySet(t + 1);
+		}
+
+		@Override
+		public void finish() {
+			close();
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		@Override
+		public String toString() {
+			return "pipe-writer";
+		}
+	};
+
+	/**
+	 * @param capacity ring buffer 크기. 2의 거듭제곱으로 올림한다.
+	 */
+	public PipeDevice(int capacity) {
+		int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.buffer = new byte[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * @return RD 쪽 장치
+	 */
+	public Device reader() {
+		return reader;
+	}
+
+	/**
+	 * @return WD 쪽 장치
+	 */
+	public Device writer() {
+		return writer;
+	}
+}
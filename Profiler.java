@@ -0,0 +1,293 @@
+package SP25_simulator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 실행 profiler. ResourceManager.profiler에 설정하면 SicSimulator가 명령어를 하나 실행할 때마다 record()를 호출한다.
+ * <p>
+ * 주소별 실행 횟수, opcode별 실행 횟수, 주소 지정 방식별 실행 횟수는 모두 primitive 배열의 index 증가로 센다.
+ * JSUB/RSUB로 call tree를 만들어 call tree node마다 그 node에서 실행한 명령어 수를 센다.
+ * <ul>
+ * <li>JSUB: 실행 후의 PC(호출 대상)로 자식 node를 만들고, 실행 후의 L(돌아올 주소)을 shadow stack에 넣는다.</li>
+ * <li>RSUB: PC = L로 돌아가므로 실행 후의 PC와 같은 돌아올 주소를 가진 frame을 shadow stack 위에서부터 찾아 그
+ * frame까지 꺼낸다. 호출된 routine이 J로 다른 routine에 넘어가고(tail call) 그 routine의 RSUB가 원래 호출자로
+ * 돌아오는 경우도 이렇게 맞춰진다. 맞는 frame이 없으면(L을 직접 바꾼 경우, 최상위의 RSUB로 프로그램이 끝나는 경우)
+ * stack을 그대로 둔다.</li>
+ * </ul>
+ * 결과는 writeReport()의 hot-spot 보고서와 writeCollapsed()의 flame graph용 collapsed stack 파일로 내보낸다. 주소는
+ * SymbolTable로 만든 SymbolIndex로 symbol 이름을 붙인다.
+ */
+public class Profiler {
+	// 주소 지정 방식 분류 (modeCounts의 index)
+	public static final int MODE_FORMAT1 = 0;
+	public static final int MODE_FORMAT2 = 1;
+	public static final int MODE_SIC = 2;
+	public static final int MODE_SIMPLE = 3;
+	public static final int MODE_IMMEDIATE = 4;
+	public static final int MODE_INDIRECT = 5;
+	public static final int MODE_INDEXED = 6;
+	public static final int MODE_PC_RELATIVE = 7;
+	public static final int MODE_BASE_RELATIVE = 8;
+	public static final int MODE_DIRECT = 9;
+	public static final int MODE_EXTENDED = 10;
+	private static final String[] MODE_NAMES = { "format 1", "format 2", "SIC", "simple", "immediate", "indirect",
+			"indexed", "PC-relative", "base-relative", "direct", "extended (format 4)" };
+
+	private static final int ROOT = 0;
+
+	final long[] hits = new long[65536];
+	final long[] opcodeCounts = new long[64];
+	final long[] modeCounts = new long[MODE_NAMES.length];
+	long total;
+	long unmatchedReturns;
+
+	// call tree. node 0은 프로그램 시작 주소.
+	private int nodeCount = 1;
+	private int[] nodeParent = new int[64];
+	private int[] nodeFunction = new int[64];
+	private long[] nodeSelf = new long[64];
+	private long[] nodeCalls = new long[64];
+	// (부모 node << 32 | 호출 대상 주소) -> 자식 node
+	private final HashMap<Long, Integer> children = new HashMap<>();
+	private int current = ROOT;
+
+	// shadow stack: 호출한 쪽 node와 돌아올 주소
+	private int depth;
+	private int[] stackNode = new int[64];
+	private int[] stackReturn = new int[64];
+
+	/**
+	 * @param entryPoint 프로그램 시작 주소 (call tree의 root)
+	 */
+	public Profiler(int entryPoint) {
+		nodeParent[ROOT] = -1;
+		nodeFunction[ROOT] = entryPoint;
+	}
+
+	/**
+	 * 실행한 명령어 하나를 기록한다. 명령어를 실행한 직후에 호출한다.
+	 *
+	 * @param memory 메모리
+	 * @param entry  실행한 명령어
+	 * @param pc     실행 후의 PC
+	 * @param l      실행 후의 L 레지스터
+	 */
+	public void record(char[] memory, ResourceManager.InstructionEntry entry, int pc, int l) {
+		int addr = entry.address;
+		hits[addr]++;
+		opcodeCounts[entry.opcode >> 2]++;
+		nodeSelf[current]++;
+		total++;
+		countMode(memory, addr, entry.hexCode.length() >> 1);
+
+		if (entry.opcode == 0x48) // JSUB
+			call(pc, l);
+		else if (entry.opcode == 0x4C) // RSUB
+			ret(pc);
+	}
+
+	private void countMode(char[] memory, int addr, int length) {
+		if (length == 1) {
+			modeCounts[MODE_FORMAT1]++;
+			return;
+		}
+		if (length == 2) {
+			modeCounts[MODE_FORMAT2]++;
+			return;
+		}
+		int ni = memory[addr] & 0x3;
+		int xbpe = (memory[addr + 1] >> 4) & 0xF;
+		if ((xbpe & 0x8) != 0)
+			modeCounts[MODE_INDEXED]++;
+		if (ni == 0) {
+			modeCounts[MODE_SIC]++;
+			return;
+		}
+		modeCounts[ni == 3 ? MODE_SIMPLE : ni == 1 ? MODE_IMMEDIATE : MODE_INDIRECT]++;
+		if ((xbpe & 0x1) != 0)
+			modeCounts[MODE_EXTENDED]++;
+		else if ((xbpe & 0x2) != 0)
+			modeCounts[MODE_PC_RELATIVE]++;
+		else if ((xbpe & 0x4) != 0)
+			modeCounts[MODE_BASE_RELATIVE]++;
+		else
+			modeCounts[MODE_DIRECT]++;
+	}
+
+	private void call(int target, int returnAddr) {
+		if (depth == stackNode.length) {
+			stackNode = Arrays.copyOf(stackNode, depth * 2);
+			stackReturn = Arrays.copyOf(stackReturn, depth * 2);
+		}
+		stackNode[depth] = current;
+		stackReturn[depth] = returnAddr;
+		depth++;
+		current = child(current, target);
+		nodeCalls[current]++;
+	}
+
+	private void ret(int target) {
+		for (int i = depth - 1; i >= 0; i--) {
+			if (stackReturn[i] == target) {
+				current = stackNode[i];
+				depth = i;
+				return;
+			}
+		}
+		if (target != 0xFFFFFF)
+			unmatchedReturns++;
+	}
+
+	private int child(int parent, int function) {
+		long key = ((long) parent << 32) | (function & 0xFFFFFFFFL);
+		Integer node = children.get(key);
+		if (node != null)
+			return node;
+		if (nodeCount == nodeParent.length) {
+			int size = nodeCount * 2;
+			nodeParent = Arrays.copyOf(nodeParent, size);
+			nodeFunction = Arrays.copyOf(nodeFunction, size);
+			nodeSelf = Arrays.copyOf(nodeSelf, size);
+			nodeCalls = Arrays.copyOf(nodeCalls, size);
+		}
+		int id = nodeCount++;
+		nodeParent[id] = parent;
+		nodeFunction[id] = function;
+		children.put(key, id);
+		return id;
+	}
+
+	/**
+	 * @param address 명령어 주소
+	 * @return 그 주소의 명령어를 실행한 횟수
+	 */
+	public long getHits(int address) {
+		return hits[address];
+	}
+
+	/**
+	 * @return 기록한 명령어 수
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * 실행 횟수가 많은 순서로 명령어, symbol(routine)별 합계, opcode 분포, 주소 지정 방식 분포를 출력한다.
+	 *
+	 * @param out     출력 대상
+	 * @param rMgr    mnemonic과 symbol을 찾을 ResourceManager
+	 * @param maxRows 명령어 목록에 출력할 최대 줄 수
+	 */
+	public void writeReport(Writer out, ResourceManager rMgr, int maxRows) throws IOException {
+		SymbolIndex symbols = rMgr.symbolIndex;
+		out.write(String.format("# Profile: %d instructions, %d call tree nodes, %d unmatched returns%n", total,
+				nodeCount, unmatchedReturns));
+
+		// 주소별: 실행한 주소를 횟수가 많은 순서로 출력
+		int[] order = sortedIndexes(hits);
+		out.write(String.format("%n# Hot spots%n%12s %7s  %-6s  %-20s %s%n", "count", "percent", "addr", "location",
+				"instruction"));
+		for (int i = 0; i < order.length && i < maxRows; i++) {
+			int addr = order[i];
+			ResourceManager.InstructionEntry entry = rMgr.instructionAt(addr);
+			out.write(String.format("%12d %6.2f%%  %06X  %-20s %s%n", hits[addr], percent(hits[addr]), addr,
+					symbols.annotate(addr), entry != null ? entry.mnemonic : "?"));
+		}
+
+		// symbol별: 주소가 속한 symbol로 합계
+		long[] perSymbol = new long[symbols.size() + 1];
+		for (int addr : order) {
+			perSymbol[symbols.indexOf(addr) + 1] += hits[addr];
+		}
+		out.write(String.format("%n# Routines%n%12s %7s  %s%n", "count", "percent", "symbol"));
+		for (int index : sortedIndexes(perSymbol)) {
+			out.write(String.format("%12d %6.2f%%  %s%n", perSymbol[index], percent(perSymbol[index]),
+					index == 0 ? "(no symbol)" : symbols.nameAt(index - 1)));
+		}
+
+		out.write(String.format("%n# Opcode mix%n%12s %7s  %s%n", "count", "percent", "mnemonic"));
+		for (int index : sortedIndexes(opcodeCounts)) {
+			out.write(String.format("%12d %6.2f%%  %s%n", opcodeCounts[index], percent(opcodeCounts[index]),
+					rMgr.getMnemonic(index << 2)));
+		}
+
+		out.write(String.format("%n# Addressing modes%n%12s %7s  %s%n", "count", "percent", "mode"));
+		for (int mode = 0; mode < modeCounts.length; mode++) {
+			if (modeCounts[mode] != 0)
+				out.write(String.format("%12d %6.2f%%  %s%n", modeCounts[mode], percent(modeCounts[mode]),
+						MODE_NAMES[mode]));
+		}
+
+		out.write(String.format("%n# Calls%n%12s  %s%n", "calls", "call path"));
+		for (int node = 1; node < nodeCount; node++) {
+			out.write(String.format("%12d  %s%n", nodeCalls[node], path(node, symbols, " -> ")));
+		}
+	}
+
+	/**
+	 * flame graph 도구(flamegraph.pl 등)가 읽는 collapsed stack 형식으로 출력한다. 한 줄에 하나의 call path와 그
+	 * routine 자체에서 실행한 명령어 수를 "ROOT;CALLER;CALLEE count" 형태로 쓴다.
+	 *
+	 * @param out  출력 대상
+	 * @param rMgr symbol을 찾을 ResourceManager
+	 */
+	public void writeCollapsed(Writer out, ResourceManager rMgr) throws IOException {
+		for (int node = 0; node < nodeCount; node++) {
+			if (nodeSelf[node] != 0)
+				out.write(path(node, rMgr.symbolIndex, ";") + " " + nodeSelf[node] + "\n");
+		}
+	}
+
+	/**
+	 * prefix + ".txt"에 writeReport(), prefix + ".collapsed"에 writeCollapsed() 결과를 저장한다.
+	 *
+	 * @param prefix 파일 이름 앞부분
+	 * @param rMgr   mnemonic과 symbol을 찾을 ResourceManager
+	 */
+	public void export(String prefix, ResourceManager rMgr) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(Path.of(prefix + ".txt"))) {
+			writeReport(out, rMgr, 50);
+		}
+		try (BufferedWriter out = Files.newBufferedWriter(Path.of(prefix + ".collapsed"))) {
+			writeCollapsed(out, rMgr);
+		}
+	}
+
+	private String path(int node, SymbolIndex symbols, String separator) {
+		StringBuilder sb = new StringBuilder();
+		int[] chain = new int[16];
+		int length = 0;
+		for (int n = node; n >= 0; n = nodeParent[n]) {
+			if (length == chain.length)
+				chain = Arrays.copyOf(chain, length * 2);
+			chain[length++] = n;
+		}
+		for (int i = length - 1; i >= 0; i--) {
+			symbols.appendTo(sb, nodeFunction[chain[i]]);
+			if (i > 0)
+				sb.append(separator);
+		}
+		return sb.toString();
+	}
+
+	private double percent(long count) {
+		return total == 0 ? 0 : count * 100.0 / total;
+	}
+
+	// 0이 아닌 항목의 index를 값이 큰 순서로
+	private static int[] sortedIndexes(long[] counts) {
+		return java.util.stream.IntStream.range(0, counts.length)
+				.filter(i -> counts[i] != 0)
+				.boxed()
+				.sorted((a, b) -> Long.compare(counts[b], counts[a]))
+				.mapToInt(Integer::intValue)
+				.toArray();
+	}
+}
@@ -1,11 +1,9 @@
 package SP25_simulator;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.function.IntConsumer;
 
 /**
  * ResourceManager는 컴퓨터의 가상 리소스들을 선언하고 관리하는 클래스이다. 크게 네가지의 가상 자원 공간을 선언하고, 이를
@@ -27,8 +25,6 @@ public class ResourceManager {
 	public String lastUsedDeviceName = "";
 	public SicLoader sicLoader; // will be assigned externally
 	public HashMap<Integer, String> instructionTable = new HashMap<>();
-	public HashMap<String, FileInputStream> rdDeviceStreams = new HashMap<>();
-	public HashMap<String, FileOutputStream> wrDeviceStreams = new HashMap<>();
 
 	public static class InstructionEntry {
 		public int address;
@@ -37,6 +33,8 @@ public class ResourceManager {
 		public int opcode;
 		public int locctr;
 		public int nixbpe;
+		// 실행할 때마다 cycle counter에 더하는 값 (TimingModel이 계산)
+		public int cycles;
 
 		public InstructionEntry(int address, String hexCode, String mnemonic, int opcode, int locctr, int nixbpe) {
 			this.address = address;
@@ -54,6 +52,23 @@ public class ResourceManager {
 	}
 
 	public ArrayList<InstructionEntry> debugInstructionList = new ArrayList<>();
+	// 주소 -> debugInstructionList index + 1 (0이면 그 주소에서 시작하는 명령어가 없음). PC로 명령어를 찾을 때 사용한다.
+	private final int[] instructionIndex = new int[65536];
+	// load할 때 Disassembler가 만든 basic block 정보
+	ControlFlowGraph controlFlowGraph = ControlFlowGraph.EMPTY;
+	// 명령어 cost table과 실행 누적값. load할 때 0으로 되돌린다.
+	TimingModel timingModel = TimingModel.DEFAULT;
+	long cycles;
+	long instructionCount;
+	// null이 아니면 명령어를 실행할 때마다 기록한다
+	public Profiler profiler;
+	public CoverageMap coverage;
+	// null이 아니면 실행 중의 메모리 읽기/쓰기를 line마다 센다
+	public MemoryHeatmap heatmap;
+	// null이 아니면 실행한 명령어마다 binary record를 남긴다
+	public ExecutionTraceWriter executionTrace;
+	// null이 아니면 실행 통계를 더한다
+	public SimulatorMetrics metrics;
 	public javax.swing.JTextArea logArea;
 	public String programName;
 	public int programStartAddr;
@@ -72,9 +87,28 @@ public class ResourceManager {
 	 * 사용하는 stream 역시 자유로이 선택, 구현한다.
 	 * <p>
 	 * 이것도 복잡하면 알아서 구현해서 사용해도 괜찮습니다.
+	 * <p>
+	 * 장치마다 열린 channel과 읽기 cursor, 입출력 buffer를 DeviceManager가 관리한다. 파일 대신 메모리, 표준 입출력,
+	 * pipe 장치를 쓰려면 getDeviceManager().attach()로 붙인다.
 	 */
-	HashMap<String, Object> deviceManager = new HashMap<String, Object>();
+	DeviceManager deviceManager = new DeviceManager();
+	// SIO/TIO/HIO의 I/O channel. 처음 SIO할 때 만든다.
+	final IoChannel[] channels = new IoChannel[IoChannel.CHANNEL_COUNT];
+	// 전송 중인 channel 수. 0이면 명령어마다 channel을 확인하지 않는다.
+	int activeChannels;
+	// 명령어 하나를 실행하는 동안 channel 하나가 옮기는 바이트 수
+	int channelBytesPerStep = IoChannel.DEFAULT_BYTES_PER_STEP;
 	char[] memory = new char[65536]; // String으로 수정해서 사용하여도 무방함.
+
+	/**
+	 * 메모리 변경 추적 단위. 16바이트를 한 line으로, 64개의 line(1KB)을 한 page로 본다. line마다 1비트를 두고,
+	 * page마다 "이 page 안에 변경된 line이 있다"는 1비트를 두어 변경된 부분만 빠르게 찾을 수 있도록 한다.
+	 */
+	public static final int MEMORY_LINE_SHIFT = 4;
+	public static final int MEMORY_LINE_SIZE = 1 << MEMORY_LINE_SHIFT;
+	public static final int MEMORY_LINE_COUNT = 65536 >> MEMORY_LINE_SHIFT;
+	long[] dirtyLines = new long[MEMORY_LINE_COUNT >> 6];
+	long dirtyPages;
 	int[] register = new int[10];
 	double register_F;
 
@@ -88,13 +122,18 @@ public class ResourceManager {
 	public static final int REG_SW = 9;
 
 	SymbolTable symtabList;
+	// 주소 -> symbol 역방향 색인. load가 끝날 때마다 symtabList로부터 다시 만든다.
+	SymbolIndex symbolIndex = SymbolIndex.EMPTY;
 	// 이외에도 필요한 변수 선언해서 사용할 것.
 
 	/**
 	 * 메모리, 레지스터등 가상 리소스들을 초기화한다.
 	 */
 	public void initializeResource() {
+		haltChannels();
+		closeDevice(); // 새로 load하면 장치를 처음부터 다시 읽는다
 		Arrays.fill(memory, (char) 0xFF);
+		markDirty(0, memory.length);
 		Arrays.fill(register, 0);
 		register[REG_L] = 0xFFFFFF;
 		register_F = 0.0;
@@ -170,7 +209,130 @@ public class ResourceManager {
 	 * 호출한다.
 	 */
 	public void closeDevice() {
+		deviceManager.close();
+	}
+
+	/**
+	 * @return 이 machine의 장치 목록
+	 */
+	public DeviceManager getDeviceManager() {
+		return deviceManager;
+	}
+
+	/**
+	 * channel program을 시작한다. SIO 명령어를 사용했을 때 호출되는 함수.
+	 *
+	 * @param number      channel 번호 (A 레지스터)
+	 * @param programAddr channel program 주소 (S 레지스터)
+	 * @return SW에 넣을 값. 시작했으면 0, channel이 전송 중이면 1, 없는 channel이면 -1
+	 */
+	public int startChannel(int number, int programAddr) {
+		if (number < 0 || number >= channels.length)
+			return -1;
+		if (channels[number] == null)
+			channels[number] = new IoChannel(number);
+		if (!channels[number].start(programAddr))
+			return 1;
+		activeChannels++;
+		return 0;
+	}
+
+	/**
+	 * channel 상태를 확인한다. TIO 명령어를 사용했을 때 호출되는 함수.
+	 *
+	 * @param number channel 번호 (A 레지스터)
+	 * @return SW에 넣을 값. 전송이 끝났으면 0, 전송 중이면 1, 오류이거나 없는 channel이면 -1
+	 */
+	public int testChannel(int number) {
+		if (number < 0 || number >= channels.length)
+			return -1;
+		IoChannel channel = channels[number];
+		if (channel == null)
+			return 0;
+		return switch (channel.getStatus()) {
+			case IoChannel.BUSY -> 1;
+			case IoChannel.ERROR -> -1;
+			default -> 0;
+		};
+	}
+
+	/**
+	 * channel의 전송을 멈춘다. HIO 명령어를 사용했을 때 호출되는 함수.
+	 *
+	 * @param number channel 번호 (A 레지스터)
+	 * @return SW에 넣을 값. 멈췄으면 0, 없는 channel이면 -1
+	 */
+	public int haltChannel(int number) {
+		if (number < 0 || number >= channels.length)
+			return -1;
+		IoChannel channel = channels[number];
+		if (channel != null && channel.isBusy()) {
+			channel.halt();
+			activeChannels--;
+		}
+		return 0;
+	}
+
+	/**
+	 * @param number channel 번호
+	 * @return 한 번도 시작하지 않은 channel이면 null
+	 */
+	public IoChannel getChannel(int number) {
+		return channels[number];
+	}
+
+	/**
+	 * 전송 중인 channel들을 한 step씩 진행한다. 명령어 하나를 실행할 때마다 호출한다.
+	 */
+	public void stepChannels() {
+		if (activeChannels == 0)
+			return;
+		stepChannels(channelBytesPerStep);
+	}
+
+	/**
+	 * 프로그램이 끝났을 때 남은 전송을 마친다. 준비되지 않은 장치를 기다리는 channel은 그대로 둔다.
+	 */
+	public void drainChannels() {
+		while (activeChannels > 0 && stepChannels(Integer.MAX_VALUE) > 0) {
+		}
+	}
+
+	private int stepChannels(int budget) {
+		int moved = 0;
+		int active = 0;
+		for (IoChannel channel : channels) {
+			if (channel == null || !channel.isBusy())
+				continue;
+			moved += channel.step(this, budget);
+			if (channel.isBusy())
+				active++;
+		}
+		activeChannels = active;
+		return moved;
+	}
+
+	void haltChannels() {
+		for (IoChannel channel : channels) {
+			if (channel != null)
+				channel.halt();
+		}
+		activeChannels = 0;
+	}
 
+	/**
+	 * 장치에 쓴 내용 중 buffer에 남아 있는 것을 파일에 기록한다. 프로그램 실행이 멈췄을 때 호출한다.
+	 */
+	public void flushDevice() {
+		deviceManager.flush();
+	}
+
+	/**
+	 * 프로그램이 정상 종료(PC = FFFFFF)했을 때 호출한다. buffer를 기록하고, 붙인 pipe의 writer를 닫아 상대 simulator에
+	 * 입력의 끝을 알린다.
+	 */
+	public void finishDevice() {
+		deviceManager.finish();
 	}
 
 	/**
@@ -180,12 +342,13 @@ public class ResourceManager {
 	 * @param devName 확인하고자 하는 디바이스의 번호,또는 이름
 	 */
 	public void testDevice(String devName) {
-		File deviceFile = new File(devName);
-		if (deviceFile.exists()) {
-			System.out.printf("[TD] Device file '%s' found → SW = 1\n", devName);
+		if (deviceManager.test(devName)) {
+			if (Trace.DEVICE >= Trace.DEBUG)
+				Trace.printf("[TD] Device '%s' ready → SW = 1\n", devName);
 			register[REG_SW] = 1;
 		} else {
-			System.out.printf("[TD] Device file '%s' not found → SW = 0\n", devName);
+			if (Trace.DEVICE >= Trace.DEBUG)
+				Trace.printf("[TD] Device '%s' not ready → SW = 0\n", devName);
 			register[REG_SW] = 0;
 		}
 	}
@@ -195,27 +358,40 @@ public class ResourceManager {
 	 *
 	 * @param devName 디바이스의 이름
 	 * @param num     가져오는 글자의 개수
-	 * @return 가져온 데이터
+	 * @return 가져온 데이터. 파일 끝에 도달하면 num보다 짧다. 디바이스가 없으면 null
 	 */
 	public char[] readDevice(String devName, int num) {
-		File file = new File(devName);
-		if (!file.exists() || !file.isFile()) {
-			System.out.printf("[RD] Device file '%s' not found.\n", devName);
-			return new char[0];
-		}
-
+		SimEvents.DeviceOperation event = new SimEvents.DeviceOperation();
+		event.begin();
 		char[] buffer = new char[num];
-		try (java.io.FileReader fr = new java.io.FileReader(file)) {
-			int readCount = fr.read(buffer, 0, num);
-			if (readCount < num) {
-				buffer = java.util.Arrays.copyOf(buffer, readCount);
+		int readCount = 0;
+		try {
+			while (readCount < num) {
+				int b = deviceManager.read(devName);
+				if (b < 0)
+					break;
+				buffer[readCount++] = (char) b;
 			}
-			System.out.printf("[RD] Read %d characters from device '%s': %s\n", buffer.length, devName, new String(buffer));
+		} catch (java.nio.file.NoSuchFileException e) {
+			if (Trace.DEVICE >= Trace.ERROR)
+				Trace.printf("[RD] Device file '%s' not found.\n", devName);
+			return null;
 		} catch (java.io.IOException e) {
-			System.out.printf("[RD] Error reading device '%s': %s\n", devName, e.getMessage());
-			return new char[0];
+			if (Trace.DEVICE >= Trace.ERROR)
+				Trace.printf("[RD] Error reading device '%s': %s\n", devName, e.getMessage());
+			return null;
+		}
+		if (readCount < num) {
+			buffer = Arrays.copyOf(buffer, readCount);
+		}
+		if (metrics != null)
+			metrics.deviceRead(readCount);
+		if (event.shouldCommit()) {
+			event.device = devName;
+			event.operation = "read";
+			event.bytes = readCount;
+			event.commit();
 		}
-
 		return buffer;
 	}
 
@@ -227,7 +403,24 @@ public class ResourceManager {
 	 * @param num     보내는 글자의 개수
 	 */
 	public void writeDevice(String devName, char[] data, int num) {
-
+		SimEvents.DeviceOperation event = new SimEvents.DeviceOperation();
+		event.begin();
+		try {
+			for (int i = 0; i < num; i++) {
+				deviceManager.write(devName, data[i] & 0xFF);
+			}
+			if (metrics != null)
+				metrics.deviceWritten(num);
+			if (event.shouldCommit()) {
+				event.device = devName;
+				event.operation = "write";
+				event.bytes = num;
+				event.commit();
+			}
+		} catch (java.io.IOException e) {
+			if (Trace.DEVICE >= Trace.ERROR)
+				Trace.printf("[WD] Error writing device '%s': %s\n", devName, e.getMessage());
+		}
 	}
 
 	/**
@@ -253,8 +446,117 @@ public class ResourceManager {
 	 * @param num    저장하는 데이터의 개수
 	 */
 	public void setMemory(int locate, char[] data, int num) {
+		setMemory(locate, data, 0, num);
+	}
+
+	/**
+	 * data의 offset 위치부터 num개의 데이터를 메모리의 특정 위치에 저장한다.
+	 *
+	 * @param locate 접근 위치 인덱스
+	 * @param data   저장하려는 데이터
+	 * @param offset data 안에서의 시작 위치
+	 * @param num    저장하는 데이터의 개수
+	 */
+	public void setMemory(int locate, char[] data, int offset, int num) {
+		System.arraycopy(data, offset, memory, locate, num);
+		markDirty(locate, num);
+		if (heatmap != null)
+			heatmap.write(locate, num);
+	}
+
+	/**
+	 * 메모리의 특정 위치에 1바이트를 저장한다.
+	 *
+	 * @param locate 접근 위치 인덱스
+	 * @param value  저장하는 값 (하위 8비트만 사용)
+	 */
+	public void setMemoryByte(int locate, int value) {
+		memory[locate] = (char) (value & 0xFF);
+		markDirty(locate, 1);
+		if (heatmap != null)
+			heatmap.write(locate, 1);
+	}
+
+	/**
+	 * 명령어 실행 중에 메모리의 1바이트를 읽는다. heatmap이 켜져 있으면 읽기로 센다.
+	 *
+	 * @param locate 접근 위치 인덱스
+	 * @return 읽은 값 (0 ~ 255)
+	 */
+	public int readMemoryByte(int locate) {
+		if (heatmap != null)
+			heatmap.read(locate, 1);
+		return memory[locate] & 0xFF;
+	}
+
+	/**
+	 * 명령어 실행 중에 메모리의 num바이트(최대 4)를 big-endian 정수로 읽는다. heatmap이 켜져 있으면 읽기로 센다.
+	 *
+	 * @param locate 접근 위치 인덱스
+	 * @param num    바이트 수 (word는 3)
+	 * @return 읽은 값
+	 */
+	public int readMemory(int locate, int num) {
+		if (heatmap != null)
+			heatmap.read(locate, num);
+		int value = 0;
 		for (int i = 0; i < num; i++) {
-			memory[locate + i] = data[i];
+			value = (value << 8) | (memory[locate + i] & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * 메모리의 특정 위치에 3바이트(1 word)를 big-endian으로 저장한다.
+	 *
+	 * @param locate 접근 위치 인덱스
+	 * @param value  저장하는 값 (하위 24비트만 사용)
+	 */
+	public void setMemoryWord(int locate, int value) {
+		memory[locate] = (char) ((value >> 16) & 0xFF);
+		memory[locate + 1] = (char) ((value >> 8) & 0xFF);
+		memory[locate + 2] = (char) (value & 0xFF);
+		markDirty(locate, 3);
+		if (heatmap != null)
+			heatmap.write(locate, 3);
+	}
+
+	/**
+	 * 지정한 메모리 구간을 포함하는 line들을 변경됨으로 표시한다. 메모리에 값을 쓰는 모든 경로는 이 함수를 거쳐야 한다.
+	 *
+	 * @param locate 시작 위치
+	 * @param num    바이트 수
+	 */
+	public void markDirty(int locate, int num) {
+		if (num <= 0)
+			return;
+		int first = locate >> MEMORY_LINE_SHIFT;
+		int last = (locate + num - 1) >> MEMORY_LINE_SHIFT;
+		for (int line = first; line <= last; line++) {
+			dirtyLines[line >> 6] |= 1L << line;
+			dirtyPages |= 1L << (line >> 6);
+		}
+	}
+
+	/**
+	 * 마지막 호출 이후 변경된 line 번호들을 오름차순으로 전달하고 변경 기록을 지운다. 변경되지 않은 page는 건너뛰므로 비용은
+	 * 변경된 line 수에 비례한다.
+	 *
+	 * @param consumer 변경된 line 번호를 받을 함수
+	 */
+	public void drainDirtyLines(IntConsumer consumer) {
+		long pages = dirtyPages;
+		dirtyPages = 0;
+		while (pages != 0) {
+			int page = Long.numberOfTrailingZeros(pages);
+			pages &= pages - 1;
+			long bits = dirtyLines[page];
+			dirtyLines[page] = 0;
+			while (bits != 0) {
+				int bit = Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				consumer.accept((page << 6) | bit);
+			}
 		}
 	}
 
@@ -299,6 +601,86 @@ public class ResourceManager {
 		return 0;
 	}
 
+	/**
+	 * debugInstructionList 끝에 명령어를 추가하고 주소 색인에 등록한다.
+	 */
+	public void addInstruction(InstructionEntry entry) {
+		entry.cycles = timingModel.cost(memory, entry);
+		debugInstructionList.add(entry);
+		if (entry.address >= 0 && entry.address < instructionIndex.length)
+			instructionIndex[entry.address] = debugInstructionList.size();
+	}
+
+	/**
+	 * 명령어 cost table을 바꾼다. 이미 만든 명령어 목록의 cost도 다시 계산한다.
+	 *
+	 * @param model 새 cost table
+	 */
+	public void setTimingModel(TimingModel model) {
+		timingModel = model;
+		for (InstructionEntry entry : debugInstructionList) {
+			entry.cycles = model.cost(memory, entry);
+		}
+	}
+
+	public TimingModel getTimingModel() {
+		return timingModel;
+	}
+
+	/**
+	 * @return load 이후 실행한 명령어들의 cycle 합
+	 */
+	public long getCycles() {
+		return cycles;
+	}
+
+	/**
+	 * @return load 이후 실행한 명령어 수
+	 */
+	public long getInstructionCount() {
+		return instructionCount;
+	}
+
+	/**
+	 * cycle counter와 명령어 수를 0으로 되돌린다.
+	 */
+	public void resetCounters() {
+		cycles = 0;
+		instructionCount = 0;
+	}
+
+	/**
+	 * debugInstructionList와 instruction 목록 화면, 주소 색인을 모두 비운다.
+	 */
+	public void clearInstructions() {
+		for (InstructionEntry entry : debugInstructionList) {
+			if (entry.address >= 0 && entry.address < instructionIndex.length)
+				instructionIndex[entry.address] = 0;
+		}
+		debugInstructionList.clear();
+		if (instructionListModel != null)
+			instructionListModel.clear();
+	}
+
+	/**
+	 * @param address 명령어 주소 (보통 PC)
+	 * @return address에서 시작하는 명령어의 debugInstructionList index. 없으면 -1
+	 */
+	public int indexOfInstruction(int address) {
+		if (address < 0 || address >= instructionIndex.length)
+			return -1;
+		return instructionIndex[address] - 1;
+	}
+
+	/**
+	 * @param address 명령어 주소 (보통 PC)
+	 * @return address에서 시작하는 명령어. 없으면 null
+	 */
+	public InstructionEntry instructionAt(int address) {
+		int index = indexOfInstruction(address);
+		return index < 0 ? null : debugInstructionList.get(index);
+	}
+
 	/**
 	 * 주어진 opcode 값에 해당하는 mnemonic 문자열을 반환한다.
 	 *
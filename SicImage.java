@@ -0,0 +1,319 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * link와 relocation이 끝난 load 결과를 그대로 저장하는 binary 실행 파일 형식. 같은 프로그램을 반복 실행할 때
+ * H/T/M/E 텍스트를 매번 해석하지 않고, 파일을 memory-map한 뒤 segment를 메모리에 바로 복사한다.
+ * <p>
+ * 파일 구조 (big-endian) :
+ * <pre>
+ * header  : magic "SICX"(4) version(2) flags(2) entry(4) programStart(4) programLength(4) programName(8)
+ *           segmentCount(4) symbolCount(4) codeCount(4) payloadLength(4) payloadCrc32(4)
+ * payload : segment  = address(4) length(4) bytes(length)
+ *           symbol   = name(6, 공백 채움) address(4)
+ *           code     = address(4) length(1)
+ * </pre>
+ * segment는 메모리에서 초기값(0xFF)이 아닌 구간들이다. 메모리는 0xFF로 초기화된 뒤 segment만 복사되므로 원래 load 결과와
+ * 같은 메모리 상태가 된다. code는 instruction 목록(주소와 바이트 수)이다.
+ */
+public class SicImage {
+	public static final int MAGIC = 0x53494358; // "SICX"
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 48;
+	private static final int NAME_LENGTH = 8;
+	private static final int SYMBOL_NAME_LENGTH = 6;
+	// 이 길이보다 짧은 0xFF 구간은 segment를 나누지 않고 포함시킨다
+	private static final int MIN_GAP = 16;
+
+	String programName = "";
+	int programStartAddr;
+	int programLength;
+	int entryPoint;
+	final ArrayList<int[]> segments = new ArrayList<>(); // {address, length}
+	// segment 영역 (address, length, bytes의 반복). capture하면 heap buffer, map하면 파일 mapping의 일부이다.
+	ByteBuffer segmentData;
+	final ArrayList<String> symbolNames = new ArrayList<>();
+	final ArrayList<Integer> symbolAddresses = new ArrayList<>();
+	int[] codeAddresses = new int[0];
+	byte[] codeLengths = new byte[0];
+
+	/**
+	 * 현재 ResourceManager에 load된 결과로부터 image를 만든다. segment 내용은 복사해 두므로 이후 메모리가 바뀌어도
+	 * image는 그대로 남는다.
+	 *
+	 * @param rMgr load가 끝난 ResourceManager
+	 * @return 만들어진 image
+	 */
+	public static SicImage capture(ResourceManager rMgr) {
+		SicImage image = new SicImage();
+		image.programName = rMgr.programName == null ? "" : rMgr.programName;
+		image.programStartAddr = rMgr.programStartAddr;
+		image.programLength = rMgr.programLength;
+		image.entryPoint = rMgr.register[ResourceManager.REG_PC];
+
+		char[] mem = rMgr.memory;
+		int addr = 0;
+		while (addr < mem.length) {
+			while (addr < mem.length && mem[addr] == 0xFF)
+				addr++;
+			if (addr == mem.length)
+				break;
+			int start = addr;
+			int end = addr;
+			// 짧은 0xFF 구간은 건너뛰며 segment 끝을 찾는다
+			while (addr < mem.length) {
+				if (mem[addr] != 0xFF) {
+					end = ++addr;
+				} else if (addr - end < MIN_GAP) {
+					addr++;
+				} else {
+					break;
+				}
+			}
+			image.segments.add(new int[] { start, end - start });
+		}
+		int segmentBytes = 0;
+		for (int[] segment : image.segments) {
+			segmentBytes += 8 + segment[1];
+		}
+		image.segmentData = ByteBuffer.allocate(segmentBytes);
+		SimEvents.allocation("SicImage segments", segmentBytes);
+		for (int[] segment : image.segments) {
+			image.segmentData.putInt(segment[0]).putInt(segment[1]);
+			for (int i = 0; i < segment[1]; i++) {
+				image.segmentData.put((byte) mem[segment[0] + i]);
+			}
+		}
+		image.segmentData.flip();
+
+		SymbolTable symtab = rMgr.symtabList;
+		for (int i = 0; symtab != null && i < symtab.size(); i++) {
+			image.symbolNames.add(symtab.getSymbol(i));
+			image.symbolAddresses.add(symtab.getAddress(i));
+		}
+
+		int count = rMgr.debugInstructionList.size();
+		image.codeAddresses = new int[count];
+		image.codeLengths = new byte[count];
+		for (int i = 0; i < count; i++) {
+			ResourceManager.InstructionEntry entry = rMgr.debugInstructionList.get(i);
+			image.codeAddresses[i] = entry.address;
+			image.codeLengths[i] = (byte) (entry.hexCode.length() / 2);
+		}
+		return image;
+	}
+
+	/**
+	 * image를 파일로 저장한다.
+	 *
+	 * @param file 저장할 파일
+	 */
+	public void write(Path file) throws IOException {
+		int segmentBytes = segmentData.limit();
+		int payloadLength = segmentBytes + symbolNames.size() * (SYMBOL_NAME_LENGTH + 4) + codeAddresses.length * 5;
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+
+		buffer.position(HEADER_SIZE);
+		buffer.put(segmentData.duplicate().position(0));
+		for (int i = 0; i < symbolNames.size(); i++) {
+			buffer.put(paddedName(symbolNames.get(i), SYMBOL_NAME_LENGTH)).putInt(symbolAddresses.get(i));
+		}
+		for (int i = 0; i < codeAddresses.length; i++) {
+			buffer.putInt(codeAddresses[i]).put(codeLengths[i]);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), HEADER_SIZE, payloadLength);
+
+		buffer.position(0);
+		buffer.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0);
+		buffer.putInt(entryPoint).putInt(programStartAddr).putInt(programLength);
+		buffer.put(paddedName(programName, NAME_LENGTH));
+		buffer.putInt(segments.size()).putInt(symbolNames.size()).putInt(codeAddresses.length);
+		buffer.putInt(payloadLength).putInt((int) crc.getValue());
+		buffer.position(0);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * image 파일을 memory-map하여 읽는다. header와 checksum을 확인하며, segment 데이터는 mapping에 그대로 둔다.
+	 *
+	 * @param file image 파일
+	 * @return 읽어들인 image
+	 */
+	public static SicImage map(Path file) throws IOException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException("Not a SIC image: " + file);
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		return parse(mapped);
+	}
+
+	/**
+	 * 메모리 또는 파일에 있는 image 내용을 해석한다.
+	 *
+	 * @param buffer position 0부터 image가 들어있는 buffer
+	 * @return 읽어들인 image
+	 */
+	static SicImage parse(ByteBuffer buffer) throws IOException {
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a SIC image");
+		if (buffer.getShort(4) != VERSION)
+			throw new IOException("Unsupported SIC image version " + buffer.getShort(4));
+
+		SicImage image = new SicImage();
+		buffer.position(8);
+		image.entryPoint = buffer.getInt();
+		image.programStartAddr = buffer.getInt();
+		image.programLength = buffer.getInt();
+		byte[] name = new byte[NAME_LENGTH];
+		buffer.get(name);
+		image.programName = new String(name, StandardCharsets.US_ASCII).trim();
+		int segmentCount = buffer.getInt();
+		int symbolCount = buffer.getInt();
+		int codeCount = buffer.getInt();
+		int payloadLength = buffer.getInt();
+		int checksum = buffer.getInt();
+		if (HEADER_SIZE + (long) payloadLength != buffer.limit())
+			throw new IOException("Truncated SIC image");
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice(HEADER_SIZE, payloadLength));
+		if ((int) crc.getValue() != checksum)
+			throw new IOException("SIC image checksum mismatch");
+
+		int pos = HEADER_SIZE;
+		for (int i = 0; i < segmentCount; i++) {
+			int length = buffer.getInt(pos + 4);
+			image.segments.add(new int[] { buffer.getInt(pos), length });
+			pos += 8 + length;
+		}
+		image.segmentData = buffer.slice(HEADER_SIZE, pos - HEADER_SIZE);
+		byte[] symbolName = new byte[SYMBOL_NAME_LENGTH];
+		for (int i = 0; i < symbolCount; i++) {
+			buffer.get(pos, symbolName);
+			image.symbolNames.add(new String(symbolName, StandardCharsets.US_ASCII).trim());
+			image.symbolAddresses.add(buffer.getInt(pos + SYMBOL_NAME_LENGTH));
+			pos += SYMBOL_NAME_LENGTH + 4;
+		}
+		image.codeAddresses = new int[codeCount];
+		image.codeLengths = new byte[codeCount];
+		for (int i = 0; i < codeCount; i++) {
+			image.codeAddresses[i] = buffer.getInt(pos);
+			image.codeLengths[i] = buffer.get(pos + 4);
+			pos += 5;
+		}
+		return image;
+	}
+
+	/**
+	 * image 내용을 ResourceManager에 적재한다. 메모리를 초기화한 뒤 segment를 복사하고, symbol table과
+	 * instruction 목록을 다시 만든다.
+	 *
+	 * @param loader 적재에 사용할 loader (instruction 목록 생성에 사용)
+	 */
+	public void restore(SicLoader loader) {
+		ResourceManager rMgr = loader.rMgr;
+		rMgr.initializeResource();
+		char[] chunk = new char[0];
+		byte[] raw = new byte[0];
+		int pos = 0;
+		for (int[] segment : segments) {
+			int length = segment[1];
+			if (raw.length < length) {
+				raw = new byte[length];
+				chunk = new char[length];
+			}
+			segmentData.get(pos + 8, raw, 0, length);
+			for (int i = 0; i < length; i++) {
+				chunk[i] = (char) (raw[i] & 0xFF);
+			}
+			rMgr.setMemory(segment[0], chunk, length);
+			pos += 8 + length;
+		}
+
+		rMgr.symtabList = new SymbolTable();
+		for (int i = 0; i < symbolNames.size(); i++) {
+			rMgr.symtabList.putSymbol(symbolNames.get(i), symbolAddresses.get(i));
+		}
+		rMgr.programName = programName;
+		rMgr.programStartAddr = programStartAddr;
+		rMgr.firstInstructionAddr = programStartAddr;
+		rMgr.programLength = programLength;
+		// 첫 symbol은 첫 control section의 이름이므로 그 주소가 load 시작 주소이다
+		rMgr.memoryStartAddr = symbolAddresses.isEmpty() ? 0 : symbolAddresses.get(0);
+		rMgr.symbolIndex = SymbolIndex.build(rMgr.symtabList, rMgr.memoryStartAddr + programLength);
+		rMgr.setRegister(ResourceManager.REG_PC, entryPoint);
+
+		rMgr.clearInstructions();
+		for (int i = 0; i < codeAddresses.length; i++) {
+			loader.addInstruction(codeAddresses[i], codeLengths[i]);
+		}
+		// 명령어 목록은 저장할 때 Disassembler가 찾은 그대로이므로 block 구분만 다시 한다
+		rMgr.controlFlowGraph = ControlFlowGraph.build(rMgr.memory, codeAddresses, codeLengths, codeAddresses.length,
+				new int[] { entryPoint });
+		if (rMgr.metrics != null)
+			rMgr.metrics.blocksCompiled(rMgr.controlFlowGraph.getBlocks().size());
+	}
+
+	/**
+	 * 파일이 SIC image인지 앞 4바이트로 확인한다.
+	 */
+	public static boolean isImage(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && channel.read(magic) != -1)
+				;
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static byte[] paddedName(String name, int length) {
+		byte[] bytes = new byte[length];
+		java.util.Arrays.fill(bytes, (byte) ' ');
+		byte[] src = name.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(src, 0, bytes, 0, Math.min(src.length, length));
+		return bytes;
+	}
+
+	/**
+	 * object program을 읽어 link/relocation한 결과를 image 파일로 저장한다.
+	 * <p>
+	 * 사용법 : java SP25_simulator.SicImage &lt;object file&gt; &lt;image file&gt;
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: SicImage <object file> <image file>");
+			System.exit(2);
+		}
+		ResourceManager rMgr = new ResourceManager();
+		SicLoader loader = new SicLoader(rMgr);
+		File objectCode = new File(args[0]);
+		loader.load(objectCode);
+		loader.modification(objectCode);
+		SicImage image = capture(rMgr);
+		image.write(Path.of(args[1]));
+		System.out.printf("Wrote %s: %d segments, %d symbols, %d instructions%n", args[1], image.segments.size(),
+				image.symbolNames.size(), image.codeAddresses.length);
+	}
+}
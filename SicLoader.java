@@ -1,8 +1,6 @@
 package SP25_simulator;
 
 import java.io.File;
-import java.util.Set;
-import java.util.HashSet;
 
 /**
  * SicLoader는 프로그램을 해석해서 메모리에 올리는 역할을 수행한다. 이 과정에서 linker의 역할 또한 수행한다.
@@ -12,6 +10,10 @@ import java.util.HashSet;
  */
 public class SicLoader {
 	ResourceManager rMgr;
+	// 첫 control section이 놓일 메모리 주소
+	int progAddr = 0;
+	// 이전 load 결과를 재사용하기 위한 cache. null이면 사용하지 않는다.
+	LoadCache loadCache;
 
 	public SicLoader(ResourceManager resourceManager) {
 		// 필요하다면 초기화
@@ -27,6 +29,106 @@ public class SicLoader {
 		this.rMgr = resourceManager;
 	}
 
+	/**
+	 * 파일 종류에 맞게 프로그램을 적재한다. SicImage 형식이면 loadImage()를, 아니면 load()와 modification()을
+	 * 차례로 수행한다.
+	 *
+	 * @param program object program 또는 image 파일
+	 */
+	public void loadProgram(File program) {
+		if (SicImage.isImage(program)) {
+			loadImage(program);
+			return;
+		}
+		loadProgram(java.util.List.of(program));
+	}
+
+	/**
+	 * 여러 object program을 하나로 link하여 적재한다. cache가 지정되어 있으면 파일 내용과 load 주소가 같은 이전 결과를
+	 * 재사용한다.
+	 *
+	 * @param programs link할 object program 파일들 (이 순서대로 메모리에 놓인다)
+	 */
+	public void loadProgram(java.util.List<File> programs) {
+		String key = null;
+		if (loadCache != null) {
+			try {
+				key = LoadCache.key(programs, progAddr);
+				SicImage cached = loadCache.get(key);
+				if (rMgr.metrics != null)
+					rMgr.metrics.cacheLookup(cached != null);
+				if (cached != null) {
+					SimEvents.LoaderPhase event = new SimEvents.LoaderPhase();
+					event.begin();
+					cached.restore(this);
+					if (event.shouldCommit()) {
+						event.phase = "cache";
+						event.program = rMgr.programName;
+						event.bytesLoaded = cached.segmentData.limit();
+						event.commit();
+					}
+					if (rMgr.visualSimulator != null) {
+						rMgr.visualSimulator.update();
+					}
+					return;
+				}
+			} catch (java.io.IOException e) {
+				// 파일을 읽지 못해 key를 만들 수 없으면 cache 없이 link한다 (link가 파일 오류를 진단 메시지로 남긴다)
+				if (Trace.LOADER >= Trace.ERROR)
+					Trace.printf("[CACHE] Cannot compute key, loading without cache: %s%n", e.getMessage());
+				if (rMgr.metrics != null)
+					rMgr.metrics.cacheLookup(false);
+			}
+		}
+		link(programs);
+		modification(null);
+		if (key != null && !sections.isEmpty())
+			loadCache.put(key, SicImage.capture(rMgr));
+	}
+
+	/**
+	 * 첫 control section이 놓일 주소(PROGADDR)를 지정한다.
+	 *
+	 * @param progAddr load 시작 주소
+	 */
+	public void setProgAddr(int progAddr) {
+		this.progAddr = progAddr;
+	}
+
+	/**
+	 * load 결과를 재사용할 cache를 지정한다.
+	 *
+	 * @param cache 사용할 cache. null이면 cache를 사용하지 않는다.
+	 */
+	public void setLoadCache(LoadCache cache) {
+		this.loadCache = cache;
+	}
+
+	/**
+	 * SicImage 파일을 memory-map하여 segment를 메모리에 바로 복사한다. relocation이 끝난 결과이므로 M 레코드 처리와
+	 * instruction 목록 탐색을 하지 않는다.
+	 *
+	 * @param image image 파일
+	 */
+	public void loadImage(File image) {
+		try {
+			SicImage.map(image.toPath()).restore(this);
+		} catch (java.io.IOException e) {
+			e.printStackTrace();
+		}
+		if (rMgr.visualSimulator != null) {
+			rMgr.visualSimulator.update();
+		}
+	}
+
+	// 이 크기보다 작은 파일은 section을 나누어 병렬로 해석하지 않는다
+	private static final int PARALLEL_THRESHOLD = 256 * 1024;
+
+	// 마지막 link 결과. 모든 section의 symbol이 정해진 뒤 modification()에서 M 레코드를 한꺼번에 적용한다.
+	java.util.List<ControlSection> sections = new java.util.ArrayList<>();
+	// 마지막 link에서 발견한 중복 정의, 미정의 symbol 등의 진단 메시지
+	final java.util.List<String> linkDiagnostics = new java.util.ArrayList<>();
+
 	/**
 	 * object code를 읽어서 load과정을 수행한다. load한 데이터는 resourceManager가 관리하는 메모리에 올라가도록
 	 * 한다. load과정에서 만들어진 symbol table 등 자료구조 역시 resourceManager에 전달한다.
@@ -34,327 +136,311 @@ public class SicLoader {
 	 * @param objectCode 읽어들인 파일
 	 */
 	public void load(File objectCode) {
+		link(java.util.List.of(objectCode));
+	}
+
+	/**
+	 * 여러 object program을 link하여 메모리에 적재한다. M 레코드는 modification()에서 적용한다.
+	 * <p>
+	 * 1) 각 파일을 control section 단위로 나누어 ControlSection으로 해석한다. 큰 입력은 section들을 병렬로 해석한다.
+	 * 2) progAddr부터 section을 차례로 배치하고 ESTAB(rMgr.symtabList)을 만든다. 중복 정의는 진단 메시지로 남긴다.
+	 * 각 section은 자신이 정의한 symbol만 담고 ESTAB을 parent로 가지는 지역 table(section.symtab)을 가진다.
+	 * 3) T 레코드 내용을 메모리에 복사한다. T/M 레코드가 메모리 밖을 가리키는 section이 있으면 아무것도 적재하지 않는다.
+	 *
+	 * @param objectFiles link할 파일들 (이 순서대로 메모리에 놓인다)
+	 */
+	public void link(java.util.List<File> objectFiles) {
+		SimEvents.LoaderPhase event = new SimEvents.LoaderPhase();
+		event.begin();
 		rMgr.initializeResource();
-		int sectionStartAddr = 0;
-		int currentAddr = 0; // Track the next available memory address for each new control section
-		java.util.List<String> refSymbols = new java.util.ArrayList<>();
-		try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader(objectCode))) {
-			String line;
-			// Add EOF/RSUB flags
-			boolean seenEOF = false;
-			boolean seenRSUB = false;
-			while ((line = reader.readLine()) != null) {
-				if (line.startsWith("H")) {
-					// Reset flags for new section
-					seenEOF = false;
-					seenRSUB = false;
-					if (line.length() < 19) {
-						System.out.println("[H] 레코드가 너무 짧습니다: " + line);
-						continue;
-					}
-					String progName = line.substring(1, 7).trim();
-					int startAddr = Integer.parseInt(line.substring(7, 13).trim(), 16);
-					int length = Integer.parseInt(line.substring(13, 19).trim(), 16);
-					System.out.printf("[H] Program: %s, Start Address: %06X, Length: %06X%n", progName, startAddr, length);
-					sectionStartAddr = currentAddr;
-					currentAddr += length;
-					System.out.printf("[H] Section loaded at physical address: %06X ~ %06X%n", sectionStartAddr, currentAddr - 1);
-					// Set starting address and initialize memory block (if needed)
-					// Placeholder: memory start, length — user can extend
-					// No built-in support in ResourceManager for this yet
-					if (rMgr.symtabList == null)
-						rMgr.symtabList = new SymbolTable();
-					rMgr.symtabList.putSymbol(progName, sectionStartAddr);
-					System.out.printf("[SYM] %s → %06X\n", progName, sectionStartAddr);
-					if (rMgr.programName == null || rMgr.programName.isEmpty()) {
-					    rMgr.programName = progName;
-						rMgr.programStartAddr = startAddr;
-						rMgr.firstInstructionAddr = startAddr;
-					}
-					rMgr.programLength += length;
-				} else if (line.startsWith("D")) {
-					if (line.length() < 14) {
-						System.out.println("[D] 레코드가 너무 짧습니다: " + line);
-						continue;
-					}
-					for (int i = 1; i + 12 <= line.length(); i += 12) {
-						String sym = line.substring(i, i + 6).trim();
-						int addr = Integer.parseInt(line.substring(i + 6, i + 12).trim(), 16);
-						if (rMgr.symtabList == null)
-							rMgr.symtabList = new SymbolTable();
-						rMgr.symtabList.putSymbol(sym, addr);
-						System.out.printf("[D] Symbol: %-6s → %06X%n", sym, addr);
-					}
-				} else if (line.startsWith("R")) {
-					refSymbols.clear(); // clear previous section's refs
-					System.out.print("[R] Reference symbols:");
-					for (int i = 1; i + 6 <= line.length(); i += 6) {
-						String ref = line.substring(i, i + 6).trim();
-						refSymbols.add(ref);
-						System.out.print(" " + ref);
-					}
-					System.out.println();
-				} else if (line.startsWith("T")) {
-					if (line.length() < 12) {
-						System.out.println("[T] 레코드가 너무 짧습니다: " + line);
-						continue;
-					}
-					int loc = Integer.parseInt(line.substring(1, 7).trim(), 16);
-					int length = Integer.parseInt(line.substring(7, 9).trim(), 16);
-					String objCodes = line.substring(9).trim();
+		rMgr.symtabList = new SymbolTable();
+		rMgr.programName = null;
+		rMgr.programLength = 0;
+		linkDiagnostics.clear();
 
-					for (int i = 0; i < objCodes.length();) {
-					    if (i + 2 > objCodes.length()) break;
+		// 1) 파일을 section 단위로 나누어 해석
+		java.util.List<java.nio.ByteBuffer> slices = new java.util.ArrayList<>();
+		java.util.List<String> sliceFiles = new java.util.ArrayList<>();
+		long totalBytes = 0;
+		for (File file : objectFiles) {
+			try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file.toPath())) {
+				java.nio.ByteBuffer buffer = channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				totalBytes += channel.size();
+				for (java.nio.ByteBuffer slice : splitSections(buffer)) {
+					slices.add(slice);
+					sliceFiles.add(file.getName());
+				}
+			} catch (java.io.IOException e) {
+				linkDiagnostics.add(String.format("%s: %s", file, e.getMessage()));
+			}
+		}
+		java.util.stream.IntStream indices = java.util.stream.IntStream.range(0, slices.size());
+		if (totalBytes >= PARALLEL_THRESHOLD)
+			indices = indices.parallel();
+		// 잘못된 레코드가 있는 section은 진단 메시지를 남기고 건너뛴다 (index마다 따로 기록하므로 병렬 해석에서도 안전)
+		String[] parseErrors = new String[slices.size()];
+		sections = indices.mapToObj(i -> {
+			try {
+				return ControlSection.parse(slices.get(i), sliceFiles.get(i));
+			} catch (NumberFormatException e) {
+				parseErrors[i] = String.format("%s: %s", sliceFiles.get(i), e.getMessage());
+				return null;
+			}
+		}).filter(java.util.Objects::nonNull).toList();
+		for (String error : parseErrors) {
+			if (error != null)
+				linkDiagnostics.add(error);
+		}
+
+		// 2) 주소 배치와 ESTAB 생성
+		int currentAddr = progAddr;
+		boolean entrySet = false; // E 레코드의 시작 주소는 처음 나온 것만 사용한다
+		for (ControlSection section : sections) {
+			section.loadAddr = currentAddr;
+			section.symtab = new SymbolTable(rMgr.symtabList);
+			currentAddr += section.length;
+			defineExternal(section.name, section.loadAddr, section);
+			for (int i = 0; i < section.defNames.size(); i++) {
+				defineExternal(section.defNames.get(i), section.loadAddr + section.defAddrs.get(i), section);
+			}
+			if (rMgr.programName == null || rMgr.programName.isEmpty()) {
+				rMgr.programName = section.name;
+				rMgr.programStartAddr = section.startAddr;
+				rMgr.firstInstructionAddr = section.startAddr;
+			}
+			rMgr.programLength += section.length;
+			if (section.entry >= 0 && !entrySet) {
+				rMgr.setRegister(ResourceManager.REG_PC, section.loadAddr + section.entry);
+				entrySet = true;
+			}
+			if (Trace.LOADER >= Trace.INFO)
+				Trace.printf("[H] Program: %s, Length: %06X, loaded at %06X%n", section.name, section.length,
+						section.loadAddr);
+		}
+		if (!entrySet)
+			rMgr.setRegister(ResourceManager.REG_PC, progAddr); // E 레코드에 시작 주소가 없으면 첫 section부터 실행
+		for (ControlSection section : sections) {
+			for (String ref : section.refNames) {
+				if (rMgr.symtabList.search(ref) == -1)
+					linkDiagnostics.add(String.format("%s: undefined external symbol '%s' referenced by %s",
+							section.fileName, ref, section.name));
+			}
+		}
 
-					    int opcodeRaw = Integer.parseInt(objCodes.substring(i, i + 2), 16);
-					    boolean extended = false;
-					    if (i + 3 <= objCodes.length()) {
-					        extended = (Integer.parseInt(objCodes.substring(i + 2, i + 3), 16) & 0x1) == 1;
-					    }
-					    int opcode = opcodeRaw & 0xFC;  // Remove ni bits (last 2 bits)
-					    int format = getInstructionFormat(opcode, extended);
-					    System.out.printf("[T][DEBUG] @%06X: rawOpcode=%02X opcode=%02X format=%d extended=%b\n",
-					            sectionStartAddr + loc + (i / 2), opcodeRaw, opcode, format, extended);
-					    // Warn if opcode is 00, which might indicate WORD/BYTE data, not an instruction
-					    if (opcode == 0x00) {
-					        System.out.printf("[T][WARN] opcode=00 at @%06X → 이건 명령어가 아니라 WORD나 BYTE일 수 있음\n", loc + (i / 2));
-					    }
-					    int byteLen = switch (format) {
-					        case 1 -> 1;
-					        case 2 -> 2;
-					        case 3 -> 3;
-					        case 4 -> 4;
-					        default -> 3;
-					    };
-					    int totalHexChars = byteLen * 2;
+		boolean fits = true;
+		for (ControlSection section : sections) {
+			fits &= checkBounds(section);
+		}
+		if (!fits) {
+			// 일부만 적재하지 않도록 배치한 결과를 모두 버린다
+			linkDiagnostics.add("ERROR: load aborted, records outside memory");
+			rMgr.initializeResource();
+			rMgr.symtabList = new SymbolTable();
+			rMgr.programName = null;
+			rMgr.programLength = 0;
+			sections = java.util.List.of();
+		}
 
-					    if (i + totalHexChars > objCodes.length()) {
-					        System.out.printf("[T][WARN] Incomplete instruction at offset %d: expected %d chars, only %d remaining. Skipping.\n", i, totalHexChars, objCodes.length() - i);
-					        //break;
-					    }
+		// 3) T 레코드 적재
+		for (ControlSection section : sections) {
+			for (int i = 0; i < section.textCount; i++) {
+				rMgr.setMemory(section.loadAddr + section.textAddrs[i], section.textData, section.textOffsets[i],
+						section.textLengths[i]);
+			}
+		}
 
-					    for (int j = 0; j < totalHexChars; j += 2) {
-					        if (i + j + 2 > objCodes.length()) break;
-					        char[] byteData = new char[1];
-					        byteData[0] = (char) Integer.parseInt(objCodes.substring(i + j, i + j + 2), 16);
-					        int addr = sectionStartAddr + loc + (i / 2) + (j / 2);
-					        rMgr.setMemory(addr, byteData, 1);
-					        System.out.printf("[T] Memory[%06X] ← %02X%n", addr, (int) byteData[0]);
-					    }
-					    i += totalHexChars;
-					}
-				} else if (line.startsWith("M")) {
-					// Do nothing here; modification records should be processed after symbol table creation.
-					System.out.println("[M] 레코드 읽음: " + line);
-				} else if (line.startsWith("E")) {
-					if (line.trim().length() == 1) {
-						System.out.println("[E] 실행 시작 주소 생략됨 (기본값 사용 안함)");
-						continue;
-					}
-					int execAddr = Integer.parseInt(line.substring(1).trim(), 16);
-					rMgr.setRegister(8, execAddr);
-					System.out.printf("[E] Start execution at address: %06X%n", execAddr);
+		rMgr.memoryStartAddr = progAddr;
+		rMgr.symbolIndex = SymbolIndex.build(rMgr.symtabList, progAddr + rMgr.programLength);
+		if (Trace.LINKER >= Trace.ERROR) {
+			for (String diagnostic : linkDiagnostics) {
+				Trace.println("[LINK] " + diagnostic);
+			}
+		}
+		if (event.shouldCommit()) {
+			event.phase = "link";
+			event.program = rMgr.programName;
+			event.sections = sections.size();
+			event.fileBytes = totalBytes;
+			for (ControlSection section : sections) {
+				event.textRecords += section.textCount;
+				event.modificationRecords += section.modCount;
+				for (int i = 0; i < section.textCount; i++) {
+					event.bytesLoaded += section.textLengths[i];
 				}
 			}
-		} catch (java.io.IOException e) {
-			e.printStackTrace();
+			event.commit();
 		}
-		rMgr.memoryStartAddr = 0;
 		if (rMgr.visualSimulator != null) {
 		    rMgr.visualSimulator.update();
 		}
 		// 심볼 테이블 출력 확인용
-		System.out.println("[Symbol Table]");
-		for (int i = 0; rMgr.symtabList != null && i < rMgr.symtabList.symbolList.size(); i++) {
-			String sym = rMgr.symtabList.symbolList.get(i);
-			int addr = rMgr.symtabList.addressList.get(i);
-			System.out.printf("[SYM] %s → %06X\n", sym, addr);
+		if (Trace.LINKER >= Trace.DEBUG) {
+			Trace.println("[Symbol Table]");
+			for (int i = 0; i < rMgr.symtabList.size(); i++) {
+				Trace.printf("[SYM] %s -> %06X\n", rMgr.symtabList.getSymbol(i), rMgr.symtabList.getAddress(i));
+			}
 		}
 	}
 
-	private int getInstructionFormat(int opcode, boolean extended) {
-		// Format 1 opcodes
-		switch (opcode) {
-			case 0xC4: // FIX
-			case 0xC0: // FLOAT
-			case 0xF4: // HIO
-			case 0xC8: // NORM
-			case 0xF0: // SIO
-			case 0xF8: // TIO
-				return 1;
+	// section의 지역 table과 ESTAB에 symbol을 추가한다. ESTAB에 이미 있으면 진단 메시지를 남기고 먼저 정의된 값을 유지한다.
+	private void defineExternal(String symbol, int address, ControlSection section) {
+		section.symtab.putSymbol(symbol, address);
+		int existing = rMgr.symtabList.search(symbol);
+		if (existing != -1) {
+			linkDiagnostics.add(String.format("%s: duplicate external symbol '%s' in %s (already %06X)",
+					section.fileName, symbol, section.name, existing));
+			return;
 		}
+		rMgr.symtabList.putSymbol(symbol, address);
+	}
 
-		// Format 2 opcodes
-		switch (opcode) {
-			case 0x90: // ADDR
-			case 0x9C: // DIVR
-			case 0xA0: // COMPR
-			case 0xA4: // SHIFTL
-			case 0xA8: // SHIFTR
-			case 0xAC: // RMO
-			case 0xB0: // SVC
-			case 0xB4: // CLEAR
-			case 0xB8: // TIXR
-				return 2;
+	// section의 T/M 레코드가 load 주소에 놓였을 때 메모리 안에 들어가는지 확인한다. 벗어나면 진단 메시지를 남긴다.
+	private boolean checkBounds(ControlSection section) {
+		int size = rMgr.memory.length;
+		boolean fits = true;
+		for (int i = 0; i < section.textCount; i++) {
+			long end = (long) section.loadAddr + section.textAddrs[i] + section.textLengths[i];
+			if (end > size) {
+				linkDiagnostics.add(String.format("%s: T record at %06X in %s ends at %06X, beyond memory size %06X",
+						section.fileName, section.textAddrs[i], section.name, end, size));
+				fits = false;
+			}
+		}
+		for (int m = 0; m < section.modCount; m++) {
+			long end = (long) section.loadAddr + section.modAddrs[m] + (section.modHalfBytes[m] + 1) / 2;
+			if (end > size) {
+				linkDiagnostics.add(String.format("%s: M record at %06X in %s ends at %06X, beyond memory size %06X",
+						section.fileName, section.modAddrs[m], section.name, end, size));
+				fits = false;
+			}
 		}
+		return fits;
+	}
 
-		// Format 3/4 opcodes (extended determines final format)
-		if (extended) return 4;
-		return 3;
+	// 줄의 첫 글자가 'H'인 위치마다 buffer를 나눈다. 첫 H 레코드 앞의 내용은 무시한다.
+	private static java.util.List<java.nio.ByteBuffer> splitSections(java.nio.ByteBuffer buffer) {
+		java.util.List<java.nio.ByteBuffer> slices = new java.util.ArrayList<>();
+		int limit = buffer.limit();
+		int start = -1;
+		boolean lineStart = true;
+		for (int i = 0; i < limit; i++) {
+			byte b = buffer.get(i);
+			if (lineStart && b == 'H') {
+				if (start >= 0)
+					slices.add(buffer.slice(start, i - start));
+				start = i;
+			}
+			lineStart = b == '\n';
+		}
+		if (start >= 0)
+			slices.add(buffer.slice(start, limit - start));
+		return slices;
 	}
+
 	/**
-	 * 심볼 테이블 생성 이후에만 modification(M) 레코드를 처리한다.
+	 * 심볼 테이블 생성 이후에만 modification(M) 레코드를 처리한다. M 레코드는 link()에서 이미 해석해 두었으므로 파일을
+	 * 다시 읽지 않고, 모든 section의 M 레코드를 한 번에 적용한다.
+	 *
+	 * @param objectCode 사용하지 않는다 (이전 호출 방식과의 호환을 위해 남겨둠)
 	 */
 	public void modification(File objectCode) {
-		if (rMgr.debugInstructionList == null)
-		    rMgr.debugInstructionList = new java.util.ArrayList<>();
-		try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader(objectCode))) {
-			String line;
-			int sectionStartAddr = 0;
-			StringBuilder sb = new StringBuilder();
-			while ((line = reader.readLine()) != null) {
-				if (line.startsWith("H")) {
-					String name = line.substring(1, 7).trim();
-					sectionStartAddr = rMgr.symtabList.search(name);
-				} else if (line.startsWith("M")) {
-					int addr = Integer.parseInt(line.substring(1, 7).trim(), 16);
-					int len = Integer.parseInt(line.substring(7, 9).trim(), 16); // in half-bytes
-					char sign = line.charAt(9);
-					String symbol = line.substring(10).trim();
-
-					int modAddr = sectionStartAddr + addr;
-					int modLen = (len + 1) / 2;  // in bytes
-
-					// read original value
-					byte[] bbuf = new byte[modLen];
-					for (int i = 0; i < modLen; i++) {
-						bbuf[i] = (byte) rMgr.memory[modAddr + i];
+		SimEvents.LoaderPhase event = new SimEvents.LoaderPhase();
+		event.begin();
+		int relocations = 0;
+		rMgr.clearInstructions();
+		try {
+			char[] memory = rMgr.memory;
+			for (ControlSection section : sections) {
+				for (int m = 0; m < section.modCount; m++) {
+					String symbol = section.modSymbols[m];
+					int symbolValue = section.symtab.search(symbol); // 지역 table, 없으면 ESTAB
+					if (symbolValue == -1) {
+						if (Trace.LINKER >= Trace.ERROR)
+							Trace.printf("[M] ERROR: Undefined symbol '%s' in %s%n", symbol, section.name);
+						continue;
 					}
+					int address = section.loadAddr + section.modAddrs[m];
+					int halfBytes = section.modHalfBytes[m];
+					int modLen = (halfBytes + 1) / 2;  // in bytes
 					int original = 0;
 					for (int i = 0; i < modLen; i++) {
-						original = (original << 8) | (bbuf[i] & 0xFF);
+						original = (original << 8) | (memory[address + i] & 0xFF);
 					}
-
-					System.out.print("[M] bbuf (raw bytes): ");
-					for (int i = 0; i < bbuf.length; i++) {
-						System.out.printf("%02X ", bbuf[i]);
-					}
-					System.out.println();
-					System.out.printf("[M] original int from bbuf: %08X\n", original);
-
-					int symbolValue = rMgr.symtabList.search(symbol);
-					if (symbolValue == -1) {
-						System.err.printf("[M] ERROR: Undefined symbol '%s'%n", symbol);
-						continue;
-					}
-
-					// Debug output for original value and symbol address
-					System.out.printf("[M] original value @%06X (%d bytes): %08X\n", modAddr, modLen, original);
-					System.out.printf("[M] symbol '%s' address: %06X\n", symbol, symbolValue);
-
-					int result = (sign == '+') ? original + symbolValue : original - symbolValue;
-
-					// write result, and record modified instructions
-					sb.setLength(0); // reset
-					int modVal = result;
+					// half-byte 단위 길이 밖의 비트(format 4의 xbpe 등)는 그대로 둔다
+					int mask = halfBytes >= 8 ? -1 : (1 << (halfBytes * 4)) - 1;
+					int result = section.modAdd[m] ? original + symbolValue : original - symbolValue;
+					result = (original & ~mask) | (result & mask);
 					for (int i = 0; i < modLen; i++) {
-						int byteVal = (modVal >> ((modLen - 1 - i) * 8)) & 0xFF;
-						char[] oneByte = new char[1];
-						oneByte[0] = (char) byteVal;
-						rMgr.setMemory(modAddr + i, oneByte, 1);
-						sb.append(String.format("%02X ", byteVal));
-						System.out.printf("[M] Memory[%06X] ← %02X\n", modAddr + i, byteVal);
+						memory[address + i] = (char) ((result >> ((modLen - 1 - i) * 8)) & 0xFF);
 					}
-					// Debug print for 3-byte triplet after modification
-					System.out.printf("[MOD][DEBUG] Memory[%06X] ← %02X %02X %02X (after modification)%n",
-						modAddr,
-						(int) rMgr.memory[modAddr] & 0xFF,
-						(int) rMgr.memory[modAddr + 1] & 0xFF,
-						(int) rMgr.memory[modAddr + 2] & 0xFF);
-
-					// --- Insert instruction format logic and memory byte extraction, similar to load() ---
-					int opcodeRaw = rMgr.memory[modAddr] & 0xFF;
-					boolean extended = false;
-					// Heuristic: if length is 4 bytes, treat as format 4 (for extended flag)
-					int opcode = opcodeRaw & 0xFC;
-					int format = 3;
-					if (modLen == 4) extended = true;
-					format = getInstructionFormat(opcode, extended);
-					int byteLen = switch (format) {
-						case 1 -> 1;
-						case 2 -> 2;
-						case 3 -> 3;
-						case 4 -> 4;
-						default -> 3;
-					};
-
-					StringBuilder sbInstr = new StringBuilder();
+					rMgr.markDirty(address, modLen);
+					relocations++;
 				}
 			}
-			// After all modification records have been applied, append all valid instructions to instructionListModel
-			if (rMgr.instructionListModel != null) {
-			    Set<Integer> seen = new HashSet<>();
-			    for (int i = 0; i < 0x1100;) {
-			        int byte1 = rMgr.memory[i] & 0xFF;
-			        if (byte1 == 0xFF || byte1 == 0xF1 || byte1 == 0x05 || seen.contains(i)) {
-			            i++;
-			            continue;
-			        }
-			        if (i + 2 < 0x1100 &&
-			            (rMgr.memory[i] & 0xFF) == 0x00 &&
-			            (rMgr.memory[i + 1] & 0xFF) == 0x10 &&
-			            (rMgr.memory[i + 2] & 0xFF) == 0x00) {
-			            i += 3;
-			            continue;
-			        }
-			        if (i + 2 < 0x1100 &&
-			            (rMgr.memory[i] & 0xFF) == 0x45 &&
-			            (rMgr.memory[i + 1] & 0xFF) == 0x4F &&
-			            (rMgr.memory[i + 2] & 0xFF) == 0x46) {
-			            i += 3;
-			            continue;
-			        }
-
-			        int strippedOpcode = byte1 & 0xFC;
-			        boolean extended = (i + 1 < 0x1100) && ((rMgr.memory[i + 1] & 0x10) != 0);
-			        int format = getInstructionFormat(strippedOpcode, extended);
-			        int length = switch (format) {
-			            case 1 -> 1;
-			            case 2 -> 2;
-			            case 3 -> 3;
-			            case 4 -> 4;
-			            default -> 3;
-			        };
-
-			        StringBuilder sb2 = new StringBuilder();
-			        for (int j = 0; j < length; j++) {
-			            int addr = i + j;
-			            if (addr >= 0x1100 || rMgr.memory[addr] == (char) 0xFF) break;
-			            sb2.append(String.format("%02X ", (int) rMgr.memory[addr] & 0xFF));
-			            seen.add(addr);
-			        }
-
-			        String mnemonic = rMgr.getMnemonic(strippedOpcode);
-			        String rawHex = sb2.toString().replace(" ", "");
-			        int nixbpe = 0;
-			        if (format == 3 || format == 4) {
-			            if (rawHex.length() >= 4) {
-			                int secondByte = Integer.parseInt(rawHex.substring(2, 4), 16);
-			                nixbpe = (secondByte >> 2) & 0x3F; // get 6 bits
-			            }
-			        }
-			        ResourceManager.InstructionEntry entry = new ResourceManager.InstructionEntry(i, rawHex, mnemonic, strippedOpcode, i, nixbpe);
-			        rMgr.debugInstructionList.add(entry);
-			        System.out.printf("[MOD][DEBUG] %04X : %s | %-6s (opcode=%02X)%n",
-			            i, entry.hexCode, entry.mnemonic, entry.opcode);
-			        String formatted = String.format("%04X : %s", i, sb2.toString().replace(" ", ""));
-			        rMgr.instructionListModel.addElement(formatted);
-			        i += length;
-			    }
-			}
+			buildInstructionList();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		if (event.shouldCommit()) {
+			event.phase = "modification";
+			event.program = rMgr.programName;
+			event.sections = sections.size();
+			for (ControlSection section : sections) {
+				event.modificationRecords += section.modCount;
+			}
+			event.relocations = relocations;
+			event.commit();
+		}
+	}
+
+	/**
+	 * 모든 modification 레코드를 적용한 뒤, 실행 시작 주소에서 도달할 수 있는 명령어만 Disassembler로 찾아
+	 * debugInstructionList와 instructionListModel에 추가한다. section 시작 주소와 D 레코드 symbol은 weak root로
+	 * 주어 코드로 해석될 때만 포함한다.
+	 */
+	private void buildInstructionList() {
+		int entry = rMgr.register[ResourceManager.REG_PC];
+		int[] weakRoots = new int[rMgr.symtabList.size()];
+		for (int i = 0; i < weakRoots.length; i++) {
+			weakRoots[i] = rMgr.symtabList.getAddress(i);
+		}
+		ControlFlowGraph cfg = Disassembler.disassemble(rMgr, new int[] { entry }, weakRoots);
+		rMgr.controlFlowGraph = cfg;
+		if (rMgr.metrics != null)
+			rMgr.metrics.blocksCompiled(cfg.getBlocks().size());
+		for (int i = 0; i < cfg.instructionCount(); i++) {
+			addInstruction(cfg.instructionAddress(i), cfg.instructionLength(i));
+		}
+		if (Trace.DECODE >= Trace.INFO)
+			Trace.printf("[DISASM] %d instructions in %d basic blocks%n", cfg.instructionCount(),
+					cfg.getBlocks().size());
+	}
+
+	/**
+	 * 메모리의 addr 위치에 있는 byteCount 바이트를 하나의 명령어로 보고 debugInstructionList와
+	 * instructionListModel에 추가한다.
+	 *
+	 * @param addr      명령어 주소
+	 * @param byteCount 명령어로 볼 바이트 수
+	 */
+	void addInstruction(int addr, int byteCount) {
+		StringBuilder rawHex = new StringBuilder(byteCount * 2);
+		for (int j = 0; j < byteCount; j++) {
+			int b = rMgr.memory[addr + j] & 0xFF;
+			rawHex.append(Character.toUpperCase(Character.forDigit(b >> 4, 16)))
+					.append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+		}
+		int strippedOpcode = rMgr.memory[addr] & 0xFC;
+		int format = Disassembler.instructionFormat(strippedOpcode, byteCount == 4);
+		int nixbpe = 0;
+		if ((format == 3 || format == 4) && byteCount >= 2) {
+			nixbpe = ((rMgr.memory[addr + 1] & 0xFF) >> 2) & 0x3F; // get 6 bits
+		}
+		String hex = rawHex.toString();
+		rMgr.addInstruction(new ResourceManager.InstructionEntry(addr, hex, rMgr.getMnemonic(strippedOpcode),
+				strippedOpcode, addr, nixbpe));
+		if (rMgr.instructionListModel != null)
+			rMgr.instructionListModel.addElement(String.format("%04X : %-8s  %s", addr, hex, rMgr.symbolIndex.annotate(addr)));
 	}
 
 	// Utility for modification: fixed-size int to char array (big-endian, sign-extended)
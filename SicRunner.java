@@ -0,0 +1,262 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GUI 없이 object program을 load하고 끝까지 실행하는 headless 실행기. 배치 실행이나 스크립트에서 사용한다.
+ *
+ * 사용법 : java SP25_simulator.SicRunner [options] &lt;object file...&gt; 또는 &lt;SicImage file&gt;
+ * <p>
+ * object file을 여러 개 주면 주어진 순서대로 하나의 프로그램으로 link한다.
+ * <ul>
+ * <li>--progaddr addr : 첫 control section을 놓을 주소 (16진수, 기본값 0)</li>
+ * <li>--dump start:end:file : 실행이 끝난 뒤 메모리 구간을 hex dump로 저장한다. file이 "-"이면 표준 출력으로 보낸다.</li>
+ * <li>--image start:end:file : 실행이 끝난 뒤 메모리 구간을 binary image로 저장한다.</li>
+ * <li>--cache-dir dir : link 결과를 dir에 저장해 두고, 같은 파일을 다시 실행할 때 재사용한다.</li>
+ * <li>--device name=spec : 장치 name을 spec으로 연결한다. spec은 stdin, stdout, file:path, mapped:path,
+ * mem:text 중 하나이며, 앞에 async-in: 또는 async-out:을 붙이면 virtual thread에서 입출력하는 장치가 된다.
+ * (예: --device 05=stdout --device F1=async-in:stdin)</li>
+ * <li>--map-device name : 입력 장치 name(예: F1)의 파일을 memory-mapping하여 읽는다. 큰 입력 파일에 사용한다.</li>
+ * <li>--timing file : 명령어 cost table(TimingModel) 파일. 실행이 끝나면 명령어 수와 cycle 수를 출력한다.</li>
+ * <li>--profile prefix : Profiler로 실행을 기록하여 prefix.txt(hot-spot 보고서)와 prefix.collapsed(flame graph용
+ * collapsed stack)를 저장한다.</li>
+ * <li>--coverage file : 실행한 명령어와 분기 방향을 CoverageMap 파일로 저장한다. 여러 실행의 파일은
+ * CoverageMap의 main으로 합친다.</li>
+ * <li>--heatmap file : 실행 중 메모리 line(16바이트)별 읽기/쓰기 횟수를 CSV로 저장한다.</li>
+ * <li>--trace prefix : 실행한 명령어를 ExecutionTraceWriter로 prefix.000000.sxt, ...에 기록한다.
+ * ExecutionTraceReader로 읽는다.</li>
+ * <li>--trace-compress : --trace의 chunk 파일을 deflate로 압축한다.</li>
+ * <li>--record file : TD/RD/WD 결과를 DeviceJournal 파일로 기록한다.</li>
+ * <li>--replay file : 장치를 사용하지 않고 DeviceJournal 파일의 결과로 실행한다. 기록과 다른 입출력이 있으면
+ * 알리고 종료 코드 1로 끝난다.</li>
+ * <li>--metrics-port port : 실행 통계를 JMX MBean으로 공개하고, 실행 중에 http://127.0.0.1:port/metrics에서
+ * Prometheus text 형식으로 제공한다. 실행이 끝나면 통계를 출력한다.</li>
+ * </ul>
+ * 주소는 16진수이며 end는 포함하지 않는다.
+ */
+public class SicRunner {
+	ResourceManager resourceManager = new ResourceManager();
+	SicLoader sicLoader = new SicLoader(resourceManager);
+	SicSimulator sicSimulator = new SicSimulator(resourceManager);
+
+	/**
+	 * VisualSimulator.load()와 같은 순서로 프로그램을 load한다.
+	 */
+	public void load(File program) {
+		load(List.of(program));
+	}
+
+	/**
+	 * 여러 object program을 link하여 load한다. 파일이 하나이고 SicImage 형식이면 image로 load한다.
+	 */
+	public void load(List<File> programs) {
+		resourceManager.currentInstructionIndex = -1;
+		if (programs.size() == 1)
+			sicLoader.loadProgram(programs.get(0));
+		else
+			sicLoader.loadProgram(programs);
+		sicSimulator.load(programs.get(0));
+	}
+
+	/**
+	 * 남은 모든 명령어를 수행한다.
+	 */
+	public void run() {
+		sicSimulator.allStep();
+	}
+
+	/**
+	 * "start:end:file" 형식의 export 요청을 수행한다.
+	 *
+	 * @param spec   export 대상 구간과 파일
+	 * @param binary true이면 binary image, false이면 hex dump
+	 */
+	public void export(String spec, boolean binary) throws java.io.IOException {
+		int split = spec.indexOf(':', spec.indexOf(':') + 1);
+		if (split < 0)
+			throw new IllegalArgumentException("Expected start:end:file but got " + spec);
+		int[] range = MemoryExporter.parseRange(spec.substring(0, split), resourceManager.memory.length);
+		String file = spec.substring(split + 1);
+		if (binary) {
+			MemoryExporter.exportBinary(resourceManager.memory, range[0], range[1], Paths.get(file));
+		} else if (file.equals("-")) {
+			MemoryExporter.writeHex(resourceManager.memory, range[0], range[1], Channels.newChannel(System.out));
+			System.out.flush();
+		} else {
+			MemoryExporter.exportHex(resourceManager.memory, range[0], range[1], Paths.get(file));
+		}
+	}
+
+	private static void usage() {
+		System.err.println("usage: SicRunner [--dump start:end:file] [--image start:end:file] [--cache-dir dir] [--device name=spec] [--map-device name] [--timing file] [--profile prefix] [--coverage file] [--heatmap file] [--trace prefix [--trace-compress]] [--record file | --replay file] [--metrics-port port] [--progaddr addr] <object file...>");
+		System.exit(2);
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<String> dumps = new ArrayList<>();
+		List<String> images = new ArrayList<>();
+		List<File> programs = new ArrayList<>();
+		String cacheDir = null;
+		List<String> mappedDevices = new ArrayList<>();
+		List<String> deviceSpecs = new ArrayList<>();
+		int progAddr = 0;
+		String timing = null;
+		String profile = null;
+		String coverage = null;
+		String heatmap = null;
+		String trace = null;
+		boolean traceCompress = false;
+		String record = null;
+		String replay = null;
+		int metricsPort = -1;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--dump" -> {
+					if (++i >= args.length) usage();
+					dumps.add(args[i]);
+				}
+				case "--image" -> {
+					if (++i >= args.length) usage();
+					images.add(args[i]);
+				}
+				case "--cache-dir" -> {
+					if (++i >= args.length) usage();
+					cacheDir = args[i];
+				}
+				case "--device" -> {
+					if (++i >= args.length || args[i].indexOf('=') <= 0) usage();
+					deviceSpecs.add(args[i]);
+				}
+				case "--map-device" -> {
+					if (++i >= args.length) usage();
+					mappedDevices.add(args[i]);
+				}
+				case "--timing" -> {
+					if (++i >= args.length) usage();
+					timing = args[i];
+				}
+				case "--profile" -> {
+					if (++i >= args.length) usage();
+					profile = args[i];
+				}
+				case "--coverage" -> {
+					if (++i >= args.length) usage();
+					coverage = args[i];
+				}
+				case "--heatmap" -> {
+					if (++i >= args.length) usage();
+					heatmap = args[i];
+				}
+				case "--trace" -> {
+					if (++i >= args.length) usage();
+					trace = args[i];
+				}
+				case "--trace-compress" -> traceCompress = true;
+				case "--record" -> {
+					if (++i >= args.length || replay != null) usage();
+					record = args[i];
+				}
+				case "--replay" -> {
+					if (++i >= args.length || record != null) usage();
+					replay = args[i];
+				}
+				case "--metrics-port" -> {
+					if (++i >= args.length) usage();
+					metricsPort = Integer.parseInt(args[i]);
+				}
+				case "--progaddr" -> {
+					if (++i >= args.length) usage();
+					progAddr = Integer.parseInt(args[i], 16);
+				}
+				default -> {
+					if (args[i].startsWith("--")) usage();
+					programs.add(new File(args[i]));
+				}
+			}
+		}
+		if (programs.isEmpty())
+			usage();
+
+		SicRunner runner = new SicRunner();
+		if (cacheDir != null)
+			runner.sicLoader.setLoadCache(new LoadCache(64L << 20, Paths.get(cacheDir)));
+		DeviceManager devices = runner.resourceManager.getDeviceManager();
+		for (String device : mappedDevices) {
+			devices.setMapped(device, true);
+		}
+		for (String spec : deviceSpecs) {
+			int eq = spec.indexOf('=');
+			devices.attach(spec.substring(0, eq), DeviceManager.parseDevice(spec.substring(eq + 1)));
+		}
+		if (record != null)
+			devices.setJournal(DeviceJournal.record(Paths.get(record)));
+		if (replay != null)
+			devices.setJournal(DeviceJournal.replay(Paths.get(replay)));
+		if (metricsPort >= 0) {
+			runner.resourceManager.metrics = SimulatorMetrics.create("runner");
+			int port = SimulatorMetrics.startHttpServer(metricsPort);
+			System.out.printf("[METRICS] Serving http://127.0.0.1:%d/metrics\n", port);
+		}
+		if (timing != null)
+			runner.resourceManager.setTimingModel(TimingModel.load(Paths.get(timing)));
+		runner.sicLoader.setProgAddr(progAddr);
+		runner.load(programs);
+		if (profile != null)
+			runner.resourceManager.profiler = new Profiler(runner.resourceManager.register[ResourceManager.REG_PC]);
+		if (coverage != null)
+			runner.resourceManager.coverage = new CoverageMap(runner.resourceManager.programName);
+		if (heatmap != null)
+			runner.resourceManager.heatmap = new MemoryHeatmap();
+		if (trace != null)
+			runner.resourceManager.executionTrace = new ExecutionTraceWriter(trace, runner.resourceManager, traceCompress);
+		runner.run();
+		Trace.flush();
+		runner.resourceManager.closeDevice();
+		if (trace != null) {
+			runner.resourceManager.executionTrace.close();
+			System.out.printf("[TRACE] %d records written to %s.*.sxt\n",
+					runner.resourceManager.executionTrace.getRecords(), trace);
+		}
+		boolean replayed = true;
+		if (record != null) {
+			devices.getJournal().close();
+			System.out.printf("[JOURNAL] Recorded %d device events to %s\n", devices.getJournal().getEvents(), record);
+		}
+		if (replay != null) {
+			replayed = devices.getJournal().finish();
+			Trace.flush();
+			System.out.printf("[REPLAY] %d device events, %s\n", devices.getJournal().getEvents(),
+					replayed ? "no divergence" : devices.getJournal().getDivergences() + " divergent");
+		}
+		if (timing != null)
+			System.out.printf("[TIMING] %d instructions, %d cycles\n", runner.resourceManager.getInstructionCount(),
+					runner.resourceManager.getCycles());
+		if (metricsPort >= 0) {
+			SimulatorMetrics metrics = runner.resourceManager.metrics;
+			System.out.printf("[METRICS] %d instructions, %d blocks, device %d bytes read / %d written, %d runs completed, %d failed\n",
+					metrics.getInstructions(), metrics.getBlocksCompiled(), metrics.getDeviceBytesRead(),
+					metrics.getDeviceBytesWritten(), metrics.getRunsCompleted(), metrics.getRunsFailed());
+			SimulatorMetrics.stopHttpServer();
+		}
+		if (profile != null)
+			runner.resourceManager.profiler.export(profile, runner.resourceManager);
+		if (coverage != null) {
+			runner.resourceManager.coverage.export(Paths.get(coverage));
+			System.out.print(runner.resourceManager.coverage.summary(runner.resourceManager));
+		}
+		if (heatmap != null)
+			runner.resourceManager.heatmap.exportCsv(Paths.get(heatmap), runner.resourceManager.symbolIndex);
+		for (String spec : dumps) {
+			runner.export(spec, false);
+		}
+		for (String spec : images) {
+			runner.export(spec, true);
+		}
+		if (!replayed)
+			System.exit(1);
+	}
+}
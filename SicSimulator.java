@@ -31,30 +31,33 @@ public class SicSimulator {
 	 * SicLoader에서 수행하도록 한다.
 	 */
 	public void load(File program) {
-		// 레지스터 초기화
+		// 레지스터 초기화 (PC는 loader가 E 레코드로 정한 시작 주소를 유지)
+		int entryPoint = rMgr.register[ResourceManager.REG_PC];
 		for (int i = 0; i < rMgr.register.length; i++) {
 			rMgr.register[i] = 0;
-			System.out.printf("[DEBUG] Register[%d] initialized to 0\n", i);
+			if (Trace.LOADER >= Trace.DEBUG)
+				Trace.printf("[DEBUG] Register[%d] initialized to 0\n", i);
 		}
 		rMgr.register_F = 0.0;
 		rMgr.register[REG_L] = 0xFFFFFF;
-		System.out.println("[DEBUG] Register F initialized to 0.0");
-
-		// 프로그램 이름, 시작 주소, 길이 설정
-		rMgr.programStartAddr = 0;
-		rMgr.firstInstructionAddr = 0;
-		rMgr.memoryStartAddr = 0;
-		System.out.printf("[DEBUG] Program Name %S\n", rMgr.programName);
-		System.out.printf("[DEBUG] Program Start Address: %06X\n", rMgr.programStartAddr);
-		System.out.printf("[DEBUG] Program Length: %06X\n", rMgr.programLength);
-		System.out.printf("[DEBUG] First Instruction Address: %06X\n", rMgr.firstInstructionAddr);
-		System.out.printf("[DEBUG] Memory Start Address: %d\n", rMgr.memoryStartAddr);
+		rMgr.register[ResourceManager.REG_PC] = entryPoint;
+		// 프로그램 이름, 시작 주소, 길이는 loader가 설정한 값을 사용
+		if (Trace.LOADER >= Trace.DEBUG) {
+			Trace.println("[DEBUG] Register F initialized to 0.0");
+			Trace.printf("[DEBUG] Program Name %S\n", rMgr.programName);
+			Trace.printf("[DEBUG] Program Start Address: %06X\n", rMgr.programStartAddr);
+			Trace.printf("[DEBUG] Program Length: %06X\n", rMgr.programLength);
+			Trace.printf("[DEBUG] First Instruction Address: %06X\n", rMgr.firstInstructionAddr);
+			Trace.printf("[DEBUG] Memory Start Address: %d\n", rMgr.memoryStartAddr);
+		}
 
 		rMgr.currentInstructionIndex = -1;
+		rMgr.resetCounters();
 
 		// 화면 갱신
 		if (rMgr.visualSimulator != null) {
-			System.out.println("[DEBUG] Calling visualSimulator.update()");
+			if (Trace.LOADER >= Trace.DEBUG)
+				Trace.println("[DEBUG] Calling visualSimulator.update()");
 			rMgr.visualSimulator.update(); // 필요시 null 체크
 		}
 
@@ -94,18 +97,15 @@ public class SicSimulator {
 		// If next PC is FFFFFF, log that the simulation is ending
 		if (rMgr.register[ResourceManager.REG_PC] == 0xFFFFFF) {
 			rMgr.lastEffectiveAddress = null; // clear target address display
+			rMgr.drainChannels();
+			rMgr.finishDevice();
 			addLog("Simulation finished. No more instructions to execute.");
 		}
 		int pc = rMgr.register[ResourceManager.REG_PC];
-		ResourceManager.InstructionEntry entry = null;
-		for (ResourceManager.InstructionEntry e : rMgr.debugInstructionList) {
-			if (e.address == pc) {
-				entry = e;
-				break;
-			}
-		}
+		ResourceManager.InstructionEntry entry = rMgr.instructionAt(pc);
 		if (entry == null) {
-			System.out.printf("[DEBUG] No instruction found at PC = %06X\n", pc);
+			if (Trace.EXEC >= (pc == 0xFFFFFF ? Trace.INFO : Trace.ERROR))
+				Trace.printf("[%s] No instruction found at PC = %06X\n", pc == 0xFFFFFF ? "INFO" : "ERROR", pc);
 			return;
 		}
 
@@ -117,18 +117,84 @@ public class SicSimulator {
 			default -> 3;
 		};
 		rMgr.register[ResourceManager.REG_PC] = entry.address + increment; // Update PC before logging
-
-		System.out.printf(
-				"[DEBUG] Executing Instruction[%d]: LOCCTR=%04X, PC=%06X : %s | %-6s (opcode=%02X)\n",
-				rMgr.debugInstructionList.indexOf(entry),
-				entry.address,
-				rMgr.register[ResourceManager.REG_PC],
-				entry.hexCode,
-				entry.mnemonic,
-				entry.opcode
-		);
+		rMgr.instructionCount++;
+		rMgr.cycles += entry.cycles;
+
+		if (Trace.EXEC >= Trace.DEBUG) {
+			Trace.printf(
+					"[DEBUG] Executing Instruction[%d]: LOCCTR=%04X, PC=%06X : %s | %-6s (opcode=%02X)\n",
+					rMgr.indexOfInstruction(entry.address),
+					entry.address,
+					rMgr.register[ResourceManager.REG_PC],
+					entry.hexCode,
+					entry.mnemonic,
+					entry.opcode
+			);
+		}
 
 		InstLuncher inst = new InstLuncher(rMgr);
+		int format = decode(entry);
+
+		// entry.address is effectively the LOCCTR (Location Counter) for this instruction
+		// LOCCTR = entry.address
+		// PC = LOCCTR + format length
+
+		dispatch(inst, entry);
+
+		if (rMgr.profiler != null) {
+			rMgr.profiler.record(rMgr.memory, entry, rMgr.register[ResourceManager.REG_PC], rMgr.register[REG_L]);
+		}
+		if (rMgr.coverage != null) {
+			rMgr.coverage.record(entry, rMgr.register[ResourceManager.REG_PC]);
+		}
+
+		// channel 전송은 명령어 실행과 겹쳐서 진행된다
+		rMgr.stepChannels();
+
+		// Update lastEffectiveAddress using computed target address
+		if (format >= 3 && entry.hexCode.length() >= 6) {
+			int targetAddr = calculateTargetAddress(entry);
+			int nFlag = (entry.nixbpe >> 5) & 0x1;
+			int iFlag = (entry.nixbpe >> 4) & 0x1;
+			if (nFlag == 0 && iFlag == 1) {
+				rMgr.lastEffectiveAddress = null; // 즉시 상수이면 유효 주소 없음
+			} else {
+				rMgr.lastEffectiveAddress = targetAddr;
+			}
+		} else {
+			rMgr.lastEffectiveAddress = null; // Format 1 or 2인 경우 유효 주소 없음
+		}
+
+		// For TD, RD, WD: set lastDeviceAddress using lastEffectiveAddress (computed by InstLuncher)
+		if (entry.mnemonic.equalsIgnoreCase("TD") || entry.mnemonic.equalsIgnoreCase("RD") || entry.mnemonic.equalsIgnoreCase("WD")) {
+			int targetAddr = rMgr.lastEffectiveAddress;
+			rMgr.lastDeviceAddress = targetAddr;
+		}
+
+		if (rMgr.executionTrace != null) {
+			rMgr.executionTrace.record(rMgr, entry);
+		}
+
+		if (rMgr.metrics != null) {
+			rMgr.metrics.instruction();
+		}
+
+		addLog(String.format("Executed: %s at %06X (%s)", entry.mnemonic, entry.address,
+				rMgr.symbolIndex.annotate(entry.address)));
+
+		if (rMgr.visualSimulator != null) {
+			rMgr.visualSimulator.update();
+		}
+
+	}
+
+	/**
+	 * 명령어의 형식을 판단하고, format 3/4이면 entry.nixbpe를 채운다.
+	 *
+	 * @param entry 실행할 명령어
+	 * @return 1~4 중의 형식 번호
+	 */
+	int decode(ResourceManager.InstructionEntry entry) {
 		// Determine instruction format
 		boolean extended = false;
 		if (entry.hexCode.length() >= 3) {
@@ -136,7 +202,8 @@ public class SicSimulator {
 			extended = (flagByte & 0x1) == 1;
 		}
 		int format = getInstructionFormat(entry.opcode, extended);
-		System.out.printf("[DEBUG] Determined format = %d for opcode=%02X (extended=%b)\n", format, entry.opcode, extended);
+		if (Trace.DECODE >= Trace.DEBUG)
+			Trace.printf("[DEBUG] Determined format = %d for opcode=%02X (extended=%b)\n", format, entry.opcode, extended);
 
 		// Parse nixbpe flags from instruction bytes if format >= 3
 		int nixbpe = -1;
@@ -152,19 +219,28 @@ public class SicSimulator {
 			int p = (byte2 >> 5) & 0x1;
 			int e = (byte2 >> 4) & 0x1;
 
-			System.out.printf("[DEBUG] n=%d i=%d x=%d b=%d p=%d e=%d\n", n, i, x, b, p, e);
+			if (Trace.DECODE >= Trace.DEBUG)
+				Trace.printf("[DEBUG] n=%d i=%d x=%d b=%d p=%d e=%d\n", n, i, x, b, p, e);
 			// Optionally: you can still pack these bits into nixbpe if needed
 			entry.nixbpe = (n << 5) | (i << 4) | (x << 3) | (b << 2) | (p << 1) | e;
 		}
+		return format;
+	}
 
-		// entry.address is effectively the LOCCTR (Location Counter) for this instruction
-		// LOCCTR = entry.address
-		// PC = LOCCTR + format length
-
+	/**
+	 * mnemonic에 해당하는 InstLuncher 함수를 호출한다.
+	 *
+	 * @param inst  명령어를 실행할 InstLuncher
+	 * @param entry 실행할 명령어 (decode()를 거친 것)
+	 */
+	void dispatch(InstLuncher inst, ResourceManager.InstructionEntry entry) {
 		// Dispatch instruction based on mnemonic and format
 		switch (entry.mnemonic.toUpperCase()) {
 			// Format 1
 			case "RSUB" -> inst.RSUB(entry);
+			case "SIO" -> inst.SIO(entry);
+			case "TIO" -> inst.TIO(entry);
+			case "HIO" -> inst.HIO(entry);
 
 			// Format 2
 			case "CLEAR" -> inst.CLEAR(entry);
@@ -188,66 +264,67 @@ public class SicSimulator {
 			case "LDCH" -> inst.LDCH(entry);
 			case "WD" -> inst.WD(entry);
 
-			default -> System.out.printf("[DEBUG] Unknown mnemonic '%s' at %04X\n", entry.mnemonic, entry.address);
-		}
-
-		// Update lastEffectiveAddress using computed target address
-		if (format >= 3 && entry.hexCode.length() >= 6) {
-			int targetAddr = calculateTargetAddress(entry);
-			int nFlag = (entry.nixbpe >> 5) & 0x1;
-			int iFlag = (entry.nixbpe >> 4) & 0x1;
-			if (nFlag == 0 && iFlag == 1) {
-				rMgr.lastEffectiveAddress = null; // 즉시 상수이면 유효 주소 없음
-			} else {
-				rMgr.lastEffectiveAddress = targetAddr;
+			default -> {
+				if (Trace.EXEC >= Trace.ERROR)
+					Trace.printf("[DEBUG] Unknown mnemonic '%s' at %04X\n", entry.mnemonic, entry.address);
 			}
-		} else {
-			rMgr.lastEffectiveAddress = null; // Format 1 or 2인 경우 유효 주소 없음
-		}
-
-		// For TD, RD, WD: set lastDeviceAddress using lastEffectiveAddress (computed by InstLuncher)
-		if (entry.mnemonic.equalsIgnoreCase("TD") || entry.mnemonic.equalsIgnoreCase("RD") || entry.mnemonic.equalsIgnoreCase("WD")) {
-			int targetAddr = rMgr.lastEffectiveAddress;
-			rMgr.lastDeviceAddress = targetAddr;
-		}
-
-		addLog(String.format("Executed: %s at %06X", entry.mnemonic, entry.address));
-
-		if (rMgr.visualSimulator != null) {
-			rMgr.visualSimulator.update();
 		}
-
 	}
 
 	/**
 	 * 남은 모든 instruction이 수행된 모습을 보인다.
 	 */
 	public void allStep() {
-		if (rMgr.visualSimulator == null) {
-			System.err.println("[WARN] visualSimulator is null in ResourceManager before allStep(). GUI log updates may fail.");
-		}
+		if (rMgr.visualSimulator == null && Trace.EXEC >= Trace.INFO)
+			Trace.println("[WARN] visualSimulator is null in ResourceManager before allStep(). GUI log updates may fail.");
+		SimEvents.RunBatch event = new SimEvents.RunBatch();
+		event.begin();
+		long instructions = rMgr.instructionCount;
+		long cycles = rMgr.cycles;
+		long started = System.nanoTime();
+		boolean completed = false;
 		while (true) {
 			int pc = rMgr.register[ResourceManager.REG_PC];
-			ResourceManager.InstructionEntry entry = null;
-			for (ResourceManager.InstructionEntry e : rMgr.debugInstructionList) {
-				if (e.address == pc) {
-					entry = e;
-					break;
-				}
-			}
+			ResourceManager.InstructionEntry entry = rMgr.instructionAt(pc);
 			if (entry == null) {
-				System.out.printf("[DEBUG] No instruction found at PC = %06X\n", pc);
+				// PC가 FFFFFF이면 정상 종료
+				if (Trace.EXEC >= (pc == 0xFFFFFF ? Trace.INFO : Trace.ERROR))
+					Trace.printf("[%s] No instruction found at PC = %06X\n", pc == 0xFFFFFF ? "INFO" : "ERROR", pc);
+				completed = pc == 0xFFFFFF;
 				break;
 			}
 
 			// 종료 조건: 주소가 0xFFFFFF인 명령어를 실행하면 종료
 			if (entry.address == 0xFFFFFF) {
-				System.out.println("[ALLSTEP] Termination condition met at address FFFFFF.");
+				if (Trace.EXEC >= Trace.INFO)
+					Trace.println("[ALLSTEP] Termination condition met at address FFFFFF.");
+				completed = true;
+				break;
+			}
+
+			// 재생 중인 장치 journal과 실행이 달라지면 더 진행해도 재현이 아니므로 멈춘다
+			DeviceJournal journal = rMgr.deviceManager.getJournal();
+			if (journal != null && journal.getDivergences() > 0) {
+				if (Trace.DEVICE >= Trace.ERROR)
+					Trace.println("[ALLSTEP] Stopped: device journal diverged.");
 				break;
 			}
 
 			oneStep(); // Already prints and logs instruction execution
 		}
+		rMgr.drainChannels();
+		if (completed)
+			rMgr.finishDevice();
+		else
+			rMgr.flushDevice();
+		if (rMgr.metrics != null)
+			rMgr.metrics.runFinished(System.nanoTime() - started, completed);
+		if (event.shouldCommit()) {
+			event.program = rMgr.programName;
+			event.instructions = rMgr.instructionCount - instructions;
+			event.cycles = rMgr.cycles - cycles;
+			event.commit();
+		}
 	}
 
 	/**
@@ -287,7 +364,8 @@ public class SicSimulator {
 
 		// No target address if this is an immediate constant (except when n==1) or RSUB
 		if (((n == 0 && i == 1 && n != 1)) || entry.mnemonic.equalsIgnoreCase("RSUB")) {
-			System.out.println("[DEBUG] No target address (immediate constant or RSUB)");
+			if (Trace.DECODE >= Trace.DEBUG)
+				Trace.println("[DEBUG] No target address (immediate constant or RSUB)");
 			return Integer.MIN_VALUE; // Indicate no address, to be handled by caller
 		}
 
@@ -318,9 +396,11 @@ public class SicSimulator {
 			targetAddr += rMgr.register[ResourceManager.REG_X];
 		}
 
-		System.out.printf("[DEBUG] Format: %d, e=%d, b=%d, p=%d, x=%d\n", format, e, b, p, x);
-		System.out.printf("[DEBUG] disp: %06X (after sign-extension if any)\n", disp);
-		System.out.printf("[DEBUG] targetAddr: %06X\n", targetAddr);
+		if (Trace.DECODE >= Trace.DEBUG) {
+			Trace.printf("[DEBUG] Format: %d, e=%d, b=%d, p=%d, x=%d\n", format, e, b, p, x);
+			Trace.printf("[DEBUG] disp: %06X (after sign-extension if any)\n", disp);
+			Trace.printf("[DEBUG] targetAddr: %06X\n", targetAddr);
+		}
 
 		return targetAddr & 0xFFFFFF;
 	}
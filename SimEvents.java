@@ -0,0 +1,140 @@
+package SP25_simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder용 simulator event. 모든 event는 기본적으로 꺼져 있으며(@Enabled(false)), 켜려면 JFR 설정
+ * 파일이나 명령에서 event 이름으로 지정한다.
+ * <pre>
+ * java -XX:StartFlightRecording:filename=sim.jfr,+SP25.LoaderPhase#enabled=true,+SP25.DeviceOperation#enabled=true ...
+ * </pre>
+ * 사용하는 쪽은
+ * <pre>
+ * SimEvents.RunBatch event = new SimEvents.RunBatch();
+ * event.begin();
+ * ...
+ * if (event.shouldCommit()) {
+ *     event.instructions = ...;
+ *     event.commit();
+ * }
+ * </pre>
+ * 처럼 shouldCommit()이 true일 때만 필드를 채운다. event가 꺼져 있으면 begin()과 shouldCommit()은 JIT 후 상수가
+ * 되고 event 객체는 escape analysis로 할당되지 않으므로 비용이 없다.
+ */
+public final class SimEvents {
+	private static final String CATEGORY = "SIC Simulator";
+
+	private SimEvents() {
+	}
+
+	@Name("SP25.LoaderPhase")
+	@Label("Loader Phase")
+	@Description("SicLoader link, modification or cached image restore")
+	@Category({ CATEGORY, "Loader" })
+	@Enabled(false)
+	@StackTrace(false)
+	public static class LoaderPhase extends Event {
+		@Label("Phase")
+		public String phase;
+		@Label("Program")
+		public String program;
+		@Label("Sections")
+		public int sections;
+		@Label("Text Records")
+		public int textRecords;
+		@Label("Modification Records")
+		public int modificationRecords;
+		@Label("Object File Size")
+		@DataAmount
+		public long fileBytes;
+		@Label("Bytes Loaded")
+		@DataAmount
+		public long bytesLoaded;
+		@Label("Relocations Applied")
+		public int relocations;
+	}
+
+	@Name("SP25.RunBatch")
+	@Label("Run Batch")
+	@Description("Instructions executed by one SicSimulator.allStep call")
+	@Category({ CATEGORY, "Execution" })
+	@Enabled(false)
+	@StackTrace(false)
+	public static class RunBatch extends Event {
+		@Label("Program")
+		public String program;
+		@Label("Instructions")
+		public long instructions;
+		@Label("Cycles")
+		public long cycles;
+	}
+
+	@Name("SP25.DeviceOperation")
+	@Label("Device Operation")
+	@Description("Device open, RD/WD transfer or channel transfer step")
+	@Category({ CATEGORY, "Device" })
+	@Enabled(false)
+	@StackTrace(false)
+	public static class DeviceOperation extends Event {
+		@Label("Device")
+		public String device;
+		@Label("Operation")
+		public String operation;
+		@Label("Bytes")
+		@DataAmount
+		public long bytes;
+	}
+
+	@Name("SP25.CacheInvalidation")
+	@Label("Cache Invalidation")
+	@Description("LoadCache entries dropped by eviction, corruption or clear")
+	@Category({ CATEGORY, "Cache" })
+	@Enabled(false)
+	@StackTrace(false)
+	public static class CacheInvalidation extends Event {
+		@Label("Key")
+		public String key;
+		@Label("Reason")
+		public String reason;
+		@Label("Entries")
+		public int entries;
+		@Label("Size")
+		@DataAmount
+		public long bytes;
+	}
+
+	@Name("SP25.Allocation")
+	@Label("Large Allocation")
+	@Description("Large simulator buffers such as images, snapshots and trace buffers")
+	@Category({ CATEGORY, "Memory" })
+	@Enabled(false)
+	public static class Allocation extends Event {
+		@Label("Purpose")
+		public String purpose;
+		@Label("Size")
+		@DataAmount
+		public long bytes;
+	}
+
+	/**
+	 * 큰 buffer 할당을 기록한다. Allocation event가 꺼져 있으면 아무것도 하지 않는다.
+	 *
+	 * @param purpose 용도
+	 * @param bytes   크기
+	 */
+	static void allocation(String purpose, long bytes) {
+		Allocation event = new Allocation();
+		if (event.shouldCommit()) {
+			event.purpose = purpose;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+}
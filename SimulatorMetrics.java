@@ -0,0 +1,324 @@
+package SP25_simulator;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * simulator 인스턴스 하나의 실행 통계. ResourceManager.metrics에 설정하면 SicSimulator, SicLoader, 장치 입출력이 값을
+ * 더한다.
+ * <p>
+ * 값은 모두 LongAdder에 더하므로 여러 worker thread가 각자의 인스턴스나 같은 인스턴스에 기록해도 서로 기다리지 않는다.
+ * 읽는 쪽(JMX, HTTP)은 더하는 중인 값을 합산하여 읽는다.
+ * <p>
+ * create()로 만든 인스턴스는 이름으로 등록되어 "SP25_simulator:type=Simulator,name=이름" MBean으로 공개되고, 이름이
+ * "all"인 MBean은 등록된 모든 인스턴스의 합을 보여 준다. startHttpServer()를 호출하면 같은 값을 local HTTP
+ * endpoint(/metrics)에서 Prometheus text 형식으로 제공한다. 이때 인스턴스마다 simulator label이 붙고, 합계는
+ * simulator="all"이다.
+ * <p>
+ * 이 simulator에는 block 단위 compiler가 없으므로 blocks compiled는 load 때 Disassembler가 찾은 basic block 수이다.
+ */
+public class SimulatorMetrics implements SimulatorMetricsMBean {
+	/**
+	 * 실행 시간 histogram의 구간 상한(초)
+	 */
+	public static final double[] RUN_BUCKETS = { 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 60 };
+
+	private static final int INSTRUCTIONS = 0;
+	private static final int BLOCKS = 1;
+	private static final int CACHE_HITS = 2;
+	private static final int CACHE_MISSES = 3;
+	private static final int DEVICE_READ = 4;
+	private static final int DEVICE_WRITTEN = 5;
+	private static final int RUNS_COMPLETED = 6;
+	private static final int RUNS_FAILED = 7;
+	private static final int RUN_NANOS = 8;
+	private static final int COUNTERS = 9;
+
+	private static final String AGGREGATE = "all";
+	private static final Map<String, SimulatorMetrics> INSTANCES = new ConcurrentHashMap<>();
+	private static final SimulatorMetrics TOTAL = new SimulatorMetrics(AGGREGATE);
+	private static HttpServer server;
+
+	private final String name;
+	private final LongAdder[] counters = new LongAdder[COUNTERS];
+	private final LongAdder[] runBuckets = new LongAdder[RUN_BUCKETS.length + 1];
+
+	// getInstructionsPerSecond()의 직전 표본
+	private long sampleTime = System.nanoTime();
+	private long sampleInstructions;
+	private double rate;
+
+	private SimulatorMetrics(String name) {
+		this.name = name;
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		for (int i = 0; i < runBuckets.length; i++) {
+			runBuckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * 이름으로 인스턴스를 만들어 등록하고 MBean으로 공개한다. 같은 이름이 이미 있으면 그 인스턴스를 돌려준다.
+	 *
+	 * @param name simulator 이름 ("all"은 사용할 수 없다)
+	 */
+	public static SimulatorMetrics create(String name) {
+		if (name.equals(AGGREGATE))
+			throw new IllegalArgumentException("'" + AGGREGATE + "' is reserved for the aggregate");
+		return INSTANCES.computeIfAbsent(name, key -> {
+			SimulatorMetrics metrics = new SimulatorMetrics(key);
+			register(metrics);
+			register(TOTAL);
+			return metrics;
+		});
+	}
+
+	private static void register(SimulatorMetrics metrics) {
+		try {
+			MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName("SP25_simulator:type=Simulator,name=" + ObjectName.quote(metrics.name));
+			if (!mbeans.isRegistered(objectName))
+				mbeans.registerMBean(metrics, objectName);
+		} catch (JMException e) {
+			System.err.println("[METRICS] Cannot register MBean " + metrics.name + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return 모든 인스턴스의 합
+	 */
+	public static SimulatorMetrics total() {
+		return TOTAL;
+	}
+
+	public void instruction() {
+		counters[INSTRUCTIONS].increment();
+	}
+
+	public void blocksCompiled(int blocks) {
+		counters[BLOCKS].add(blocks);
+	}
+
+	public void cacheLookup(boolean hit) {
+		counters[hit ? CACHE_HITS : CACHE_MISSES].increment();
+	}
+
+	public void deviceRead(long bytes) {
+		counters[DEVICE_READ].add(bytes);
+	}
+
+	public void deviceWritten(long bytes) {
+		counters[DEVICE_WRITTEN].add(bytes);
+	}
+
+	/**
+	 * 실행 하나가 끝났음을 기록한다.
+	 *
+	 * @param nanos     걸린 시간
+	 * @param completed 정상 종료(PC = FFFFFF)이면 true
+	 */
+	public void runFinished(long nanos, boolean completed) {
+		counters[completed ? RUNS_COMPLETED : RUNS_FAILED].increment();
+		counters[RUN_NANOS].add(nanos);
+		double seconds = nanos / 1e9;
+		int bucket = 0;
+		while (bucket < RUN_BUCKETS.length && seconds > RUN_BUCKETS[bucket]) {
+			bucket++;
+		}
+		runBuckets[bucket].increment();
+	}
+
+	// 합계 인스턴스는 등록된 인스턴스의 값을 더한다
+	private long counter(int index) {
+		if (this != TOTAL)
+			return counters[index].sum();
+		long sum = 0;
+		for (SimulatorMetrics metrics : INSTANCES.values()) {
+			sum += metrics.counters[index].sum();
+		}
+		return sum;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getInstructions() {
+		return counter(INSTRUCTIONS);
+	}
+
+	@Override
+	public synchronized double getInstructionsPerSecond() {
+		long now = System.nanoTime();
+		if (now - sampleTime >= 1_000_000_000L) {
+			long instructions = getInstructions();
+			rate = (instructions - sampleInstructions) * 1e9 / (now - sampleTime);
+			sampleInstructions = instructions;
+			sampleTime = now;
+		}
+		return rate;
+	}
+
+	@Override
+	public long getBlocksCompiled() {
+		return counter(BLOCKS);
+	}
+
+	@Override
+	public long getCacheHits() {
+		return counter(CACHE_HITS);
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return counter(CACHE_MISSES);
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		long hits = getCacheHits();
+		long lookups = hits + getCacheMisses();
+		return lookups == 0 ? Double.NaN : (double) hits / lookups;
+	}
+
+	@Override
+	public long getDeviceBytesRead() {
+		return counter(DEVICE_READ);
+	}
+
+	@Override
+	public long getDeviceBytesWritten() {
+		return counter(DEVICE_WRITTEN);
+	}
+
+	@Override
+	public long getRunsCompleted() {
+		return counter(RUNS_COMPLETED);
+	}
+
+	@Override
+	public long getRunsFailed() {
+		return counter(RUNS_FAILED);
+	}
+
+	@Override
+	public double getMeanRunSeconds() {
+		long runs = getRunsCompleted() + getRunsFailed();
+		return runs == 0 ? 0 : counter(RUN_NANOS) / 1e9 / runs;
+	}
+
+	@Override
+	public long[] getRunDurationHistogram() {
+		long[] histogram = new long[runBuckets.length];
+		for (int i = 0; i < histogram.length; i++) {
+			if (this != TOTAL) {
+				histogram[i] = runBuckets[i].sum();
+				continue;
+			}
+			for (SimulatorMetrics metrics : INSTANCES.values()) {
+				histogram[i] += metrics.runBuckets[i].sum();
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * 등록된 모든 인스턴스와 합계를 Prometheus text 형식으로 출력한다.
+	 */
+	public static String prometheus() {
+		StringBuilder sb = new StringBuilder(4096);
+		List<SimulatorMetrics> all = new ArrayList<>(INSTANCES.values());
+		all.add(TOTAL);
+		counter(sb, all, "sic_instructions_total", "Instructions executed", INSTRUCTIONS);
+		counter(sb, all, "sic_blocks_compiled_total", "Basic blocks found by the disassembler", BLOCKS);
+		counter(sb, all, "sic_cache_hits_total", "Load cache hits", CACHE_HITS);
+		counter(sb, all, "sic_cache_misses_total", "Load cache misses", CACHE_MISSES);
+		counter(sb, all, "sic_device_read_bytes_total", "Bytes read from devices", DEVICE_READ);
+		counter(sb, all, "sic_device_written_bytes_total", "Bytes written to devices", DEVICE_WRITTEN);
+		counter(sb, all, "sic_runs_completed_total", "Runs that reached PC FFFFFF", RUNS_COMPLETED);
+		counter(sb, all, "sic_runs_failed_total", "Runs that stopped early", RUNS_FAILED);
+		sb.append("# HELP sic_run_duration_seconds Run duration\n# TYPE sic_run_duration_seconds histogram\n");
+		for (SimulatorMetrics metrics : all) {
+			long[] histogram = metrics.getRunDurationHistogram();
+			long cumulative = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				cumulative += histogram[i];
+				String le = i < RUN_BUCKETS.length ? String.valueOf(RUN_BUCKETS[i]) : "+Inf";
+				sb.append("sic_run_duration_seconds_bucket{simulator=\"").append(metrics.name).append("\",le=\"")
+						.append(le).append("\"} ").append(cumulative).append('\n');
+			}
+			sb.append("sic_run_duration_seconds_sum{simulator=\"").append(metrics.name).append("\"} ")
+					.append(String.format(Locale.ROOT, "%.9f", metrics.counter(RUN_NANOS) / 1e9)).append('\n');
+			sb.append("sic_run_duration_seconds_count{simulator=\"").append(metrics.name).append("\"} ")
+					.append(cumulative).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static void counter(StringBuilder sb, List<SimulatorMetrics> all, String metric, String help,
+			int index) {
+		sb.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(metric).append(" counter\n");
+		for (SimulatorMetrics metrics : all) {
+			sb.append(metric).append("{simulator=\"").append(metrics.name).append("\"} ")
+					.append(metrics.counter(index)).append('\n');
+		}
+	}
+
+	/**
+	 * loopback 주소의 port에서 /metrics endpoint를 시작한다. 이미 시작했으면 아무것도 하지 않는다. HttpServer의
+	 * dispatcher thread는 daemon이 아니므로 main이 끝나기 전에 stopHttpServer()를 호출해야 process가 끝난다.
+	 *
+	 * @param port HTTP port (0이면 임의의 빈 port)
+	 * @return 실제로 사용하는 port
+	 */
+	public static synchronized int startHttpServer(int port) throws IOException {
+		if (server == null) {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+			server.createContext("/metrics", exchange -> {
+				byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.setExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "sic-metrics-http");
+				thread.setDaemon(true);
+				thread.start();
+			});
+			server.start();
+		}
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * startHttpServer()로 시작한 endpoint를 멈춘다. 시작하지 않았으면 아무것도 하지 않는다.
+	 */
+	public static synchronized void stopHttpServer() {
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package SP25_simulator;
+
+/**
+ * SimulatorMetrics를 JMX로 공개하는 MBean interface. 이름이 "all"인 MBean은 모든 simulator 인스턴스의 합이다.
+ */
+public interface SimulatorMetricsMBean {
+	String getName();
+
+	long getInstructions();
+
+	/**
+	 * @return 마지막으로 이 값을 읽은 뒤(최소 1초 간격)의 초당 명령어 수
+	 */
+	double getInstructionsPerSecond();
+
+	long getBlocksCompiled();
+
+	long getCacheHits();
+
+	long getCacheMisses();
+
+	/**
+	 * @return load cache 적중률 (0 ~ 1). 조회가 없으면 NaN
+	 */
+	double getCacheHitRate();
+
+	long getDeviceBytesRead();
+
+	long getDeviceBytesWritten();
+
+	long getRunsCompleted();
+
+	long getRunsFailed();
+
+	double getMeanRunSeconds();
+
+	/**
+	 * @return 실행 시간 histogram. i번째 값은 RUN_BUCKETS[i]초 이하인 실행 수 (누적 아님), 마지막은 그보다 긴 실행 수
+	 */
+	long[] getRunDurationHistogram();
+}
@@ -0,0 +1,67 @@
+package SP25_simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * InputStream/OutputStream을 장치로 사용한다. 표준 입력과 표준 출력을 장치로 연결할 때 사용한다. 둘 중 하나는 null일
+ * 수 있으며 그 방향의 RD/WD는 오류가 된다. close()는 stream을 flush만 하고 닫지 않는다(표준 입출력을 닫지 않기 위함).
+ */
+public class StreamDevice implements Device {
+	private final String name;
+	private final InputStream in;
+	private final OutputStream out;
+
+	public StreamDevice(String name, InputStream in, OutputStream out) {
+		this.name = name;
+		this.in = in == null ? null : new BufferedInputStream(in, FileDevice.BUFFER_SIZE);
+		this.out = out == null ? null : new BufferedOutputStream(out, FileDevice.BUFFER_SIZE);
+	}
+
+	/**
+	 * @return 표준 입력에서 읽는 장치
+	 */
+	public static StreamDevice stdin() {
+		return new StreamDevice("stdin", System.in, null);
+	}
+
+	/**
+	 * @return 표준 출력으로 쓰는 장치
+	 */
+	public static StreamDevice stdout() {
+		return new StreamDevice("stdout", null, System.out);
+	}
+
+	@Override
+	public boolean test() {
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (in == null)
+			throw new IOException("Device " + name + " is write-only");
+		return in.read();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (out == null)
+			throw new IOException("Device " + name + " is read-only");
+		out.write(b);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (out != null)
+			out.flush();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
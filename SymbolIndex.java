@@ -0,0 +1,129 @@
+package SP25_simulator;
+
+import java.util.Arrays;
+
+/**
+ * 주소 -> symbol 역방향 색인. SymbolTable의 symbol을 주소 순으로 정렬한 배열로 만들어 두고, 임의의 주소를 바로 앞의
+ * symbol 기준 "RDREC+0x1D" 형태로 표시할 때 binary search로 찾는다. 실행 log, instruction 목록, profiler 출력처럼
+ * 줄마다 주소를 표시하는 곳에서 사용한다.
+ * <p>
+ * load가 끝난 뒤 한 번 만들며 이후에는 바뀌지 않으므로 여러 thread에서 동시에 읽어도 된다.
+ */
+public class SymbolIndex {
+	public static final SymbolIndex EMPTY = new SymbolIndex(new int[0], new String[0], 0);
+
+	// 주소 오름차순. 같은 주소의 symbol은 SymbolTable에 나중에 들어간 것 하나만 남긴다. 앞 section의 끝을 가리키는
+	// symbol(BUFEND 등)보다 그 주소에서 시작하는 다음 section의 이름(RDREC 등)이 표시되도록 하기 위함이다.
+	private final int[] addresses;
+	private final String[] names;
+	// 이 주소 이상은 어떤 symbol에도 속하지 않는 것으로 본다 (프로그램 끝)
+	private final int limit;
+
+	private SymbolIndex(int[] addresses, String[] names, int limit) {
+		this.addresses = addresses;
+		this.names = names;
+		this.limit = limit;
+	}
+
+	/**
+	 * symbol table로부터 색인을 만든다.
+	 *
+	 * @param symtab symbol table (null이면 빈 색인)
+	 * @param limit  프로그램이 끝나는 주소. 이 주소 이상은 symbol로 표시하지 않는다.
+	 * @return 만들어진 색인
+	 */
+	public static SymbolIndex build(SymbolTable symtab, int limit) {
+		if (symtab == null || symtab.size() == 0)
+			return EMPTY;
+		int count = symtab.size();
+		// 주소(상위 32비트)와 입력 순서(하위 32비트)를 묶어 정렬하면 같은 주소에서는 나중에 들어간 symbol이 뒤에 온다
+		long[] order = new long[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = ((long) symtab.getAddress(i) << 32) | i;
+		}
+		Arrays.sort(order);
+		int[] addresses = new int[count];
+		String[] names = new String[count];
+		int size = 0;
+		for (long entry : order) {
+			int address = (int) (entry >>> 32);
+			if (size == 0 || addresses[size - 1] != address)
+				size++;
+			addresses[size - 1] = address;
+			names[size - 1] = symtab.getSymbol((int) entry);
+		}
+		return new SymbolIndex(Arrays.copyOf(addresses, size), Arrays.copyOf(names, size), limit);
+	}
+
+	/**
+	 * @param address 찾을 주소
+	 * @return address 이하인 가장 가까운 symbol의 index. 해당하는 symbol이 없으면 -1
+	 */
+	public int indexOf(int address) {
+		if (address < 0 || address >= limit)
+			return -1;
+		int low = 0;
+		int high = addresses.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (addresses[mid] <= address)
+				low = mid + 1;
+			else
+				high = mid - 1;
+		}
+		return high;
+	}
+
+	/**
+	 * @param index indexOf()가 돌려준 값
+	 * @return symbol 이름
+	 */
+	public String nameAt(int index) {
+		return names[index];
+	}
+
+	/**
+	 * @param index indexOf()가 돌려준 값
+	 * @return symbol 주소
+	 */
+	public int addressAt(int index) {
+		return addresses[index];
+	}
+
+	/**
+	 * @return 색인된 symbol 수
+	 */
+	public int size() {
+		return addresses.length;
+	}
+
+	/**
+	 * 주소를 "SYMBOL" 또는 "SYMBOL+0xOFF" 형태로 sb에 덧붙인다. 해당하는 symbol이 없으면 6자리 16진수 주소를 붙인다.
+	 *
+	 * @param sb      결과를 붙일 StringBuilder
+	 * @param address 표시할 주소
+	 * @return sb
+	 */
+	public StringBuilder appendTo(StringBuilder sb, int address) {
+		int index = indexOf(address);
+		if (index < 0) {
+			String hex = Integer.toHexString(address).toUpperCase();
+			for (int i = hex.length(); i < 6; i++)
+				sb.append('0');
+			return sb.append(hex);
+		}
+		sb.append(names[index]);
+		int offset = address - addresses[index];
+		if (offset != 0)
+			sb.append("+0x").append(Integer.toHexString(offset).toUpperCase());
+		return sb;
+	}
+
+	/**
+	 * @param address 표시할 주소
+	 * @return appendTo()와 같은 형식의 문자열
+	 */
+	public String annotate(int address) {
+		return appendTo(new StringBuilder(16), address).toString();
+	}
+}
@@ -1,18 +1,48 @@
 package SP25_simulator;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * symbol과 관련된 데이터와 연산을 소유한다. section 별로 하나씩 인스턴스를 할당한다.
+ * <p>
+ * symbol 이름(SIC/XE에서는 최대 6글자)은 한 글자당 8비트씩 long 하나로 묶은 key로 바꾸어 open addressing hash
+ * table에 넣는다. 따라서 검색할 때 문자열 비교나 boxing 없이 long 비교만 한다. 8글자를 넘거나 0xFF보다 큰 문자가
+ * 들어간 이름은 hash 값으로 key를 만들고 이름을 직접 비교한다.
+ * <p>
+ * parent를 지정하면 이 table에 없는 symbol은 parent에서 찾는다. control section의 지역 table이 전역 ESTAB을
+ * parent로 가지는 식으로 사용한다.
  */
 public class SymbolTable {
-	ArrayList<String> symbolList;
-	ArrayList<Integer> addressList;
-	// 기타 literal, external 선언 및 처리방법을 구현한다.
+	private static final int INITIAL_CAPACITY = 16;
+	// packing할 수 없는 이름의 key에 붙이는 표시. packing된 key는 최상위 바이트가 8번째 글자이므로 이 비트와 겹칠 수 있어
+	// 이름 비교로 한 번 더 확인한다.
+	private static final long HASHED_KEY = 1L << 63;
+
+	private final SymbolTable parent;
+
+	// 입력 순서대로 저장한다. bulk iteration(getSymbol/getAddress)에 그대로 사용한다.
+	private String[] names = new String[INITIAL_CAPACITY];
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private int[] addresses = new int[INITIAL_CAPACITY];
+	private int size;
+
+	// hash slot -> (입력 순서 index + 1). 0이면 빈 slot
+	private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+	public SymbolTable() {
+		this(null);
+	}
+
+	/**
+	 * @param parent 이 table에 없는 symbol을 찾을 상위 table. 없으면 null
+	 */
+	public SymbolTable(SymbolTable parent) {
+		this.parent = parent;
+	}
 
 	/**
 	 * 새로운 Symbol을 table에 추가한다.
-	 * 
+	 *
 	 * @param symbol  : 새로 추가되는 symbol의 label
 	 * @param address : 해당 symbol이 가지는 주소값 <br>
 	 *                <br>
@@ -20,14 +50,23 @@ public class SymbolTable {
 	 *                나타낸다. 매칭되는 주소값의 변경은 modifySymbol()을 통해서 이루어져야 한다.
 	 */
 	public void putSymbol(String symbol, int address) {
-		if (symbolList == null) {
-			symbolList = new ArrayList<>();
-			addressList = new ArrayList<>();
-		}
-		if (!symbolList.contains(symbol)) {
-			symbolList.add(symbol);
-			addressList.add(address);
+		long key = keyOf(symbol);
+		int slot = findSlot(symbol, key);
+		if (slots[slot] != 0)
+			return;
+		if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+			keys = Arrays.copyOf(keys, size * 2);
+			addresses = Arrays.copyOf(addresses, size * 2);
 		}
+		names[size] = symbol;
+		keys[size] = key;
+		addresses[size] = address;
+		size++;
+		slots[slot] = size;
+		// load factor 0.5를 넘으면 slot 배열을 두 배로 늘린다
+		if (size * 2 > slots.length)
+			rehash(slots.length * 2);
 	}
 
 	/**
@@ -37,29 +76,101 @@ public class SymbolTable {
 	 * @param newaddress : 새로 바꾸고자 하는 주소값
 	 */
 	public void modifySymbol(String symbol, int newaddress) {
-		if (symbolList != null) {
-			int index = symbolList.indexOf(symbol);
-			if (index != -1) {
-				addressList.set(index, newaddress);
-			}
+		int index = slots[findSlot(symbol, keyOf(symbol))] - 1;
+		if (index != -1) {
+			addresses[index] = newaddress;
 		}
 	}
 
 	/**
-	 * 인자로 전달된 symbol이 어떤 주소를 지칭하는지 알려준다.
+	 * 인자로 전달된 symbol이 어떤 주소를 지칭하는지 알려준다. 이 table에 없으면 parent에서 찾는다.
 	 *
 	 * @param symbol : 검색을 원하는 symbol의 label
 	 * @return symbol이 가지고 있는 주소값. 해당 symbol이 없을 경우 -1 리턴
 	 */
 	public int search(String symbol) {
-		int address = -1;
-		if (symbolList != null) {
-			int index = symbolList.indexOf(symbol);
-			if (index != -1) {
-				address = addressList.get(index);
+		int index = slots[findSlot(symbol, keyOf(symbol))] - 1;
+		if (index != -1)
+			return addresses[index];
+		return parent != null ? parent.search(symbol) : -1;
+	}
+
+	/**
+	 * @return 이 table에 직접 들어있는 symbol 수 (parent 제외)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index 0부터 size() - 1까지의 입력 순서
+	 * @return index번째로 추가된 symbol의 이름
+	 */
+	public String getSymbol(int index) {
+		return names[index];
+	}
+
+	/**
+	 * @param index 0부터 size() - 1까지의 입력 순서
+	 * @return index번째로 추가된 symbol의 주소
+	 */
+	public int getAddress(int index) {
+		return addresses[index];
+	}
+
+	// symbol이 들어있는 slot, 없으면 들어갈 빈 slot을 찾는다 (linear probing)
+	private int findSlot(String symbol, long key) {
+		int mask = slots.length - 1;
+		int slot = mix(key) & mask;
+		while (true) {
+			int entry = slots[slot];
+			if (entry == 0)
+				return slot;
+			int index = entry - 1;
+			if (keys[index] == key && ((key & HASHED_KEY) == 0 || names[index].equals(symbol)))
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private void rehash(int capacity) {
+		slots = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < size; i++) {
+			int slot = mix(keys[i]) & mask;
+			while (slots[slot] != 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * symbol 이름을 long key로 바꾼다. 8글자 이하이고 모든 글자가 1 ~ 0xFF이면 글자를 그대로 이어 붙인 값이므로 서로
+	 * 다른 이름은 항상 다른 key를 가진다. 그 외에는 String hash에 HASHED_KEY 비트를 붙인다.
+	 */
+	private static long keyOf(String symbol) {
+		int length = symbol.length();
+		if (length <= 8) {
+			long key = 0;
+			boolean packed = true;
+			for (int i = 0; i < length; i++) {
+				char c = symbol.charAt(i);
+				if (c == 0 || c > 0xFF) {
+					packed = false;
+					break;
+				}
+				key = (key << 8) | c;
 			}
+			// 8글자 key 중 최상위 비트가 켜진 것은 hashed key와 구분되지 않으므로 이름 비교가 필요한 쪽으로 보낸다
+			if (packed && (key & HASHED_KEY) == 0)
+				return key;
 		}
-		return address;
+		return HASHED_KEY | (symbol.hashCode() & 0xFFFFFFFFL);
+	}
+
+	private static int mix(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
 	}
 
 }
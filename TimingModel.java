@@ -0,0 +1,128 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * 명령어마다 소모하는 가상 cycle 수를 정하는 cost table. 프로그램의 결과뿐 아니라 성능을 비교할 때 사용한다.
+ * <p>
+ * 명령어 하나의 cost = 기본 cost(명령어 형식 또는 mnemonic별 값) + 메모리 접근 수 * memory + (TD/RD/WD이면) 장치
+ * latency. 메모리 접근 수는 주소 지정 방식으로 정한다. 즉시 주소와 분기 명령은 0번, 그 밖의 format 3/4 명령은 1번이고,
+ * 간접 주소이면 1번 더 접근한다.
+ * <p>
+ * cost는 명령어 목록을 만들 때 InstructionEntry마다 한 번 계산해 두므로 실행 중에는 명령어마다 덧셈 한 번만 한다.
+ * <p>
+ * 파일은 properties 형식이며 없는 항목은 기본값을 쓴다.
+ * <pre>
+ * format.1 = 1       # 형식별 기본 cost
+ * format.2 = 2
+ * format.3 = 3
+ * format.4 = 4
+ * memory = 1         # 메모리 접근 한 번
+ * device = 10        # TD/RD/WD 장치 latency
+ * device.F1 = 100    # 장치별 latency
+ * LDA = 2            # mnemonic별 기본 cost (형식별 값 대신 사용)
+ * </pre>
+ */
+public class TimingModel {
+	public static final TimingModel DEFAULT = new TimingModel();
+
+	private final int[] formatCost = { 0, 1, 2, 3, 4 };
+	private int memoryCost = 1;
+	private int deviceCost = 10;
+	private final HashMap<String, Integer> deviceCosts = new HashMap<>();
+	private final HashMap<String, Integer> mnemonicCosts = new HashMap<>();
+
+	/**
+	 * properties 형식의 cost table 파일을 읽는다.
+	 *
+	 * @param file cost table 파일
+	 * @return 읽은 timing model
+	 * @throws IOException 파일을 읽을 수 없거나 값이 정수가 아니거나 format 번호가 1~4가 아닐 때
+	 */
+	public static TimingModel load(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file)) {
+			properties.load(reader);
+		}
+		TimingModel model = new TimingModel();
+		for (String key : properties.stringPropertyNames()) {
+			int value;
+			try {
+				value = Integer.parseInt(properties.getProperty(key).trim());
+			} catch (NumberFormatException e) {
+				throw new IOException(String.format("%s: invalid cost for '%s'", file, key));
+			}
+			if (value < 0)
+				throw new IOException(String.format("%s: negative cost for '%s'", file, key));
+			if (key.startsWith("format.")) {
+				int format;
+				try {
+					format = Integer.parseInt(key.substring(7).trim());
+				} catch (NumberFormatException e) {
+					format = 0; // 아래에서 unknown format으로 보고한다
+				}
+				if (format < 1 || format > 4)
+					throw new IOException(String.format("%s: unknown format '%s'", file, key));
+				model.formatCost[format] = value;
+			} else if (key.equals("memory")) {
+				model.memoryCost = value;
+			} else if (key.equals("device")) {
+				model.deviceCost = value;
+			} else if (key.startsWith("device.")) {
+				model.deviceCosts.put(key.substring(7).toUpperCase(Locale.ROOT), value);
+			} else {
+				model.mnemonicCosts.put(key.toUpperCase(Locale.ROOT), value);
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * 메모리의 명령어 하나가 실행될 때 소모하는 cycle 수를 계산한다.
+	 *
+	 * @param memory 메모리
+	 * @param entry  명령어
+	 * @return cycle 수
+	 */
+	public int cost(char[] memory, ResourceManager.InstructionEntry entry) {
+		int addr = entry.address;
+		int length = entry.hexCode.length() / 2;
+		Integer base = mnemonicCosts.get(entry.mnemonic);
+		int cycles = base != null ? base : formatCost[Math.min(Math.max(length, 1), 4)];
+		if (length < 3)
+			return cycles;
+
+		int byte1 = memory[addr] & 0xFF;
+		boolean n = (byte1 & 0x2) != 0;
+		boolean i = (byte1 & 0x1) != 0;
+		boolean indirect = n && !i;
+		boolean immediate = i && !n;
+		// 분기 명령은 대상 주소만 사용하고 메모리를 읽지 않는다
+		int accesses = Disassembler.branchKind(memory, addr) == Disassembler.FALL_THROUGH && !immediate ? 1 : 0;
+		if (indirect)
+			accesses++;
+		cycles += accesses * memoryCost;
+
+		int opcode = byte1 & 0xFC;
+		if (opcode == 0xE0 || opcode == 0xD8 || opcode == 0xDC) // TD, RD, WD
+			cycles += deviceLatency(memory, addr, length);
+		return cycles;
+	}
+
+	// 장치 번호를 정적으로 알 수 있으면 장치별 latency, 아니면 기본 latency
+	private int deviceLatency(char[] memory, int addr, int length) {
+		if (deviceCosts.isEmpty())
+			return deviceCost;
+		int target = Disassembler.branchTarget(memory, addr, length);
+		if (target < 0 || target >= memory.length)
+			return deviceCost;
+		Integer cost = deviceCosts.get(String.format("%02X", memory[target] & 0xFF));
+		return cost != null ? cost : deviceCost;
+	}
+}
@@ -0,0 +1,203 @@
+package SP25_simulator;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * loader, 명령어 해석, 실행, 장치, linker의 진단 출력을 category별 level로 거르는 trace.
+ * <p>
+ * level은 class를 초기화할 때 system property에서 한 번 읽어 static final 필드에 둔다. 출력하는 쪽은
+ * <pre>
+ * if (Trace.EXEC &gt;= Trace.DEBUG)
+ *     Trace.printf("[LDA] ...\n", ...);
+ * </pre>
+ * 처럼 level을 먼저 확인하므로, 꺼진 category는 JIT가 조건을 상수로 접어 format 인자 계산까지 없앤다.
+ * <ul>
+ * <li>sic.trace : 모든 category의 level (off, error, info, debug. 기본값 error)</li>
+ * <li>sic.trace.loader, sic.trace.decode, sic.trace.exec, sic.trace.device, sic.trace.linker : category별 level</li>
+ * <li>sic.trace.file : 출력 파일. 없으면 표준 출력</li>
+ * </ul>
+ * 예전처럼 모든 debug 출력을 보려면 -Dsic.trace=debug로 실행한다.
+ * <p>
+ * 출력은 Sink로 보낸다. 기본 sink는 문자열을 buffer에 모아 두고 별도 thread가 한꺼번에 쓰므로 simulator thread는
+ * 출력 I/O를 기다리지 않는다. 다른 출력과 순서를 맞춰야 하면 flush()를 호출한다. setSink()로 sink를 바꿀 수 있다.
+ */
+public final class Trace {
+	public static final int OFF = 0;
+	public static final int ERROR = 1;
+	public static final int INFO = 2;
+	public static final int DEBUG = 3;
+
+	// category별 level
+	public static final int LOADER = level("loader");
+	public static final int DECODE = level("decode");
+	public static final int EXEC = level("exec");
+	public static final int DEVICE = level("device");
+	public static final int LINKER = level("linker");
+
+	/**
+	 * trace 출력을 받는 곳. 한 번에 넘기는 text는 줄 일부일 수도 있고 여러 줄일 수도 있다.
+	 */
+	public interface Sink {
+		Sink NONE = text -> {
+		};
+
+		void write(String text);
+
+		/**
+		 * 지금까지 받은 출력을 모두 내보낸다.
+		 */
+		default void flush() {
+		}
+	}
+
+	private static volatile Sink sink = defaultSink();
+
+	private Trace() {
+	}
+
+	private static int level(String category) {
+		String value = System.getProperty("sic.trace." + category, System.getProperty("sic.trace", "error"));
+		return switch (value.toLowerCase(Locale.ROOT)) {
+			case "off", "none" -> OFF;
+			case "error" -> ERROR;
+			case "info" -> INFO;
+			case "debug", "all" -> DEBUG;
+			default -> throw new IllegalArgumentException("Unknown trace level for " + category + ": " + value);
+		};
+	}
+
+	private static Sink defaultSink() {
+		String file = System.getProperty("sic.trace.file");
+		OutputStream out = System.out;
+		if (file != null) {
+			try {
+				out = new FileOutputStream(file);
+			} catch (IOException e) {
+				System.err.println("[TRACE] Cannot open " + file + ": " + e.getMessage());
+			}
+		}
+		AsyncSink async = new AsyncSink(out);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> sink.flush()));
+		return async;
+	}
+
+	/**
+	 * 출력 대상을 바꾼다. 이전 sink는 flush한다.
+	 *
+	 * @param newSink 새 sink. Sink.NONE이면 출력을 버린다.
+	 */
+	public static void setSink(Sink newSink) {
+		Sink old = sink;
+		sink = newSink;
+		old.flush();
+	}
+
+	public static Sink getSink() {
+		return sink;
+	}
+
+	public static void printf(String format, Object... args) {
+		sink.write(String.format(format, args));
+	}
+
+	public static void print(String text) {
+		sink.write(text);
+	}
+
+	public static void println(String line) {
+		sink.write(line + "\n");
+	}
+
+	public static void println() {
+		sink.write("\n");
+	}
+
+	/**
+	 * 지금까지의 trace 출력이 모두 쓰일 때까지 기다린다.
+	 */
+	public static void flush() {
+		sink.flush();
+	}
+
+	/**
+	 * 받은 text를 StringBuilder에 모아 두고, writer thread가 buffer를 통째로 바꿔 가져가 쓰는 sink. 쌓인 출력이
+	 * MAX_PENDING을 넘으면 쓰는 쪽이 writer thread를 기다린다.
+	 */
+	public static final class AsyncSink implements Sink {
+		private static final int MAX_PENDING = 1 << 20;
+
+		private final Writer out;
+		private StringBuilder pending = new StringBuilder();
+		private boolean writing;
+
+		public AsyncSink(OutputStream stream) {
+			this.out = new BufferedWriter(new OutputStreamWriter(stream,
+					stream instanceof PrintStream print ? print.charset() : StandardCharsets.UTF_8), 1 << 16);
+			Thread writer = new Thread(this::drain, "sic-trace");
+			writer.setDaemon(true);
+			writer.start();
+		}
+
+		@Override
+		public synchronized void write(String text) {
+			while (pending.length() > MAX_PENDING) {
+				waitQuietly();
+			}
+			if (pending.isEmpty())
+				notifyAll();
+			pending.append(text);
+		}
+
+		@Override
+		public synchronized void flush() {
+			while (!pending.isEmpty() || writing) {
+				waitQuietly();
+			}
+		}
+
+		private void waitQuietly() {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for trace output", e);
+			}
+		}
+
+		private void drain() {
+			StringBuilder spare = new StringBuilder();
+			while (true) {
+				StringBuilder batch;
+				synchronized (this) {
+					while (pending.isEmpty()) {
+						waitQuietly();
+					}
+					batch = pending;
+					pending = spare;
+					writing = true;
+					notifyAll();
+				}
+				try {
+					out.append(batch);
+					out.flush();
+				} catch (IOException e) {
+					System.err.println("[TRACE] Write failed: " + e.getMessage());
+				}
+				batch.setLength(0);
+				synchronized (this) {
+					spare = batch;
+					writing = false;
+					notifyAll();
+				}
+			}
+		}
+	}
+}
@@ -21,6 +21,7 @@ public class VisualSimulator {
     private javax.swing.JTextField memStartField;
     private javax.swing.JTextField targetField;
     private javax.swing.JTextField deviceField;
+    private javax.swing.JTextField cyclesField;
 
     private javax.swing.JTextField[] regDecFields = new javax.swing.JTextField[10];
     private javax.swing.JTextField[] regHexFields = new javax.swing.JTextField[10];
@@ -31,9 +32,23 @@ public class VisualSimulator {
     ResourceManager resourceManager = new ResourceManager();
     SicLoader sicLoader = new SicLoader(resourceManager);
     SicSimulator sicSimulator = new SicSimulator(resourceManager);
+    // 메모리 창은 처음 열 때 생성한다
+    private MemoryInspector memoryInspector;
 
 	public VisualSimulator() {
 		resourceManager.visualSimulator = this;
+		// 같은 파일을 다시 열면 이전 load 결과를 재사용한다 (sic.cache.dir을 지정하면 파일로도 저장)
+		String cacheDir = System.getProperty("sic.cache.dir");
+		sicLoader.setLoadCache(new LoadCache(64L << 20, cacheDir == null ? null : java.nio.file.Paths.get(cacheDir)));
+		// sic.timing에 cost table 파일을 지정하면 그 값으로 cycle을 센다
+		String timing = System.getProperty("sic.timing");
+		if (timing != null) {
+			try {
+				resourceManager.setTimingModel(TimingModel.load(java.nio.file.Paths.get(timing)));
+			} catch (java.io.IOException e) {
+				System.err.println("[TIMING] Failed to load cost table: " + e.getMessage());
+			}
+		}
 		initializeGUI();
 	}
 
@@ -41,13 +56,72 @@ public class VisualSimulator {
 	 * 프로그램 로드 명령을 전달한다.
 	 */
 	public void load(File program) {
+		load(java.util.List.of(program));
+	}
+
+	/**
+	 * 여러 object program을 link하여 load하도록 전달한다.
+	 */
+	public void load(java.util.List<File> programs) {
 		// Reset instruction highlight
 		resourceManager.currentInstructionIndex = -1;
-		sicLoader.load(program);           // T 레코드로 메모리 초기화
-		sicLoader.modification(program);  // M 레코드로 메모리 수정
-		sicSimulator.load(program);       // 수정된 메모리 기반으로 시뮬레이터 준비
+		if (programs.size() == 1)
+			sicLoader.loadProgram(programs.get(0)); // T 레코드로 메모리 초기화, M 레코드로 메모리 수정 (image면 그대로 복사)
+		else
+			sicLoader.loadProgram(programs);      // 여러 파일을 하나로 link
+		sicSimulator.load(programs.get(0));       // 수정된 메모리 기반으로 시뮬레이터 준비
+		startCoverage();
 		update();
-		dumpMemory();
+		if (Trace.LOADER >= Trace.DEBUG)
+			dumpMemory();
+	}
+
+	/**
+	 * sic.coverage에 파일을 지정하면 실행한 명령어를 기록하여 instruction 목록에 표시한다. 파일이 이미 있으면 그
+	 * 내용(다른 실행에서 합친 결과 등)을 더해서 보여 준다.
+	 */
+	private void startCoverage() {
+		String file = System.getProperty("sic.coverage");
+		if (file == null)
+			return;
+		CoverageMap coverage = new CoverageMap(resourceManager.programName);
+		java.nio.file.Path path = java.nio.file.Paths.get(file);
+		if (java.nio.file.Files.exists(path)) {
+			try {
+				coverage.merge(CoverageMap.load(path));
+			} catch (java.io.IOException | IllegalArgumentException e) {
+				System.err.println("[COVERAGE] Ignoring " + file + ": " + e.getMessage());
+			}
+		}
+		resourceManager.coverage = coverage;
+	}
+
+	/**
+	 * coverage가 켜져 있으면 실행한 명령어는 초록색, 조건 분기 중 한쪽 방향만 실행한 것은 노란색으로 표시한다.
+	 */
+	private class CoverageRenderer extends javax.swing.DefaultListCellRenderer {
+		private static final long serialVersionUID = 1L;
+
+		private final java.awt.Color executed = new java.awt.Color(0xC8, 0xF0, 0xC8);
+		private final java.awt.Color partial = new java.awt.Color(0xF8, 0xE8, 0xA0);
+
+		@Override
+		public java.awt.Component getListCellRendererComponent(javax.swing.JList<?> list, Object value, int index,
+				boolean isSelected, boolean cellHasFocus) {
+			super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+			CoverageMap coverage = resourceManager.coverage;
+			if (isSelected || coverage == null || index >= resourceManager.debugInstructionList.size())
+				return this;
+			int addr = resourceManager.debugInstructionList.get(index).address;
+			if (!coverage.isExecuted(addr))
+				return this;
+			boolean branch = Disassembler.branchKind(resourceManager.memory, addr) == Disassembler.CONDITIONAL;
+			if (branch && !(coverage.isTaken(addr) && coverage.isFallThrough(addr)))
+				setBackground(partial);
+			else
+				setBackground(executed);
+			return this;
+		}
 	}
 
 	/**
@@ -151,14 +225,7 @@ public class VisualSimulator {
             instructionList.setModel(resourceManager.instructionListModel);
             // Highlight: select instruction based on lastExecutedAddress
             int lastExecuted = resourceManager.lastExecutedAddress;
-            int matchIndex = -1;
-            for (int i = 0; i < resourceManager.debugInstructionList.size(); i++) {
-                ResourceManager.InstructionEntry e = resourceManager.debugInstructionList.get(i);
-                if (e.address == lastExecuted) {
-                    matchIndex = i;
-                    break;
-                }
-            }
+            int matchIndex = resourceManager.indexOfInstruction(lastExecuted);
 
             if (matchIndex == -1) {
                 instructionList.clearSelection(); // prevent highlight if PC doesn't match any instruction
@@ -175,10 +242,16 @@ public class VisualSimulator {
                 targetField.setText(String.format("%06X", resourceManager.lastEffectiveAddress));
             }
         }
+        if (cyclesField != null) {
+            cyclesField.setText(String.format("%d / %d", resourceManager.getCycles(), resourceManager.getInstructionCount()));
+        }
         if (deviceField != null) {
             String deviceName = resourceManager.lastUsedDeviceName;
             deviceField.setText(deviceName != null ? deviceName : "");
         }
+        if (memoryInspector != null) {
+            memoryInspector.refresh();
+        }
 	}
 
 	private void initializeGUI() {
@@ -186,6 +259,12 @@ public class VisualSimulator {
 		javax.swing.SwingUtilities.invokeLater(() -> {
 			javax.swing.JFrame frame = new javax.swing.JFrame("SIC/XE Simulator");
 			frame.setDefaultCloseOperation(javax.swing.JFrame.EXIT_ON_CLOSE);
+			frame.addWindowListener(new java.awt.event.WindowAdapter() {
+				@Override
+				public void windowClosing(java.awt.event.WindowEvent e) {
+					resourceManager.closeDevice(); // 장치 buffer에 남은 출력을 기록
+				}
+			});
 			frame.setSize(780, 720);
 			frame.setLayout(null);
 
@@ -203,11 +282,17 @@ public class VisualSimulator {
 
 			openBtn.addActionListener(e -> {
 				FileDialog fd = new FileDialog((java.awt.Frame) null, "Object 파일 열기", FileDialog.LOAD);
+				fd.setMultipleMode(true);
 				fd.setVisible(true);
-				if (fd.getFile() != null) {
-					File selectedFile = new File(fd.getDirectory(), fd.getFile());
-					fileField.setText(selectedFile.getName());
-					load(selectedFile);
+				File[] selectedFiles = fd.getFiles();
+				if (selectedFiles.length > 0) {
+					StringBuilder names = new StringBuilder();
+					for (File selectedFile : selectedFiles) {
+						if (names.length() > 0) names.append(", ");
+						names.append(selectedFile.getName());
+					}
+					fileField.setText(names.toString());
+					load(java.util.Arrays.asList(selectedFiles));
  				}
 			});
 
@@ -276,6 +361,15 @@ public class VisualSimulator {
 			targetField.setEditable(false);
 			frame.add(targetField);
 
+			javax.swing.JLabel cyclesLabel = new javax.swing.JLabel("Cycles / Instructions :");
+			cyclesLabel.setBounds(390, 185, 180, 20);
+			frame.add(cyclesLabel);
+
+			cyclesField = new javax.swing.JTextField();
+			cyclesField.setBounds(590, 185, 150, 20);
+			cyclesField.setEditable(false);
+			frame.add(cyclesField);
+
 			javax.swing.JPanel regPanel = new javax.swing.JPanel(null);
 			regPanel.setBorder(javax.swing.BorderFactory.createTitledBorder("Register"));
 			regPanel.setBounds(20, 175, 350, 230);
@@ -324,6 +418,7 @@ public class VisualSimulator {
 
 			// instructionList is assumed to be a class field (javax.swing.JList)
 			instructionList.setSelectionMode(javax.swing.ListSelectionModel.SINGLE_SELECTION);
+			instructionList.setCellRenderer(new CoverageRenderer());
 			javax.swing.JScrollPane instructionScroll = new javax.swing.JScrollPane(instructionList);
 			instructionScroll.setBounds(390, 230, 180, 200);
 			frame.add(instructionScroll);
@@ -356,11 +451,21 @@ public class VisualSimulator {
 			frame.add(exitBtn);
 
 			exitBtn.addActionListener(e -> {
+				resourceManager.closeDevice();
 				JFrame currentFrame = (JFrame) SwingUtilities.getWindowAncestor(exitBtn);
 				if (currentFrame != null) currentFrame.dispose();
 				new VisualSimulator();
 			});
 
+			javax.swing.JButton memoryBtn = new javax.swing.JButton("메모리");
+			memoryBtn.setBounds(580, 405, 120, 25);
+			frame.add(memoryBtn);
+			memoryBtn.addActionListener(e -> {
+				if (memoryInspector == null)
+					memoryInspector = new MemoryInspector(resourceManager);
+				memoryInspector.show();
+			});
+
 			javax.swing.JLabel logLabel = new javax.swing.JLabel("Log (명령어 수행 관련) :");
 			logLabel.setBounds(20, 420, 250, 20);
 			frame.add(logLabel);
@@ -376,20 +481,16 @@ public class VisualSimulator {
 	}
 
 	/**
-	 * 메모리의 0x0000 ~ 0x03FF까지 16바이트씩 헥사 덤프 출력
+	 * 메모리의 0x0000 ~ 0x10FF까지 16바이트씩 헥사 덤프를 trace로 출력
 	 */
 	public void dumpMemory() {
+		java.io.ByteArrayOutputStream dump = new java.io.ByteArrayOutputStream();
 		try {
-			for (int i = 0; i < 0x1100; i += 16) {
-				System.out.printf("%04X : ", i);
-				for (int j = 0; j < 16; j++) {
-					System.out.printf("%02X ", (int) resourceManager.memory[i + j] & 0xFF);
-				}
-				System.out.println();
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
+			MemoryExporter.writeHex(resourceManager.memory, 0, 0x1100, java.nio.channels.Channels.newChannel(dump));
+		} catch (java.io.IOException e) {
+			throw new java.io.UncheckedIOException(e); // 메모리 buffer에 쓰므로 일어나지 않는다
 		}
+		Trace.print(dump.toString(java.nio.charset.StandardCharsets.US_ASCII));
 	}
 
 	public static void main(String[] args) {
@@ -0,0 +1,172 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMH CSV 결과(-rf csv)를 기준 결과와 비교한다. 같은 benchmark와 parameter끼리 점수를 비교하여, throughput은 낮아진
+ * 경우, 나머지 mode(시간)는 높아진 경우를 나빠진 것으로 본다.
+ * <p>
+ * 점수만으로는 측정 잡음과 구별할 수 없으므로, 두 결과의 신뢰 구간(점수 ± Score Error)이 겹치지 않고 나빠진 비율이 threshold를
+ * 넘을 때만 regression으로 표시한다. Score Error가 없는 결과(측정 iteration이 1개)는 구간 폭을 0으로 본다.
+ * <p>
+ * 기준 결과는 변경 전 tree에서 같은 방법으로 만든다.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -rf csv -rff benchmarks/baseline.csv
+ * java -jar benchmarks/target/benchmarks.jar -rf csv -rff current.csv
+ * java -cp benchmarks/target/benchmarks.jar SP25_simulator.BaselineCompare benchmarks/baseline.csv current.csv
+ * </pre>
+ */
+public class BaselineCompare {
+	/**
+	 * JMH CSV 한 줄
+	 */
+	record Result(String key, String mode, double score, double error, String unit) {
+		double low() {
+			return Double.isNaN(error) ? score : score - error;
+		}
+
+		double high() {
+			return Double.isNaN(error) ? score : score + error;
+		}
+	}
+
+	/**
+	 * @return now가 before보다 나빠졌고 두 신뢰 구간이 겹치지 않으면 true
+	 */
+	static boolean separated(Result before, Result now) {
+		if (now.mode().equals("thrpt"))
+			return now.high() < before.low();
+		return now.low() > before.high();
+	}
+
+	/**
+	 * @return benchmark 이름과 parameter 값 -> 결과 (파일의 순서대로)
+	 */
+	static Map<String, Result> read(Path file) throws IOException {
+		List<String> lines = Files.readAllLines(file);
+		if (lines.isEmpty())
+			throw new IOException(file + " is empty");
+		List<String> header = split(lines.get(0));
+		int benchmark = header.indexOf("Benchmark");
+		int mode = header.indexOf("Mode");
+		int score = header.indexOf("Score");
+		int unit = header.indexOf("Unit");
+		int error = -1;
+		for (int i = 0; i < header.size(); i++) {
+			if (header.get(i).startsWith("Score Error"))
+				error = i;
+		}
+		if (benchmark < 0 || mode < 0 || score < 0 || unit < 0)
+			throw new IOException(file + " is not a JMH CSV result file");
+		Map<String, Result> results = new LinkedHashMap<>();
+		for (int n = 1; n < lines.size(); n++) {
+			if (lines.get(n).isBlank())
+				continue;
+			List<String> fields = split(lines.get(n));
+			StringBuilder key = new StringBuilder(fields.get(benchmark));
+			for (int i = 0; i < header.size(); i++) {
+				if (header.get(i).startsWith("Param: ") && i < fields.size() && !fields.get(i).isEmpty())
+					key.append(' ').append(header.get(i).substring(7)).append('=').append(fields.get(i));
+			}
+			results.put(key.toString(), new Result(key.toString(), fields.get(mode), number(fields.get(score)),
+					error >= 0 ? number(fields.get(error)) : Double.NaN, fields.get(unit)));
+		}
+		return results;
+	}
+
+	private static double number(String field) {
+		return field.isEmpty() || field.equals("NaN") ? Double.NaN : Double.parseDouble(field);
+	}
+
+	// 따옴표로 감싼 field 안의 쉼표는 구분자가 아니다
+	private static List<String> split(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"')
+				quoted = !quoted;
+			else if (c == ',' && !quoted) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else
+				field.append(c);
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private static String interval(Result result) {
+		if (Double.isNaN(result.error()))
+			return String.format("%.3f", result.score());
+		return String.format("%.3f +/- %.3f", result.score(), result.error());
+	}
+
+	private static void usage() {
+		System.err.println("usage: BaselineCompare [--threshold percent] <baseline.csv> <current.csv>");
+		System.exit(2);
+	}
+
+	/**
+	 * 사용법 : java SP25_simulator.BaselineCompare [--threshold percent] &lt;baseline.csv&gt; &lt;current.csv&gt;
+	 * <ul>
+	 * <li>--threshold percent : 신뢰 구간이 겹치지 않으면서 이 비율보다 많이 나빠지면 regression으로 표시한다 (기본값
+	 * 10)</li>
+	 * </ul>
+	 * regression이 하나라도 있으면 종료 코드 1로 끝난다.
+	 */
+	public static void main(String[] args) throws IOException {
+		double threshold = 10;
+		List<String> files = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--threshold" -> {
+					if (++i >= args.length) usage();
+					threshold = Double.parseDouble(args[i]);
+				}
+				default -> {
+					if (args[i].startsWith("--")) usage();
+					files.add(args[i]);
+				}
+			}
+		}
+		if (files.size() != 2)
+			usage();
+
+		Map<String, Result> baseline = read(Paths.get(files.get(0)));
+		Map<String, Result> current = read(Paths.get(files.get(1)));
+		int regressions = 0;
+		System.out.printf("%-60s %24s %24s %-8s %8s%n", "Benchmark", "Baseline", "Current", "Unit", "Change");
+		for (Result now : current.values()) {
+			Result before = baseline.get(now.key());
+			if (before == null || !before.unit().equals(now.unit())) {
+				System.out.printf("%-60s %24s %24s %-8s %8s%n", now.key(), "-", interval(now), now.unit(), "new");
+				continue;
+			}
+			double change = (now.score() - before.score()) / before.score() * 100;
+			// throughput은 클수록, 시간은 작을수록 좋다
+			double worse = now.mode().equals("thrpt") ? -change : change;
+			boolean regression = worse > threshold && separated(before, now);
+			if (regression)
+				regressions++;
+			System.out.printf("%-60s %24s %24s %-8s %+7.1f%%%s%n", now.key(), interval(before), interval(now),
+					now.unit(), change, regression ? "  REGRESSION" : "");
+		}
+		for (String key : baseline.keySet()) {
+			if (!current.containsKey(key))
+				System.out.printf("%-60s %24s %24s %-8s %8s%n", key, interval(baseline.get(key)), "-",
+						baseline.get(key).unit(), "missing");
+		}
+		System.out.printf("%d regression(s) over %.1f%% outside the confidence intervals%n", regressions, threshold);
+		if (regressions > 0)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,94 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * benchmark들이 함께 쓰는 입력. jar에 들어 있는 예제 object program(COPY)과 입력 장치 F1을 임시 directory에 풀고,
+ * load한 simulator를 만든다.
+ */
+final class BenchmarkFixtures {
+	static final String COPY_PROGRAM = "output_objectcode_ex.txt";
+	static final String COPY_INPUT = "F1";
+	// 예제 입력으로 COPY 프로그램이 끝날 때까지 실행하는 명령어 수
+	static final int COPY_INSTRUCTIONS = 91;
+
+	private static Path directory;
+
+	private BenchmarkFixtures() {
+	}
+
+	/**
+	 * @return jar resource의 내용
+	 */
+	static byte[] resource(String name) {
+		try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/" + name)) {
+			if (in == null)
+				throw new IllegalStateException("Missing benchmark resource " + name);
+			return in.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return 예제 object program과 입력 파일을 풀어 둔 임시 directory
+	 */
+	static synchronized Path directory() throws IOException {
+		if (directory == null) {
+			Path dir = Files.createTempDirectory("sic-bench");
+			Files.write(dir.resolve(COPY_PROGRAM), resource(COPY_PROGRAM));
+			Files.write(dir.resolve(COPY_INPUT), resource(COPY_INPUT));
+			dir.toFile().deleteOnExit();
+			directory = dir;
+		}
+		return directory;
+	}
+
+	/**
+	 * COPY 프로그램을 load한 machine. 장치 F1, 05는 MemoryDevice이고, reset()으로 load 직후 상태로 되돌린다.
+	 */
+	static final class CopyMachine {
+		final SicRunner runner = new SicRunner();
+		final ResourceManager rMgr = runner.resourceManager;
+		final MemoryDevice input = new MemoryDevice(resource(COPY_INPUT));
+		final MemoryDevice output = new MemoryDevice();
+		final MachineSnapshot snapshot;
+
+		CopyMachine() throws IOException {
+			Path dir = directory();
+			rMgr.deviceManager = new DeviceManager(dir);
+			runner.load(List.of(dir.resolve(COPY_PROGRAM).toFile()));
+			rMgr.deviceManager.attach("F1", input);
+			rMgr.deviceManager.attach("05", output);
+			snapshot = MachineSnapshot.capture(rMgr);
+			if (run() != COPY_INSTRUCTIONS)
+				throw new IllegalStateException("COPY executed " + rMgr.getInstructionCount() + " instructions, expected "
+						+ COPY_INSTRUCTIONS);
+			reset();
+		}
+
+		void reset() {
+			snapshot.restore(rMgr);
+			input.reset();
+			output.reset();
+		}
+
+		/**
+		 * PC가 FFFFFF가 될 때까지 oneStep()으로 실행한다.
+		 *
+		 * @return 실행한 명령어 수
+		 */
+		long run() {
+			int[] register = rMgr.register;
+			for (int step = 0; step < 10 * COPY_INSTRUCTIONS && register[ResourceManager.REG_PC] != 0xFFFFFF; step++) {
+				runner.sicSimulator.oneStep();
+			}
+			return rMgr.getInstructionCount();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * oneStep()을 이루는 단계별 비용. COPY 프로그램에서 disassemble된 명령어를 BATCH개가 될 때까지 반복한 목록을 사용하며,
+ * 점수는 명령어 하나당이다.
+ * <ul>
+ * <li>fetch : PC로 명령어 찾기 (ResourceManager.instructionAt)</li>
+ * <li>decode : 형식과 nixbpe 해석 (SicSimulator.decode)</li>
+ * <li>dispatch : mnemonic으로 InstLuncher 함수 호출과 실행 (SicSimulator.dispatch). 장치 명령어는 제외한다.</li>
+ * <li>effectiveAddress : format 3/4 유효 주소 계산 (InstLuncher.calculateEffectiveAddress)</li>
+ * <li>branchTarget : 분기 대상의 정적 계산 (Disassembler.branchTarget)</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+	private static final int BATCH = 256;
+
+	private BenchmarkFixtures.CopyMachine machine;
+	private InstLuncher inst;
+	private final ResourceManager.InstructionEntry[] entries = new ResourceManager.InstructionEntry[BATCH];
+	private final ResourceManager.InstructionEntry[] executable = new ResourceManager.InstructionEntry[BATCH];
+	private final ResourceManager.InstructionEntry[] addressed = new ResourceManager.InstructionEntry[BATCH];
+	private final int[] addresses = new int[BATCH];
+
+	@Setup
+	public void setup() throws IOException {
+		machine = new BenchmarkFixtures.CopyMachine();
+		inst = new InstLuncher(machine.rMgr);
+		List<ResourceManager.InstructionEntry> all = machine.rMgr.debugInstructionList;
+		List<ResourceManager.InstructionEntry> nonDevice = new ArrayList<>();
+		List<ResourceManager.InstructionEntry> format34 = new ArrayList<>();
+		for (ResourceManager.InstructionEntry entry : all) {
+			int format = machine.runner.sicSimulator.decode(entry);
+			if (entry.opcode != 0xE0 && entry.opcode != 0xD8 && entry.opcode != 0xDC) // TD, RD, WD
+				nonDevice.add(entry);
+			if (format >= 3)
+				format34.add(entry);
+		}
+		for (int i = 0; i < BATCH; i++) {
+			entries[i] = all.get(i % all.size());
+			addresses[i] = entries[i].address;
+			executable[i] = nonDevice.get(i % nonDevice.size());
+			addressed[i] = format34.get(i % format34.size());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int fetch() {
+		ResourceManager rMgr = machine.rMgr;
+		int sum = 0;
+		for (int address : addresses) {
+			sum += rMgr.instructionAt(address).opcode;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int decode() {
+		SicSimulator simulator = machine.runner.sicSimulator;
+		int sum = 0;
+		for (ResourceManager.InstructionEntry entry : entries) {
+			sum += simulator.decode(entry) + entry.nixbpe;
+		}
+		return sum;
+	}
+
+	/**
+	 * 명령어를 실제로 실행하므로 호출마다 machine을 load 직후 상태로 되돌린다.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int dispatch() {
+		machine.reset();
+		SicSimulator simulator = machine.runner.sicSimulator;
+		for (ResourceManager.InstructionEntry entry : executable) {
+			simulator.dispatch(inst, entry);
+		}
+		return machine.rMgr.register[ResourceManager.REG_A];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int effectiveAddress() {
+		int sum = 0;
+		for (ResourceManager.InstructionEntry entry : addressed) {
+			sum += inst.calculateEffectiveAddress(entry);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int branchTarget() {
+		char[] memory = machine.rMgr.memory;
+		int sum = 0;
+		for (ResourceManager.InstructionEntry entry : addressed) {
+			sum += Disassembler.branchTarget(memory, entry.address, entry.hexCode.length() >> 1);
+		}
+		return sum;
+	}
+}
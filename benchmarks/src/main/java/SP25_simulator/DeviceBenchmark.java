@@ -0,0 +1,107 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RD/WD가 사용하는 ResourceManager.readDevice()/writeDevice()의 바이트당 처리량. memory는 MemoryDevice를 붙여
+ * simulator 쪽 비용만 재고, file은 DeviceManager가 이름으로 여는 파일 장치를 사용한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class DeviceBenchmark {
+	private static final int BATCH = 4096;
+	private static final String INPUT = "F1";
+	private static final String OUTPUT = "05";
+
+	@Param({ "memory", "file" })
+	public String device;
+
+	private Path dir;
+	private ResourceManager rMgr;
+	private MemoryDevice input;
+	private MemoryDevice output;
+	private final char[] data = { 'A' };
+
+	@Setup
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("sic-bench-device");
+		dir.toFile().deleteOnExit();
+		byte[] content = new byte[BATCH];
+		Arrays.fill(content, (byte) 'x');
+		Files.write(dir.resolve(INPUT), content);
+		rMgr = new ResourceManager();
+		rMgr.deviceManager = new DeviceManager(dir);
+		if (device.equals("memory")) {
+			input = new MemoryDevice(content);
+			output = new MemoryDevice();
+			rMgr.deviceManager.attach(INPUT, input);
+			rMgr.deviceManager.attach(OUTPUT, output);
+		}
+	}
+
+	/**
+	 * 출력 파일이 계속 커지지 않도록 iteration마다 지운다.
+	 */
+	@TearDown(Level.Iteration)
+	public void truncate() throws IOException {
+		rMgr.deviceManager.close();
+		Files.deleteIfExists(dir.resolve(OUTPUT));
+	}
+
+	@TearDown
+	public void cleanup() throws IOException {
+		rMgr.deviceManager.close();
+		Files.deleteIfExists(dir.resolve(INPUT));
+		Files.deleteIfExists(dir.resolve(OUTPUT));
+	}
+
+	/**
+	 * 입력 BATCH바이트를 한 바이트씩 읽고 처음으로 되돌린다.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int rd() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			sum += rMgr.readDevice(INPUT, 1)[0];
+		}
+		if (input != null)
+			input.reset();
+		else
+			rMgr.deviceManager.close(); // 다음 읽기에서 파일을 처음부터 다시 연다
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void wd() {
+		for (int i = 0; i < BATCH; i++) {
+			rMgr.writeDevice(OUTPUT, data, 1);
+		}
+		if (output != null)
+			output.reset();
+	}
+}
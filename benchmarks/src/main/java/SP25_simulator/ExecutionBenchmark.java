@@ -0,0 +1,41 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SicSimulator.oneStep()의 처리량. 예제 COPY 프로그램을 load 직후 상태에서 끝까지 실행하며, 점수는 명령어 하나당이다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class ExecutionBenchmark {
+	private BenchmarkFixtures.CopyMachine machine;
+
+	@Setup
+	public void setup() throws IOException {
+		machine = new BenchmarkFixtures.CopyMachine();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkFixtures.COPY_INSTRUCTIONS)
+	public long oneStepCopy() {
+		machine.reset();
+		return machine.run();
+	}
+}
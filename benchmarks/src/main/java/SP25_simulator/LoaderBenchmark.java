@@ -0,0 +1,99 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SicLoader.link()와 modification()을 합친 load 시간. small은 예제 COPY 프로그램(section 3개), large는 메모리를 거의
+ * 채우는 합성 object program(section 120개, M 레코드 3360개)이다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class LoaderBenchmark {
+	private static final int LARGE_SECTIONS = 120;
+	private static final int LARGE_SECTION_LENGTH = 0x1F8;
+
+	@Param({ "small", "large" })
+	public String program;
+
+	private ResourceManager rMgr;
+	private SicLoader loader;
+	private List<File> files;
+
+	@Setup
+	public void setup() throws IOException {
+		Path dir = BenchmarkFixtures.directory();
+		Path file = dir.resolve(BenchmarkFixtures.COPY_PROGRAM);
+		if (program.equals("large")) {
+			file = dir.resolve("large_objectcode.txt");
+			Files.writeString(file, syntheticProgram(LARGE_SECTIONS, LARGE_SECTION_LENGTH), StandardCharsets.US_ASCII);
+		}
+		files = List.of(file.toFile());
+		rMgr = new ResourceManager();
+		loader = new SicLoader(rMgr);
+	}
+
+	@Benchmark
+	public int loadAndModify() {
+		loader.link(files);
+		loader.modification(null);
+		return rMgr.programLength;
+	}
+
+	/**
+	 * control section을 sections개 이어 붙인 object program을 만든다. 각 section은 3바이트 명령어 6개를 반복하는 T
+	 * 레코드로 채워지고, 자신의 시작을 E번호로 정의하며, 앞 section의 정의를 참조하는 M 레코드를 18바이트마다 하나 가진다.
+	 *
+	 * @param sections section 수
+	 * @param length   section 하나의 길이 (18의 배수)
+	 * @return object program 내용
+	 */
+	static String syntheticProgram(int sections, int length) {
+		String pattern = "17202D4B1000032026290000332007" + "3F2FEC";
+		int patternBytes = pattern.length() / 2;
+		StringBuilder sb = new StringBuilder(sections * length * 3);
+		for (int s = 0; s < sections; s++) {
+			String define = String.format("E%05d", s);
+			String refer = String.format("E%05d", s == 0 ? 0 : s - 1);
+			sb.append(String.format("HS%05d000000%06X%n", s, length));
+			sb.append(String.format("D%s000000%n", define));
+			if (s > 0)
+				sb.append(String.format("R%s%n", refer));
+			for (int start = 0; start < length; start += 30) {
+				int count = Math.min(30, length - start);
+				sb.append(String.format("T%06X%02X", start, count));
+				for (int i = 0; i < count; i++) {
+					int offset = (start + i) % patternBytes * 2;
+					sb.append(pattern, offset, offset + 2);
+				}
+				sb.append(System.lineSeparator());
+			}
+			for (int offset = 0; offset + patternBytes <= length; offset += patternBytes) {
+				sb.append(String.format("M%06X05+%s%n", offset + 4, refer));
+			}
+			sb.append(s == 0 ? "E000000" : "E").append(System.lineSeparator()).append(System.lineSeparator());
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,87 @@
+package SP25_simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 명령어가 메모리에 접근할 때 쓰는 ResourceManager 함수의 비용. 주소는 STRIDE씩 건너뛰며 메모리 전체를 돈다. 점수는 접근
+ * 하나당이다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class MemoryBenchmark {
+	private static final int BATCH = 1024;
+	// word 경계와 memory line 경계에 모두 걸치도록 3과 16의 배수가 아닌 간격을 쓴다
+	private static final int STRIDE = 37;
+	private static final int LIMIT = 0x10000 - 3;
+
+	private ResourceManager rMgr;
+	private int next;
+
+	@Setup
+	public void setup() {
+		rMgr = new ResourceManager();
+		rMgr.initializeResource();
+	}
+
+	private int advance() {
+		next += STRIDE;
+		if (next >= LIMIT)
+			next -= LIMIT;
+		return next;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int readWord() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			sum += rMgr.readMemory(advance(), 3);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int writeWord() {
+		for (int i = 0; i < BATCH; i++) {
+			rMgr.setMemoryWord(advance(), i);
+		}
+		return next;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int readByte() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			sum += rMgr.readMemoryByte(advance());
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int getMemoryWord() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			sum += rMgr.getMemory(advance(), 3)[2];
+		}
+		return sum;
+	}
+}